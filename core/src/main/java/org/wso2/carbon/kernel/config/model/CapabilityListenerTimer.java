@@ -34,6 +34,11 @@ public class CapabilityListenerTimer {
     @Element(description = "time in milliseconds between successive task executions")
     private long period = 20;
 
+    @Element(description = "time in milliseconds between successive task executions, when eventDrivenNotification " +
+            "is enabled. The task then only picks up the capabilities which are not reported by the capability " +
+            "tracker events")
+    private long eventDrivenPeriod = 5000;
+
     public long getDelay() {
         return delay;
     }
@@ -41,4 +46,8 @@ public class CapabilityListenerTimer {
     public long getPeriod() {
         return period;
     }
+
+    public long getEventDrivenPeriod() {
+        return eventDrivenPeriod;
+    }
 }
@@ -58,6 +58,9 @@ public class CarbonConfiguration {
     @Element(description = "StartupOrderResolver related configurations")
     private StartupResolverConfig startupResolver = new StartupResolverConfig();
 
+    @Element(description = "Runtime management related configurations")
+    private RuntimeConfig runtime = new RuntimeConfig();
+
     @Element(description = "JMX Configuration")
     private JMXConfiguration jmx = new JMXConfiguration();
 
@@ -93,6 +96,10 @@ public class CarbonConfiguration {
         return startupResolver;
     }
 
+    public RuntimeConfig getRuntimeConfig() {
+        return runtime;
+    }
+
     public JMXConfiguration getJmxConfiguration() {
         return jmx;
     }
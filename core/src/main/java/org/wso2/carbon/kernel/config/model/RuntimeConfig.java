@@ -0,0 +1,69 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.config.model;
+
+import org.wso2.carbon.config.annotation.Configuration;
+import org.wso2.carbon.config.annotation.Element;
+
+/**
+ * Config bean for the runtimes managed by the RuntimeService.
+ *
+ * @since 5.2.0
+ */
+@Configuration(description = "Runtime management related configurations")
+public class RuntimeConfig {
+
+    @Element(description = "maximum number of runtimes started, stopped or put into maintenance in parallel. A " +
+            "runtime is started once the runtimes it depends on are started, and stopped once the runtimes which " +
+            "depend on it are stopped. Default value 1 transitions the runtimes one after the other")
+    private int concurrency = 1;
+
+    @Element(description = "maximum time in milliseconds to wait for a single runtime to be started, stopped or put " +
+            "into maintenance. Default value 0 waits without a timeout")
+    private long timeout = 0;
+
+    @Element(description = "maximum time in milliseconds to wait for the in-flight work of a runtime to complete, " +
+            "when the runtime is put into maintenance. Value 0 does not wait for the in-flight work")
+    private long maintenanceDrainTimeout = 30000;
+
+    @Element(description = "maximum number of warm-up tasks run in parallel, once the runtimes are started and " +
+            "before the server is reported to be started. Default value 1 runs the warm-up tasks one after the other")
+    private int warmUpConcurrency = 1;
+
+    @Element(description = "maximum time in milliseconds to run the warm-up tasks. The tasks which are still running " +
+            "once this time elapses are interrupted. Value 0 waits for the warm-up tasks without a time limit")
+    private long warmUpTimeout = 60000;
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public long getMaintenanceDrainTimeout() {
+        return maintenanceDrainTimeout;
+    }
+
+    public int getWarmUpConcurrency() {
+        return warmUpConcurrency;
+    }
+
+    public long getWarmUpTimeout() {
+        return warmUpTimeout;
+    }
+}
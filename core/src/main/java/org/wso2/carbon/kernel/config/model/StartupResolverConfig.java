@@ -19,6 +19,7 @@ package org.wso2.carbon.kernel.config.model;
 
 
 import org.wso2.carbon.config.annotation.Configuration;
+import org.wso2.carbon.config.annotation.Element;
 
 /**
  * Config bean for startupOrderResolver.
@@ -30,6 +31,27 @@ public class StartupResolverConfig {
 
     private PendingCapabilityTimer pendingCapabilityTimer = new PendingCapabilityTimer();
 
+    @Element(description = "notify RequiredCapabilityListeners as soon as their last required capability is " +
+            "available, instead of waiting for the next capabilityListenerTimer execution")
+    private boolean eventDrivenNotification = true;
+
+    @Element(description = "maximum number of RequiredCapabilityListeners notified in parallel. Listeners are " +
+            "notified as soon as they become satisfiable, without waiting for the listeners which are still " +
+            "running. Default value 1 notifies listeners one after the other")
+    private int listenerNotificationConcurrency = 1;
+
+    @Element(description = "log the critical path through the startup listener components, with per component " +
+            "durations, once all of them are notified")
+    private boolean logCriticalPath = false;
+
+    @Element(description = "cache the parsed Carbon-Component manifest headers in the data area of the Carbon core " +
+            "bundle, so that only the headers of new or updated bundles are parsed in the next server start")
+    private boolean manifestCacheEnabled = true;
+
+    @Element(description = "keep resolving the startup listener components of the bundles which are installed, " +
+            "updated or refreshed after the server startup, without a server restart")
+    private boolean dynamicResolution = false;
+
     public CapabilityListenerTimer getCapabilityListenerTimer() {
         return capabilityListenerTimer;
     }
@@ -37,4 +59,24 @@ public class StartupResolverConfig {
     public PendingCapabilityTimer getPendingCapabilityTimer() {
         return pendingCapabilityTimer;
     }
+
+    public boolean isEventDrivenNotification() {
+        return eventDrivenNotification;
+    }
+
+    public int getListenerNotificationConcurrency() {
+        return listenerNotificationConcurrency;
+    }
+
+    public boolean isLogCriticalPath() {
+        return logCriticalPath;
+    }
+
+    public boolean isManifestCacheEnabled() {
+        return manifestCacheEnabled;
+    }
+
+    public boolean isDynamicResolution() {
+        return dynamicResolution;
+    }
 }
@@ -55,12 +55,13 @@ public class CarbonContext {
     }
 
     /**
-     * Returns the carbon context instance which is stored at current thread local space.
+     * Returns the carbon context instance which is stored at current thread local space. The same instance is returned
+     * until the current context is destroyed.
      *
      * @return the carbon context instance.
      */
     public static CarbonContext getCurrentContext() {
-        return new CarbonContext(CarbonContextHolder.getCurrentContextHolder());
+        return CarbonContextHolder.getCurrentContextHolder().getCarbonContext(CarbonContext::new);
     }
 
     /**
@@ -82,4 +83,17 @@ public class CarbonContext {
     public Object getProperty(String name) {
         return getCarbonContextHolder().getProperty(name);
     }
+
+    /**
+     * Returns the value of the typed property of the given key, stored with this carbon context instance.
+     *
+     * @param key the key of the property
+     * @param <T> the type of the property value
+     * @return the value stored using the given key, or null if no value is already set.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ContextKey<T> key) {
+        // Values are type checked when they are set.
+        return (T) getCarbonContextHolder().getValue(key.getSlot());
+    }
 }
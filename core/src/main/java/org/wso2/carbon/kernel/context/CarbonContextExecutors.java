@@ -0,0 +1,84 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.context;
+
+import org.wso2.carbon.kernel.internal.context.ContextPropagatingExecutorService;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Utility methods which propagate the carbon context of the submitting thread to the tasks run by executors.
+ * <p>
+ * The carbon context is captured with {@link CarbonContextSnapshot#capture()} when a task is wrapped or submitted,
+ * and installed in the thread which runs the task for the duration of the task. Wrapped executors can be used with
+ * {@code CompletableFuture} async methods, in which case each stage runs with the carbon context of the thread which
+ * triggered it.
+ * <pre>
+ * ExecutorService executorService = CarbonContextExecutors.wrap(Executors.newFixedThreadPool(4));
+ * CompletableFuture.supplyAsync(() -&gt; CarbonContext.getCurrentContext().getUserPrincipal(), executorService);
+ * </pre>
+ *
+ * @since 5.2.0
+ */
+public final class CarbonContextExecutors {
+
+    private CarbonContextExecutors() {
+    }
+
+    /**
+     * Returns a task which runs the given task with the carbon context of the current thread.
+     *
+     * @param task the task to be wrapped
+     * @return the wrapped task
+     */
+    public static Runnable wrap(Runnable task) {
+        return CarbonContextSnapshot.capture().wrap(task);
+    }
+
+    /**
+     * Returns a task which calls the given task with the carbon context of the current thread.
+     *
+     * @param task the task to be wrapped
+     * @param <V>  the result type of the task
+     * @return the wrapped task
+     */
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        return CarbonContextSnapshot.capture().wrap(task);
+    }
+
+    /**
+     * Returns an executor which runs each task with the carbon context of the thread which submitted it.
+     *
+     * @param executor the executor which runs the tasks
+     * @return the context propagating executor
+     */
+    public static Executor wrap(Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+
+    /**
+     * Returns an executor service which runs each task with the carbon context of the thread which submitted it.
+     * Shutting down the returned executor service shuts down the given one.
+     *
+     * @param executorService the executor service which runs the tasks
+     * @return the context propagating executor service
+     */
+    public static ExecutorService wrap(ExecutorService executorService) {
+        return new ContextPropagatingExecutorService(executorService);
+    }
+}
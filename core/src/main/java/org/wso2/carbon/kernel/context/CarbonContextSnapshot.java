@@ -0,0 +1,143 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.context;
+
+import org.wso2.carbon.kernel.internal.context.CarbonContextHolder;
+import org.wso2.carbon.utils.Utils;
+
+import java.security.Principal;
+import java.util.concurrent.Callable;
+
+/**
+ * An immutable snapshot of the carbon context of a thread, i.e. its user principal and properties, which can be
+ * installed in another thread in order to run a task with the same carbon context.
+ * <p>
+ * Capturing a snapshot does not copy the properties. These are shared with the captured context until either of them
+ * is modified, hence a snapshot can be taken for every task submitted to an executor. Changes made to the carbon
+ * context while a task runs are visible only to that task, and the carbon context of the thread which runs the task is
+ * restored once the task completes.
+ * <pre>
+ * CarbonContextSnapshot snapshot = CarbonContextSnapshot.capture();
+ * executorService.submit(snapshot.wrap(() -&gt; CarbonContext.getCurrentContext().getUserPrincipal()));
+ * </pre>
+ *
+ * @see CarbonContextExecutors
+ * @since 5.2.0
+ */
+public final class CarbonContextSnapshot {
+
+    private final CarbonContextHolder carbonContextHolder;
+
+    private CarbonContextSnapshot(CarbonContextHolder carbonContextHolder) {
+        this.carbonContextHolder = carbonContextHolder;
+    }
+
+    /**
+     * Captures the carbon context of the current thread.
+     *
+     * @return the snapshot of the current carbon context
+     */
+    public static CarbonContextSnapshot capture() {
+        Utils.checkSecurity();
+        return new CarbonContextSnapshot(CarbonContextHolder.getCurrentContextHolder().copy());
+    }
+
+    /**
+     * Returns the user principal of the captured carbon context.
+     *
+     * @return the user principal, or null if no principal was set
+     */
+    public Principal getUserPrincipal() {
+        return carbonContextHolder.getUserPrincipal();
+    }
+
+    /**
+     * Returns the value of the given property in the captured carbon context.
+     *
+     * @param name property key name to lookup
+     * @return the value stored using the given key, or null if no value was set
+     */
+    public Object getProperty(String name) {
+        return carbonContextHolder.getProperty(name);
+    }
+
+    /**
+     * Returns the value of the typed property of the given key in the captured carbon context.
+     *
+     * @param key the key of the property
+     * @param <T> the type of the property value
+     * @return the value stored using the given key, or null if no value was set
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ContextKey<T> key) {
+        return (T) carbonContextHolder.getValue(key.getSlot());
+    }
+
+    /**
+     * Runs the given task in the current thread, with this snapshot as the carbon context.
+     *
+     * @param task the task to be run
+     */
+    public void run(Runnable task) {
+        try (ContextScope scope = open()) {
+            task.run();
+        }
+    }
+
+    /**
+     * Calls the given task in the current thread, with this snapshot as the carbon context.
+     *
+     * @param task the task to be called
+     * @param <V>  the result type of the task
+     * @return the result of the task
+     * @throws Exception if the task throws an exception
+     */
+    public <V> V call(Callable<V> task) throws Exception {
+        try (ContextScope scope = open()) {
+            return task.call();
+        }
+    }
+
+    /**
+     * Opens a scope in the current thread, with this snapshot as the carbon context.
+     *
+     * @return the opened scope, to be closed with try-with-resources
+     */
+    public ContextScope open() {
+        return ContextScope.open(carbonContextHolder.copy());
+    }
+
+    /**
+     * Returns a task which runs the given task with this snapshot as the carbon context, in whichever thread it runs.
+     *
+     * @param task the task to be wrapped
+     * @return the wrapped task
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> run(task);
+    }
+
+    /**
+     * Returns a task which calls the given task with this snapshot as the carbon context, in whichever thread it runs.
+     *
+     * @param task the task to be wrapped
+     * @param <V>  the result type of the task
+     * @return the wrapped task
+     */
+    public <V> Callable<V> wrap(Callable<V> task) {
+        return () -> call(task);
+    }
+}
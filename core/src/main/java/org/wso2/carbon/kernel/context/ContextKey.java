@@ -0,0 +1,99 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.context;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A typed key of a carbon context property.
+ * <p>
+ * Each key is assigned a slot when it is registered, and the values of the typed properties are stored in an array
+ * indexed by these slots, hence reading and writing them does not hash the property name. Register keys once, e.g. as
+ * constants, since the slots are never released.
+ * <pre>
+ * public static final ContextKey&lt;String&gt; CORRELATION_ID = ContextKey.register("correlation-id", String.class);
+ *
+ * PrivilegedCarbonContext.getCurrentContext().set(CORRELATION_ID, correlationId);
+ * String correlationId = CarbonContext.getCurrentContext().get(CORRELATION_ID);
+ * </pre>
+ * The typed properties are separate from the properties accessed by the string based {@code getProperty} and
+ * {@code setProperty} methods, hence registering a key does not change a property set with the same name.
+ *
+ * @param <T> the type of the property value
+ * @since 5.2.0
+ */
+public final class ContextKey<T> {
+
+    private static final Map<String, ContextKey<?>> contextKeys = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final Class<T> type;
+    private final int slot;
+
+    private ContextKey(String name, Class<T> type, int slot) {
+        this.name = name;
+        this.type = type;
+        this.slot = slot;
+    }
+
+    /**
+     * Registers a key with the given property name and value type. If a key is already registered with the given
+     * name, that key is returned.
+     * <p>
+     * Types are matched by their names. A type of the same name loaded by a different class loader, e.g. by the new
+     * revision of an updated or refreshed bundle, replaces the registered type. The slot of the key is kept, hence
+     * the values set using the previous type remain in the carbon contexts until they are replaced.
+     *
+     * @param name the property name
+     * @param type the type of the property value
+     * @param <T>  the type of the property value
+     * @return the key of the property
+     * @throws IllegalArgumentException if a key is already registered with the given name for a different type
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> ContextKey<T> register(String name, Class<T> type) {
+        ContextKey<?> contextKey = contextKeys.get(name);
+        if (contextKey == null) {
+            contextKey = new ContextKey<>(name, type, contextKeys.size());
+            contextKeys.put(name, contextKey);
+        } else if (!contextKey.type.getName().equals(type.getName())) {
+            throw new IllegalArgumentException("Context key " + name + " is already registered for type " +
+                    contextKey.type.getName());
+        } else if (!contextKey.type.equals(type)) {
+            contextKey = new ContextKey<>(name, type, contextKey.slot);
+            contextKeys.put(name, contextKey);
+        }
+        return (ContextKey<T>) contextKey;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return "ContextKey{name=" + name + ", type=" + type.getName() + "}";
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.context;
+
+import org.slf4j.MDC;
+import org.wso2.carbon.kernel.internal.context.CarbonContextHolder;
+
+import java.security.Principal;
+
+/**
+ * A frame of the carbon context of the current thread, which is closed with try-with-resources.
+ * <p>
+ * Opening a scope installs a copy of the current carbon context, optionally with a different user principal, as the
+ * carbon context of the thread. The properties are shared with the previous carbon context until either of them is
+ * modified. Closing the scope restores the previous carbon context and the user-name MDC entry, hence a pooled thread
+ * is returned to the pool without the principal and the properties set within the scope, and without removing the
+ * thread local carbon context. Scopes can be nested, and must be closed in the reverse order in which they are
+ * opened.
+ * <pre>
+ * try (ContextScope scope = PrivilegedCarbonContext.open(userPrincipal)) {
+ *     processRequest();
+ * }
+ * </pre>
+ *
+ * @since 5.2.0
+ */
+public final class ContextScope implements AutoCloseable {
+
+    static final String MDC_USER_NAME = "user-name";
+
+    private final CarbonContextHolder carbonContextHolder;
+    private final CarbonContextHolder previousCarbonContextHolder;
+    private final String previousUserName;
+    private boolean closed;
+
+    private ContextScope(CarbonContextHolder carbonContextHolder) {
+        this.carbonContextHolder = carbonContextHolder;
+        this.previousUserName = MDC.get(MDC_USER_NAME);
+        this.previousCarbonContextHolder = CarbonContextHolder.setCurrentContextHolder(carbonContextHolder);
+
+        Principal userPrincipal = carbonContextHolder.getUserPrincipal();
+        if (userPrincipal != null && userPrincipal.getName() != null) {
+            MDC.put(MDC_USER_NAME, userPrincipal.getName());
+        }
+    }
+
+    /**
+     * Opens a scope with the given holder as the current carbon context.
+     *
+     * @param carbonContextHolder the holder of the scope
+     * @return the opened scope
+     */
+    static ContextScope open(CarbonContextHolder carbonContextHolder) {
+        return new ContextScope(carbonContextHolder);
+    }
+
+    /**
+     * Restores the carbon context and the user-name MDC entry of the thread, which were current when this scope was
+     * opened. Closing an already closed scope has no effect. The previous carbon context is restored even if the
+     * carbon context of this scope was destroyed within the scope, e.g. by
+     * {@link PrivilegedCarbonContext#destroyCurrentContext()}.
+     *
+     * @throws IllegalStateException if this scope is not the innermost open scope of the current thread
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (CarbonContextHolder.getCurrentContextHolder() != carbonContextHolder
+                && !carbonContextHolder.isDestroyed()) {
+            throw new IllegalStateException("Carbon context scopes must be closed by the thread which opened them, " +
+                    "in the reverse order in which they are opened");
+        }
+
+        closed = true;
+        CarbonContextHolder.setCurrentContextHolder(previousCarbonContextHolder);
+        if (previousUserName == null) {
+            MDC.remove(MDC_USER_NAME);
+        } else {
+            MDC.put(MDC_USER_NAME, previousUserName);
+        }
+    }
+}
@@ -37,17 +37,44 @@ public final class PrivilegedCarbonContext extends CarbonContext {
     }
 
     /**
-     * Returns the carbon context instance which is stored at current thread local space.
+     * Returns the carbon context instance which is stored at current thread local space. The same instance is returned
+     * until the current context is destroyed.
      *
      * @return the carbon context instance.
      */
     public static PrivilegedCarbonContext getCurrentContext() {
         Utils.checkSecurity();
-        return new PrivilegedCarbonContext(CarbonContextHolder.getCurrentContextHolder());
+        return CarbonContextHolder.getCurrentContextHolder().getPrivilegedCarbonContext(PrivilegedCarbonContext::new);
     }
 
     /**
-     * Destroys the current carbon context instance by removing it from thread local space.
+     * Opens a scope in which the current carbon context is a copy of the current one. The previous carbon context is
+     * restored when the scope is closed.
+     *
+     * @return the opened scope, to be closed with try-with-resources
+     */
+    public static ContextScope open() {
+        Utils.checkSecurity();
+        return ContextScope.open(CarbonContextHolder.getCurrentContextHolder().copy());
+    }
+
+    /**
+     * Opens a scope in which the current carbon context is a copy of the current one with the given user principal,
+     * which replaces any principal of the current carbon context. The previous carbon context is restored when the
+     * scope is closed.
+     *
+     * @param userPrincipal the jaas principal object of the scope
+     * @return the opened scope, to be closed with try-with-resources
+     */
+    public static ContextScope open(Principal userPrincipal) {
+        Utils.checkSecurity();
+        return ContextScope.open(CarbonContextHolder.getCurrentContextHolder().copy(userPrincipal));
+    }
+
+    /**
+     * Destroys the current carbon context instance by removing it from thread local space. If this is called within a
+     * {@link ContextScope}, closing the scope still restores the carbon context which was current when the scope was
+     * opened.
      */
     public static void destroyCurrentContext() {
         Utils.checkSecurity();
@@ -66,7 +93,7 @@ public final class PrivilegedCarbonContext extends CarbonContext {
         getCarbonContextHolder().setUserPrincipal(userPrincipal);
 
         //for auditing
-        MDC.put("user-name", userPrincipal.getName());
+        MDC.put(ContextScope.MDC_USER_NAME, userPrincipal.getName());
     }
 
     /**
@@ -80,4 +107,17 @@ public final class PrivilegedCarbonContext extends CarbonContext {
         Utils.checkSecurity();
         getCarbonContextHolder().setProperty(name, value);
     }
+
+    /**
+     * Method to set the value of a typed property with carbon context instance. The stored value can be replaced with
+     * a new value by using the same key.
+     *
+     * @param key   the key of the property to be set.
+     * @param value the value of the property to be set.
+     * @param <T>   the type of the property value
+     */
+    public <T> void set(ContextKey<T> key, T value) {
+        Utils.checkSecurity();
+        getCarbonContextHolder().setValue(key.getSlot(), key.getType().cast(value));
+    }
 }
@@ -19,6 +19,8 @@ import org.osgi.framework.BundleContext;
 import org.wso2.carbon.config.provider.ConfigProvider;
 import org.wso2.carbon.kernel.internal.runtime.RuntimeManager;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Carbon kernel DataHolder.
  *
@@ -32,6 +34,8 @@ public class DataHolder {
 
     private ConfigProvider configProvider;
 
+    private volatile CompletableFuture<Boolean> runtimeWarmUp = CompletableFuture.completedFuture(true);
+
     public static DataHolder getInstance() {
         return instance;
     }
@@ -79,4 +83,23 @@ public class DataHolder {
     public void setConfigProvider(ConfigProvider configProvider) {
         this.configProvider = configProvider;
     }
+
+    /**
+     * Getter method of the warm-up of the runtimes.
+     *
+     * @return future which completes once the runtimes are warmed up, which is already completed if no warm-up is
+     * started
+     */
+    public CompletableFuture<Boolean> getRuntimeWarmUp() {
+        return runtimeWarmUp;
+    }
+
+    /**
+     * Setter method of the warm-up of the runtimes.
+     *
+     * @param runtimeWarmUp future which completes once the runtimes are warmed up
+     */
+    public void setRuntimeWarmUp(CompletableFuture<Boolean> runtimeWarmUp) {
+        this.runtimeWarmUp = runtimeWarmUp;
+    }
 }
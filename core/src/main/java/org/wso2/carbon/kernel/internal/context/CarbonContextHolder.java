@@ -15,10 +15,15 @@
  */
 package org.wso2.carbon.kernel.internal.context;
 
+import org.wso2.carbon.kernel.context.CarbonContext;
+import org.wso2.carbon.kernel.context.PrivilegedCarbonContext;
+
 import java.security.Principal;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * This class will preserve an instance the current CarbonContextHolder as a thread local variable.
@@ -30,8 +35,38 @@ import java.util.Optional;
 
 public final class CarbonContextHolder {
 
+    private static final int INITIAL_VALUE_CAPACITY = 8;
+
     private Principal userPrincipal;
-    private Map<String, Object> properties = new HashMap<>();
+
+    /**
+     * Values of the typed context properties, indexed by the slots of their keys. Created on the first write.
+     */
+    private Object[] values;
+
+    /**
+     * Context properties which are not registered with a typed key. Created on the first write.
+     */
+    private Map<String, Object> properties;
+
+    /**
+     * Whether the values and the properties are shared with copies of this holder, in which case they are copied
+     * before the first write.
+     */
+    private boolean storageShared;
+
+    /**
+     * Views of this holder returned by {@code CarbonContext.getCurrentContext()} and
+     * {@code PrivilegedCarbonContext.getCurrentContext()}. These are created once for the lifetime of this holder, so
+     * that looking up the current context does not allocate.
+     */
+    private CarbonContext carbonContext;
+    private PrivilegedCarbonContext privilegedCarbonContext;
+
+    /**
+     * Whether this holder was removed from the thread local space by {@link #destroyCurrentCarbonContextHolder()}.
+     */
+    private boolean destroyed;
 
     private static ThreadLocal<CarbonContextHolder> currentContextHolder = new ThreadLocal<CarbonContextHolder>() {
         protected CarbonContextHolder initialValue() {
@@ -45,6 +80,20 @@ public final class CarbonContextHolder {
     private CarbonContextHolder() {
     }
 
+    /**
+     * Creates a holder which shares the given values and properties until the first write.
+     *
+     * @param userPrincipal the user principal of the holder
+     * @param values        the typed property values of the holder
+     * @param properties    the properties of the holder
+     */
+    private CarbonContextHolder(Principal userPrincipal, Object[] values, Map<String, Object> properties) {
+        this.userPrincipal = userPrincipal;
+        this.values = values;
+        this.properties = properties;
+        this.storageShared = true;
+    }
+
     /**
      * Method to obtain the current thread local CarbonContextHolder instance.
      *
@@ -55,12 +104,89 @@ public final class CarbonContextHolder {
     }
 
     /**
-     * This method will destroy the current thread local CarbonContextHolder.
+     * Sets the given holder as the current thread local CarbonContextHolder.
+     *
+     * @param carbonContextHolder the holder to be set
+     * @return the previous thread local CarbonContextHolder, which can be restored with this method
+     */
+    public static CarbonContextHolder setCurrentContextHolder(CarbonContextHolder carbonContextHolder) {
+        CarbonContextHolder previous = currentContextHolder.get();
+        currentContextHolder.set(carbonContextHolder);
+        return previous;
+    }
+
+    /**
+     * Returns a copy of this holder, with the same user principal and properties.
+     * <p>
+     * The properties are not copied, but shared between this holder and the copy until either of them is written,
+     * hence a copy can be taken on every task submission. The copy has its own CarbonContext views.
+     *
+     * @return the copy of this holder
+     */
+    public CarbonContextHolder copy() {
+        return copy(userPrincipal);
+    }
+
+    /**
+     * Returns a copy of this holder with the same properties, and the given user principal.
+     *
+     * @param userPrincipal the user principal of the copy
+     * @return the copy of this holder
+     * @see #copy()
+     */
+    public CarbonContextHolder copy(Principal userPrincipal) {
+        if (!storageShared) {
+            storageShared = true;
+        }
+        return new CarbonContextHolder(userPrincipal, values, properties);
+    }
+
+    /**
+     * Returns the {@code CarbonContext} view of this holder, creating it with the given factory on the first call.
+     *
+     * @param viewFactory creates the view of a holder
+     * @return the CarbonContext view of this holder
+     */
+    public CarbonContext getCarbonContext(Function<CarbonContextHolder, CarbonContext> viewFactory) {
+        if (carbonContext == null) {
+            carbonContext = viewFactory.apply(this);
+        }
+        return carbonContext;
+    }
+
+    /**
+     * Returns the {@code PrivilegedCarbonContext} view of this holder, creating it with the given factory on the first
+     * call.
+     *
+     * @param viewFactory creates the view of a holder
+     * @return the PrivilegedCarbonContext view of this holder
+     */
+    public PrivilegedCarbonContext getPrivilegedCarbonContext(
+            Function<CarbonContextHolder, PrivilegedCarbonContext> viewFactory) {
+        if (privilegedCarbonContext == null) {
+            privilegedCarbonContext = viewFactory.apply(this);
+        }
+        return privilegedCarbonContext;
+    }
+
+    /**
+     * This method will destroy the current thread local CarbonContextHolder. The views of the destroyed holder are
+     * discarded along with it, hence the next lookup of the current context returns a view of a new holder.
      */
     public void destroyCurrentCarbonContextHolder() {
+        currentContextHolder.get().destroyed = true;
         currentContextHolder.remove();
     }
 
+    /**
+     * Returns whether this holder was destroyed while it was the current thread local CarbonContextHolder.
+     *
+     * @return true if this holder was destroyed
+     */
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+
     /**
      * Method to obtain a property on this CarbonContext instance.
      *
@@ -68,7 +194,7 @@ public final class CarbonContextHolder {
      * @return the value of the property by the given name.
      */
     public Object getProperty(String name) {
-        return properties.get(name);
+        return properties == null ? null : properties.get(name);
     }
 
     /**
@@ -78,9 +204,51 @@ public final class CarbonContextHolder {
      * @param value the value to be set to the property by the given name.
      */
     public void setProperty(String name, Object value) {
+        unshareStorage();
+        if (properties == null) {
+            properties = new HashMap<>();
+        }
         properties.put(name, value);
     }
 
+    /**
+     * Returns the value of the typed context property in the given slot.
+     *
+     * @param slot the slot of the property key
+     * @return the value of the property, or null if no value is set
+     */
+    public Object getValue(int slot) {
+        Object[] values = this.values;
+        return values == null || slot >= values.length ? null : values[slot];
+    }
+
+    /**
+     * Sets the value of the typed context property in the given slot.
+     *
+     * @param slot  the slot of the property key
+     * @param value the value to be set
+     */
+    public void setValue(int slot, Object value) {
+        unshareStorage();
+        if (values == null) {
+            values = new Object[Math.max(slot + 1, INITIAL_VALUE_CAPACITY)];
+        } else if (slot >= values.length) {
+            values = Arrays.copyOf(values, Math.max(slot + 1, values.length * 2));
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Copies the values and the properties shared with copies of this holder, before they are written.
+     */
+    private void unshareStorage() {
+        if (storageShared) {
+            values = values == null ? null : values.clone();
+            properties = properties == null ? null : new HashMap<>(properties);
+            storageShared = false;
+        }
+    }
+
     /**
      * Method to obtain the currently set user principal from the CarbonContext instance.
      *
@@ -17,13 +17,16 @@ package org.wso2.carbon.kernel.internal.runtime;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wso2.carbon.kernel.runtime.Runtime;
+import org.wso2.carbon.kernel.config.model.RuntimeConfig;
 import org.wso2.carbon.kernel.runtime.RuntimeService;
-import org.wso2.carbon.kernel.runtime.RuntimeState;
+import org.wso2.carbon.kernel.runtime.RuntimeTransitionResult;
 import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
 import org.wso2.carbon.utils.Utils;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation class for the RuntimeService interface.
@@ -34,9 +37,26 @@ import java.util.List;
 public class CarbonRuntimeService implements RuntimeService, CarbonRuntimeServiceMBean {
     private static Logger logger = LoggerFactory.getLogger(CarbonRuntimeService.class);
     RuntimeManager runtimeManager;
+    private final RuntimeTransitionScheduler runtimeTransitionScheduler;
+    private final Map<String, RuntimeTransitionResult> runtimeTransitionResults = new ConcurrentHashMap<>();
 
     public CarbonRuntimeService(RuntimeManager runtimeManager) {
         this.runtimeManager = runtimeManager;
+        this.runtimeTransitionScheduler = new RuntimeTransitionScheduler();
+    }
+
+    /**
+     * Creates a runtime service which transitions the runtimes in parallel, as configured in the given runtime
+     * configuration.
+     *
+     * @param runtimeManager the runtime manager of the registered runtimes
+     * @param runtimeConfig  the runtime configuration
+     * @since 5.2.0
+     */
+    public CarbonRuntimeService(RuntimeManager runtimeManager, RuntimeConfig runtimeConfig) {
+        this.runtimeManager = runtimeManager;
+        this.runtimeTransitionScheduler = new RuntimeTransitionScheduler(runtimeConfig.getConcurrency(),
+                runtimeConfig.getTimeout(), runtimeConfig.getMaintenanceDrainTimeout());
     }
 
     /**
@@ -47,19 +67,8 @@ public class CarbonRuntimeService implements RuntimeService, CarbonRuntimeServic
     @Override
     public void startRuntimes() throws RuntimeServiceException {
         Utils.checkSecurity();
-        List<Runtime> runtimeMap = runtimeManager.getRuntimeList();
-        for (Runtime runtime : runtimeMap) {
-            if (runtime.getState() == RuntimeState.INACTIVE) {
-                runtime.init();
-                runtime.start();
-            } else if (runtime.getState() == RuntimeState.PENDING) {
-                throw new RuntimeServiceException("Runtime not initialized." + runtime.getClass().getName());
-            } else if (runtime.getState() == RuntimeState.MAINTENANCE) {
-                throw new RuntimeServiceException("Runtime is in maintenance mode." + runtime.getClass().getName());
-            } else {
-                logger.error("Runtime already started : " + runtime.getClass().getName());
-            }
-        }
+        runtimeTransitionScheduler.transition(runtimeManager.getManagedRuntimes(), RuntimeTransition.START,
+                this::recordResult);
     }
 
     /**
@@ -70,14 +79,8 @@ public class CarbonRuntimeService implements RuntimeService, CarbonRuntimeServic
     @Override
     public void stopRuntimes() throws RuntimeServiceException {
         Utils.checkSecurity();
-        List<Runtime> runtimeMap = runtimeManager.getRuntimeList();
-        for (Runtime runtime : runtimeMap) {
-            if (runtime.getState() == RuntimeState.PENDING) {
-                throw new RuntimeServiceException("Runtime not initialized." + runtime.getClass().getName());
-            } else {
-                runtime.stop();
-            }
-        }
+        runtimeTransitionScheduler.transition(runtimeManager.getManagedRuntimes(), RuntimeTransition.STOP,
+                this::recordResult);
     }
 
     /**
@@ -88,32 +91,125 @@ public class CarbonRuntimeService implements RuntimeService, CarbonRuntimeServic
     @Override
     public void beginMaintenance() throws RuntimeServiceException {
         Utils.checkSecurity();
-        List<Runtime> runtimeMap = runtimeManager.getRuntimeList();
-        for (Runtime runtime : runtimeMap) {
-            if (runtime.getState() == RuntimeState.PENDING) {
-                throw new RuntimeServiceException("Runtime not initialized." + runtime.getClass().getName());
-            } else {
-                runtime.beginMaintenance();
-            }
-        }
+        runtimeTransitionScheduler.transition(runtimeManager.getManagedRuntimes(), RuntimeTransition.BEGIN_MAINTENANCE,
+                this::recordResult);
     }
 
     /**
-     * Puts registered runtime into MAINTENANCE state.
+     * Puts registered runtime into INACTIVE state from MAINTENANCE state.
      *
      * @throws RuntimeServiceException - thrown if any issues occur during the process
      */
     @Override
     public void endMaintenance() throws RuntimeServiceException {
         Utils.checkSecurity();
-        List<Runtime> runtimeMap = runtimeManager.getRuntimeList();
-        for (Runtime runtime : runtimeMap) {
-            if (runtime.getState() == RuntimeState.PENDING) {
-                throw new RuntimeServiceException("Runtime not initialized." + runtime.getClass().getName());
-            } else {
-                runtime.endMaintenance();
-            }
-        }
+        runtimeTransitionScheduler.transition(runtimeManager.getManagedRuntimes(), RuntimeTransition.END_MAINTENANCE,
+                this::recordResult);
     }
 
+    /**
+     * Starts the registered runtimes without blocking the caller, in the order of their dependencies.
+     *
+     * @return future which completes with the outcome of each runtime once all of them are transitioned, even if some
+     * of them failed, or completes exceptionally with a {@link RuntimeServiceException} if the runtime dependencies
+     * are cyclic
+     */
+    @Override
+    public CompletableFuture<List<RuntimeTransitionResult>> startRuntimesAsync() {
+        Utils.checkSecurity();
+        return transitionAsync(RuntimeTransition.START);
+    }
+
+    /**
+     * Stops the registered runtimes without blocking the caller, in the order of their dependencies.
+     *
+     * @return future which completes with the outcome of each runtime once all of them are transitioned, even if some
+     * of them failed, or completes exceptionally with a {@link RuntimeServiceException} if the runtime dependencies
+     * are cyclic
+     */
+    @Override
+    public CompletableFuture<List<RuntimeTransitionResult>> stopRuntimesAsync() {
+        Utils.checkSecurity();
+        return transitionAsync(RuntimeTransition.STOP);
+    }
+
+    /**
+     * Puts the registered runtimes into MAINTENANCE state without blocking the caller, in the order of their
+     * dependencies.
+     *
+     * @return future which completes with the outcome of each runtime once all of them are transitioned, even if some
+     * of them failed, or completes exceptionally with a {@link RuntimeServiceException} if the runtime dependencies
+     * are cyclic
+     */
+    @Override
+    public CompletableFuture<List<RuntimeTransitionResult>> beginMaintenanceAsync() {
+        Utils.checkSecurity();
+        return transitionAsync(RuntimeTransition.BEGIN_MAINTENANCE);
+    }
+
+    /**
+     * Puts the registered runtimes into INACTIVE state from MAINTENANCE state without blocking the caller, in the order
+     * of their dependencies.
+     *
+     * @return future which completes with the outcome of each runtime once all of them are transitioned, even if some
+     * of them failed, or completes exceptionally with a {@link RuntimeServiceException} if the runtime dependencies
+     * are cyclic
+     */
+    @Override
+    public CompletableFuture<List<RuntimeTransitionResult>> endMaintenanceAsync() {
+        Utils.checkSecurity();
+        return transitionAsync(RuntimeTransition.END_MAINTENANCE);
+    }
+
+    @Override
+    public void startRuntimesInBackground() {
+        logFailures(startRuntimesAsync(), RuntimeTransition.START);
+    }
+
+    @Override
+    public void stopRuntimesInBackground() {
+        logFailures(stopRuntimesAsync(), RuntimeTransition.STOP);
+    }
+
+    @Override
+    public void beginMaintenanceInBackground() {
+        logFailures(beginMaintenanceAsync(), RuntimeTransition.BEGIN_MAINTENANCE);
+    }
+
+    @Override
+    public void endMaintenanceInBackground() {
+        logFailures(endMaintenanceAsync(), RuntimeTransition.END_MAINTENANCE);
+    }
+
+    @Override
+    public String[] getRuntimeTransitionResults() {
+        Utils.checkSecurity();
+        return runtimeTransitionResults.values().stream()
+                .sorted((result, otherResult) -> result.getRuntimeName().compareTo(otherResult.getRuntimeName()))
+                .map(RuntimeTransitionResult::toString)
+                .toArray(String[]::new);
+    }
+
+    private CompletableFuture<List<RuntimeTransitionResult>> transitionAsync(RuntimeTransition transition) {
+        return runtimeTransitionScheduler.transitionAsync(runtimeManager.getManagedRuntimes(), transition,
+                this::recordResult);
+    }
+
+    private void recordResult(RuntimeTransitionResult result) {
+        runtimeTransitionResults.put(result.getRuntimeName(), result);
+    }
+
+    private static void logFailures(CompletableFuture<List<RuntimeTransitionResult>> results,
+                                    RuntimeTransition transition) {
+        results.whenComplete((transitionResults, throwable) -> {
+            if (throwable != null) {
+                logger.error("Failed to " + transition.getDescription() + " runtimes", throwable);
+                return;
+            }
+            transitionResults.stream()
+                    .filter(result -> !result.isSuccessful())
+                    .forEach(result -> logger.error("Failed to " + transition.getDescription() + " runtime " +
+                            result.getRuntimeName(), result.getFailure()));
+        });
+    }
 }
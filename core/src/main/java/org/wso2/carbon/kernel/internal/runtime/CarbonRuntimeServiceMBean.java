@@ -54,4 +54,44 @@ public interface CarbonRuntimeServiceMBean {
      */
     void endMaintenance() throws RuntimeServiceException;
 
+    /**
+     * Starts all registered runtimes in the background, and returns without waiting for them. The outcome of each
+     * runtime is reported by {@link #getRuntimeTransitionResults()} as soon as it is known.
+     *
+     * @since 5.2.0
+     */
+    void startRuntimesInBackground();
+
+    /**
+     * Stops all registered runtimes in the background, and returns without waiting for them. The outcome of each
+     * runtime is reported by {@link #getRuntimeTransitionResults()} as soon as it is known.
+     *
+     * @since 5.2.0
+     */
+    void stopRuntimesInBackground();
+
+    /**
+     * Puts all registered runtimes into MAINTENANCE state in the background, and returns without waiting for them.
+     * The outcome of each runtime is reported by {@link #getRuntimeTransitionResults()} as soon as it is known.
+     *
+     * @since 5.2.0
+     */
+    void beginMaintenanceInBackground();
+
+    /**
+     * Puts all registered runtimes back into INACTIVE state in the background, and returns without waiting for them.
+     * The outcome of each runtime is reported by {@link #getRuntimeTransitionResults()} as soon as it is known.
+     *
+     * @since 5.2.0
+     */
+    void endMaintenanceInBackground();
+
+    /**
+     * Returns the outcome of the latest transition of each runtime, e.g. "engine : TRANSITIONED [ACTIVE]".
+     *
+     * @return the outcome of the latest transition of each runtime, sorted by the runtime name
+     * @since 5.2.0
+     */
+    String[] getRuntimeTransitionResults();
+
 }
@@ -0,0 +1,157 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.kernel.runtime.InFlightWorkTracker;
+import org.wso2.carbon.kernel.runtime.Runtime;
+import org.wso2.carbon.kernel.runtime.RuntimeState;
+import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A runtime registered with the {@link RuntimeManager}, which applies the lifecycle transitions of the runtime one at
+ * a time.
+ * <p>
+ * A transition claims the runtime with a compare-and-set before reading its state, hence the state cannot change
+ * between the validation and the invocation of the lifecycle methods. A transition requested while another transition
+ * of the same runtime is in progress fails instead of waiting, while different runtimes are transitioned
+ * independently.
+ *
+ * @since 5.2.0
+ */
+final class ManagedRuntime {
+    private static final Logger logger = LoggerFactory.getLogger(ManagedRuntime.class);
+
+    private final Runtime runtime;
+    private final RuntimeLifecycleMetrics lifecycleMetrics;
+    private final AtomicReference<RuntimeTransition> currentTransition = new AtomicReference<>();
+
+    ManagedRuntime(Runtime runtime) {
+        this(runtime, new RuntimeLifecycleMetrics());
+    }
+
+    ManagedRuntime(Runtime runtime, RuntimeLifecycleMetrics lifecycleMetrics) {
+        this.runtime = runtime;
+        this.lifecycleMetrics = lifecycleMetrics;
+    }
+
+    Runtime getRuntime() {
+        return runtime;
+    }
+
+    String getName() {
+        return runtime.getName();
+    }
+
+    /**
+     * Applies the given transition to the runtime, without waiting for the in-flight work of the runtime.
+     *
+     * @param transition the transition to be applied
+     * @return true if the transition was applied, false if it is not applicable to the current state
+     * @throws RuntimeServiceException if the transition fails
+     * @see #transition(RuntimeTransition, long)
+     */
+    boolean transition(RuntimeTransition transition) throws RuntimeServiceException {
+        return transition(transition, 0);
+    }
+
+    /**
+     * Applies the given transition to the runtime if it is valid from the current state of the runtime. If the
+     * runtime does not update its own state, it is moved to the target state of the transition.
+     * <p>
+     * Runtimes which do not report their state are not validated, except that they are never started.
+     * <p>
+     * When the runtime is put into maintenance, the in-flight work reported by its {@code InFlightWorkTracker} is
+     * awaited after {@code beginMaintenance()} returns and before the runtime is moved to MAINTENANCE state, and the
+     * runtime is claimed until the work completes. As {@code beginMaintenance()} has already stopped the runtime from
+     * accepting new work, the runtime is still moved to MAINTENANCE state if the work does not complete in time, and
+     * the timeout is reported as a failure.
+     *
+     * @param transition         the transition to be applied
+     * @param drainTimeoutMillis maximum time to wait for the in-flight work when the runtime is put into maintenance,
+     *                           or 0 to not wait
+     * @return true if the transition was applied, false if it is not applicable to the current state
+     * @throws RuntimeServiceException if the runtime is not initialized, is in maintenance mode when started, is
+     *                                 already in transition, if a lifecycle method of the runtime fails, or if the
+     *                                 in-flight work does not complete in time, in which case the runtime is still
+     *                                 put into maintenance
+     */
+    boolean transition(RuntimeTransition transition, long drainTimeoutMillis) throws RuntimeServiceException {
+        if (!currentTransition.compareAndSet(null, transition)) {
+            throw new RuntimeServiceException("Runtime is already in transition " + currentTransition.get() + " : " +
+                    runtime.getClass().getName());
+        }
+        try {
+            RuntimeState state = (RuntimeState) runtime.getState();
+            if (state == RuntimeState.PENDING) {
+                throw new RuntimeServiceException("Runtime not initialized." + runtime.getClass().getName());
+            }
+            if (transition == RuntimeTransition.START && state == RuntimeState.MAINTENANCE) {
+                throw new RuntimeServiceException("Runtime is in maintenance mode." + runtime.getClass().getName());
+            }
+            if (transition == RuntimeTransition.START && !transition.isValidFrom(state)) {
+                logger.error("Runtime already started : " + runtime.getClass().getName());
+                return false;
+            }
+            if (state != null && !transition.isValidFrom(state)) {
+                logger.debug("Runtime {} is {}, hence not applying {}", runtime.getClass().getName(), state,
+                        transition);
+                return false;
+            }
+
+            transition.apply(runtime, lifecycleMetrics);
+            RuntimeServiceException drainFailure = null;
+            if (transition == RuntimeTransition.BEGIN_MAINTENANCE && drainTimeoutMillis > 0) {
+                try {
+                    lifecycleMetrics.record(runtime, "drainInFlightWork", () -> awaitInFlightWork(drainTimeoutMillis));
+                } catch (RuntimeServiceException e) {
+                    drainFailure = e;
+                }
+            }
+            if (state != null && runtime.getState() == state) {
+                runtime.setState(transition.getTargetState());
+            }
+            if (drainFailure != null) {
+                throw drainFailure;
+            }
+            return true;
+        } finally {
+            currentTransition.set(null);
+        }
+    }
+
+    private void awaitInFlightWork(long drainTimeoutMillis) throws RuntimeServiceException {
+        InFlightWorkTracker inFlightWorkTracker = runtime.getInFlightWorkTracker();
+        if (inFlightWorkTracker == null) {
+            return;
+        }
+
+        try {
+            if (!inFlightWorkTracker.awaitQuiescence(drainTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeServiceException("Timed out after " + drainTimeoutMillis + " ms while waiting for " +
+                        inFlightWorkTracker.getInFlightCount() + " in-flight work of runtime " + getName());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeServiceException("Interrupted while waiting for the in-flight work of runtime " +
+                    getName(), e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.runtime;
+
+import org.wso2.carbon.kernel.runtime.Runtime;
+import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Records the durations of the lifecycle operations of the registered runtimes, per runtime class and operation. It
+ * is registered as an MBean once the runtimes are started.
+ *
+ * @since 5.2.0
+ */
+public class RuntimeLifecycleMetrics implements RuntimeLifecycleMetricsMXBean {
+
+    private final Map<String, RuntimeLifecycleStatistics> lifecycleStatistics = new ConcurrentHashMap<>();
+
+    /**
+     * A lifecycle method of a runtime.
+     */
+    interface LifecycleOperation {
+        void invoke() throws RuntimeServiceException;
+    }
+
+    /**
+     * Invokes the given lifecycle operation of the given runtime, and records its duration whether it succeeds or
+     * fails.
+     *
+     * @param runtime            the runtime
+     * @param operation          the name of the operation, e.g. start
+     * @param lifecycleOperation the operation to be invoked
+     * @throws RuntimeServiceException if the operation fails
+     */
+    void record(Runtime runtime, String operation, LifecycleOperation lifecycleOperation)
+            throws RuntimeServiceException {
+        long startTime = System.nanoTime();
+        boolean failed = true;
+        try {
+            lifecycleOperation.invoke();
+            failed = false;
+        } finally {
+            long duration = System.nanoTime() - startTime;
+            String runtimeClass = runtime.getClass().getName();
+            lifecycleStatistics.computeIfAbsent(runtimeClass + "#" + operation,
+                    key -> new RuntimeLifecycleStatistics(runtimeClass, operation))
+                    .record(duration, failed);
+        }
+    }
+
+    @Override
+    public List<RuntimeLifecycleStatistics> getLifecycleStatistics() {
+        return lifecycleStatistics.values().stream()
+                .map(RuntimeLifecycleStatistics::copy)
+                .sorted(Comparator.comparing(RuntimeLifecycleStatistics::getRuntimeClass)
+                        .thenComparing(RuntimeLifecycleStatistics::getOperation))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long[] getHistogramBoundsMillis() {
+        return RuntimeLifecycleStatistics.HISTOGRAM_BOUNDS_MILLIS.clone();
+    }
+
+    @Override
+    public void reset() {
+        lifecycleStatistics.clear();
+    }
+}
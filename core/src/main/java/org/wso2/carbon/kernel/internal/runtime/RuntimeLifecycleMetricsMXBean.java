@@ -0,0 +1,46 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.runtime;
+
+import java.util.List;
+
+/**
+ * MXBean interface for exposing the durations of the lifecycle operations of the registered runtimes.
+ *
+ * @since 5.2.0
+ */
+public interface RuntimeLifecycleMetricsMXBean {
+
+    /**
+     * Returns the statistics of each lifecycle operation, e.g. init or start, of each runtime class.
+     *
+     * @return the statistics, sorted by the runtime class and the operation
+     */
+    List<RuntimeLifecycleStatistics> getLifecycleStatistics();
+
+    /**
+     * Returns the upper bounds, in milliseconds, of the histogram buckets of the operation durations. The last bucket
+     * of a histogram counts the operations which took longer than the last bound.
+     *
+     * @return the upper bounds of the histogram buckets
+     */
+    long[] getHistogramBoundsMillis();
+
+    /**
+     * Discards the recorded statistics.
+     */
+    void reset();
+}
@@ -0,0 +1,133 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.runtime;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The durations of a single lifecycle operation, e.g. start, of all the runtimes of a runtime class.
+ *
+ * @since 5.2.0
+ */
+public class RuntimeLifecycleStatistics {
+
+    static final long[] HISTOGRAM_BOUNDS_MILLIS = {1, 10, 100, 1000, 10000, 60000};
+
+    private final String runtimeClass;
+    private final String operation;
+    private long count;
+    private long failureCount;
+    private long lastNanos;
+    private long minNanos = Long.MAX_VALUE;
+    private long maxNanos;
+    private long totalNanos;
+    private final long[] histogram;
+
+    RuntimeLifecycleStatistics(String runtimeClass, String operation) {
+        this.runtimeClass = runtimeClass;
+        this.operation = operation;
+        this.histogram = new long[HISTOGRAM_BOUNDS_MILLIS.length + 1];
+    }
+
+    private RuntimeLifecycleStatistics(RuntimeLifecycleStatistics statistics) {
+        this.runtimeClass = statistics.runtimeClass;
+        this.operation = statistics.operation;
+        this.count = statistics.count;
+        this.failureCount = statistics.failureCount;
+        this.lastNanos = statistics.lastNanos;
+        this.minNanos = statistics.minNanos;
+        this.maxNanos = statistics.maxNanos;
+        this.totalNanos = statistics.totalNanos;
+        this.histogram = statistics.histogram.clone();
+    }
+
+    synchronized void record(long durationNanos, boolean failed) {
+        count++;
+        if (failed) {
+            failureCount++;
+        }
+        lastNanos = durationNanos;
+        minNanos = Math.min(minNanos, durationNanos);
+        maxNanos = Math.max(maxNanos, durationNanos);
+        totalNanos += durationNanos;
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        int bucket = 0;
+        while (bucket < HISTOGRAM_BOUNDS_MILLIS.length && durationMillis >= HISTOGRAM_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        histogram[bucket]++;
+    }
+
+    /**
+     * Returns a copy of these statistics, which is not affected by the operations recorded later.
+     *
+     * @return the copy of these statistics
+     */
+    synchronized RuntimeLifecycleStatistics copy() {
+        return new RuntimeLifecycleStatistics(this);
+    }
+
+    public String getRuntimeClass() {
+        return runtimeClass;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    public long getLastNanos() {
+        return lastNanos;
+    }
+
+    public long getMinNanos() {
+        return count == 0 ? 0 : minNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the number of operations in each histogram bucket, bounded by
+     * {@link RuntimeLifecycleMetricsMXBean#getHistogramBoundsMillis()}.
+     *
+     * @return the operation counts of the histogram buckets
+     */
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        return runtimeClass + " " + operation + " : count=" + count + ", failures=" + failureCount + ", last=" +
+                lastNanos + "ns, min=" + getMinNanos() + "ns, max=" + maxNanos + "ns, histogram=" +
+                Arrays.toString(histogram);
+    }
+}
@@ -18,19 +18,28 @@ package org.wso2.carbon.kernel.internal.runtime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.carbon.kernel.runtime.Runtime;
+import org.wso2.carbon.kernel.runtime.WarmUpTask;
 import org.wso2.carbon.utils.Utils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
 /**
  * Runtime Manager class.
+ * <p>
+ * The registry is copy-on-write, hence runtimes can be registered and un-registered by dynamic service bindings while
+ * the registered runtimes are being transitioned.
  *
  * @since 5.0.0
  */
 public class RuntimeManager {
     private static Logger logger = LoggerFactory.getLogger(RuntimeManager.class);
-    private List<Runtime> runtimeList = new ArrayList<Runtime>();
+    private final List<ManagedRuntime> managedRuntimes = new CopyOnWriteArrayList<>();
+    private final List<WarmUpTask> warmUpTasks = new CopyOnWriteArrayList<>();
+    private final RuntimeLifecycleMetrics lifecycleMetrics = new RuntimeLifecycleMetrics();
 
 
     /**
@@ -40,7 +49,7 @@ public class RuntimeManager {
      */
     public void registerRuntime(Runtime runtime) {
         Utils.checkSecurity();
-        runtimeList.add(runtime);
+        managedRuntimes.add(new ManagedRuntime(runtime, lifecycleMetrics));
     }
 
     /**
@@ -50,16 +59,76 @@ public class RuntimeManager {
      */
     public void unRegisterRuntime(Runtime runtime) {
         Utils.checkSecurity();
-        runtimeList.remove(runtime);
+        for (ManagedRuntime managedRuntime : managedRuntimes) {
+            if (managedRuntime.getRuntime().equals(runtime)) {
+                managedRuntimes.remove(managedRuntime);
+                return;
+            }
+        }
     }
 
     /**
      * Return registered runtime list.
      *
-     * @return List of rumtimes
+     * @return an unmodifiable snapshot of the registered runtimes
      */
     public List<Runtime> getRuntimeList() {
         Utils.checkSecurity();
-        return runtimeList;
+        return Collections.unmodifiableList(managedRuntimes.stream()
+                .map(ManagedRuntime::getRuntime)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Register a warm-up task, which is run once the runtimes are started.
+     *
+     * @param warmUpTask - warm-up task to be registered
+     * @since 5.2.0
+     */
+    public void registerWarmUpTask(WarmUpTask warmUpTask) {
+        Utils.checkSecurity();
+        warmUpTasks.add(warmUpTask);
+    }
+
+    /**
+     * Un-register a warm-up task.
+     *
+     * @param warmUpTask - warm-up task to be un-registered
+     * @since 5.2.0
+     */
+    public void unRegisterWarmUpTask(WarmUpTask warmUpTask) {
+        Utils.checkSecurity();
+        warmUpTasks.remove(warmUpTask);
+    }
+
+    /**
+     * Return registered warm-up task list.
+     *
+     * @return an unmodifiable snapshot of the registered warm-up tasks
+     * @since 5.2.0
+     */
+    public List<WarmUpTask> getWarmUpTasks() {
+        Utils.checkSecurity();
+        return Collections.unmodifiableList(new ArrayList<>(warmUpTasks));
+    }
+
+    /**
+     * Return the durations of the lifecycle operations of the registered runtimes.
+     *
+     * @return the lifecycle metrics of the registered runtimes
+     * @since 5.2.0
+     */
+    public RuntimeLifecycleMetrics getLifecycleMetrics() {
+        Utils.checkSecurity();
+        return lifecycleMetrics;
+    }
+
+    /**
+     * Return the registered runtimes, which are iterated over a snapshot of the registry.
+     *
+     * @return the registered runtimes
+     */
+    List<ManagedRuntime> getManagedRuntimes() {
+        return managedRuntimes;
     }
 }
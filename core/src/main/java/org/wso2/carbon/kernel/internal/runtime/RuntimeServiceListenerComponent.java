@@ -23,17 +23,20 @@ import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wso2.carbon.kernel.CarbonRuntime;
+import org.wso2.carbon.kernel.config.model.RuntimeConfig;
 import org.wso2.carbon.kernel.internal.DataHolder;
 import org.wso2.carbon.kernel.jmx.MBeanRegistrator;
 import org.wso2.carbon.kernel.runtime.Runtime;
 import org.wso2.carbon.kernel.runtime.RuntimeService;
+import org.wso2.carbon.kernel.runtime.WarmUpTask;
 import org.wso2.carbon.kernel.startupresolver.RequiredCapabilityListener;
 import org.wso2.carbon.kernel.startupresolver.StartupServiceUtils;
 
 /**
  * This service  component is responsible for retrieving the Runtime OSGi service and register each runtime
  * with runtime manager. It also acts as a RequiredCapabilityListener for all the Runtime capabilities, and
- * once they are available, it registers the RuntimeService as an OSGi service.
+ * once they are available, it registers the RuntimeService as an OSGi service and runs the WarmUpTask services.
  *
  * @since 5.0.0
  */
@@ -49,6 +52,7 @@ public class RuntimeServiceListenerComponent implements RequiredCapabilityListen
     private static final Logger logger = LoggerFactory.getLogger(RuntimeServiceListenerComponent.class);
     private RuntimeManager runtimeManager = new RuntimeManager();
     private BundleContext bundleContext;
+    private CarbonRuntime carbonRuntime;
 
     @Activate
     protected void start(BundleContext bundleContext) {
@@ -91,16 +95,70 @@ public class RuntimeServiceListenerComponent implements RequiredCapabilityListen
         }
     }
 
+    /**
+     * Register the warm-up task instance.
+     *
+     * @param warmUpTask - warm-up task instance
+     */
+    @Reference(
+            name = "carbon.runtime.warmup.task",
+            service = WarmUpTask.class,
+            cardinality = ReferenceCardinality.MULTIPLE,
+            policy = ReferencePolicy.DYNAMIC,
+            unbind = "unRegisterWarmUpTask"
+    )
+    protected void registerWarmUpTask(WarmUpTask warmUpTask) {
+        runtimeManager.registerWarmUpTask(warmUpTask);
+        StartupServiceUtils.updateServiceCache(COMPONENT_NAME, WarmUpTask.class);
+    }
+
+    /**
+     * Un-register the warm-up task instance.
+     *
+     * @param warmUpTask - warm-up task instance
+     */
+    protected void unRegisterWarmUpTask(WarmUpTask warmUpTask) {
+        runtimeManager.unRegisterWarmUpTask(warmUpTask);
+    }
+
+    @Reference(
+            name = "carbon.runtime.mgt.carbon.runtime",
+            service = CarbonRuntime.class,
+            cardinality = ReferenceCardinality.AT_LEAST_ONE,
+            policy = ReferencePolicy.DYNAMIC,
+            unbind = "unregisterCarbonRuntime"
+    )
+    protected void registerCarbonRuntime(CarbonRuntime carbonRuntime) {
+        this.carbonRuntime = carbonRuntime;
+    }
+
+    protected void unregisterCarbonRuntime(CarbonRuntime carbonRuntime) {
+        this.carbonRuntime = null;
+    }
+
     @Override
     public void onAllRequiredCapabilitiesAvailable() {
         if (logger.isDebugEnabled()) {
             logger.debug("Registering RuntimeService as an OSGi service");
         }
-        RuntimeService runtimeService = new CarbonRuntimeService(runtimeManager);
+        RuntimeConfig runtimeConfig = carbonRuntime.getConfiguration().getRuntimeConfig();
+        RuntimeService runtimeService = new CarbonRuntimeService(runtimeManager, runtimeConfig);
+        // Register the lifecycle metrics before starting the runtimes, so that the transitions of runtimes which fail
+        // to start are observable as well.
+        try {
+            MBeanRegistrator.registerMBean(runtimeManager.getLifecycleMetrics());
+        } catch (RuntimeException e) {
+            logger.error("Error while registering the runtime lifecycle metrics", e);
+        }
         try {
             runtimeService.startRuntimes();
             bundleContext.registerService(RuntimeService.class, runtimeService, null);
             MBeanRegistrator.registerMBean(runtimeService);
+            // Warm up without holding up the startup order resolver, which reports the server to be started once
+            // the warm-up completes.
+            DataHolder.getInstance().setRuntimeWarmUp(
+                    new RuntimeWarmUp(runtimeConfig.getWarmUpConcurrency(), runtimeConfig.getWarmUpTimeout())
+                            .warmUpAsync(runtimeManager.getWarmUpTasks()));
         } catch (Exception e) {
             logger.error("Error while starting runtime from Runtime manager", e);
         }
@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.runtime;
+
+import org.wso2.carbon.kernel.runtime.Runtime;
+import org.wso2.carbon.kernel.runtime.RuntimeState;
+import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The lifecycle transitions of a runtime. A runtime is initialized from PENDING to INACTIVE by its owner, started
+ * from INACTIVE to ACTIVE and stopped back to INACTIVE. ACTIVE and INACTIVE runtimes can be put into MAINTENANCE,
+ * from which they return to INACTIVE. Ending the maintenance of a runtime which is not in MAINTENANCE leaves it
+ * unchanged.
+ * <p>
+ * Runtimes are started and their maintenance is ended in the order of their dependencies, while they are stopped and
+ * put into maintenance in the reverse order.
+ *
+ * @since 5.2.0
+ */
+enum RuntimeTransition {
+
+    START("start", false, EnumSet.of(RuntimeState.INACTIVE), RuntimeState.ACTIVE) {
+        @Override
+        void apply(Runtime runtime, RuntimeLifecycleMetrics metrics) throws RuntimeServiceException {
+            metrics.record(runtime, "init", runtime::init);
+            metrics.record(runtime, "start", runtime::start);
+        }
+    },
+
+    STOP("stop", true, EnumSet.of(RuntimeState.ACTIVE, RuntimeState.MAINTENANCE), RuntimeState.INACTIVE) {
+        @Override
+        void apply(Runtime runtime, RuntimeLifecycleMetrics metrics) throws RuntimeServiceException {
+            metrics.record(runtime, "stop", runtime::stop);
+        }
+    },
+
+    BEGIN_MAINTENANCE("begin the maintenance of", true, EnumSet.of(RuntimeState.ACTIVE, RuntimeState.INACTIVE),
+            RuntimeState.MAINTENANCE) {
+        @Override
+        void apply(Runtime runtime, RuntimeLifecycleMetrics metrics) throws RuntimeServiceException {
+            metrics.record(runtime, "beginMaintenance", runtime::beginMaintenance);
+        }
+    },
+
+    END_MAINTENANCE("end the maintenance of", false, EnumSet.of(RuntimeState.MAINTENANCE), RuntimeState.INACTIVE) {
+        @Override
+        void apply(Runtime runtime, RuntimeLifecycleMetrics metrics) throws RuntimeServiceException {
+            metrics.record(runtime, "endMaintenance", runtime::endMaintenance);
+        }
+    };
+
+    private final String description;
+    private final boolean reverseOrder;
+    private final Set<RuntimeState> sourceStates;
+    private final RuntimeState targetState;
+
+    RuntimeTransition(String description, boolean reverseOrder, Set<RuntimeState> sourceStates,
+                      RuntimeState targetState) {
+        this.description = description;
+        this.reverseOrder = reverseOrder;
+        this.sourceStates = sourceStates;
+        this.targetState = targetState;
+    }
+
+    /**
+     * Invokes the lifecycle methods of the given runtime which perform this transition.
+     *
+     * @param runtime the runtime to be transitioned
+     * @param metrics the metrics which record the durations of the lifecycle methods
+     * @throws RuntimeServiceException if a lifecycle method of the runtime fails
+     */
+    abstract void apply(Runtime runtime, RuntimeLifecycleMetrics metrics) throws RuntimeServiceException;
+
+    boolean isValidFrom(RuntimeState state) {
+        return sourceStates.contains(state);
+    }
+
+    RuntimeState getTargetState() {
+        return targetState;
+    }
+
+    /**
+     * Returns whether this transition is applied to the runtimes which depend on a runtime before that runtime, e.g.
+     * a runtime is stopped only after the runtimes which depend on it are stopped.
+     *
+     * @return true if this transition is applied in the reverse order of the runtime dependencies
+     */
+    boolean isReverseOrder() {
+        return reverseOrder;
+    }
+
+    /**
+     * Returns the description of this transition, e.g. "start", to be used in messages such as "failed to start".
+     *
+     * @return the description of this transition
+     */
+    String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.kernel.runtime.RuntimeTransitionResult;
+import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a lifecycle transition to the registered runtimes in the order of their dependencies.
+ * <p>
+ * A runtime is transitioned once all the runtimes it waits for are transitioned, i.e. the runtimes it depends on when
+ * it is started, and the runtimes which depend on it when it is stopped. Runtimes which do not wait for each other
+ * are transitioned in parallel, using up to the configured number of threads, and each transition is cancelled if it
+ * does not complete within the configured timeout. The transition of every runtime is attempted, except that the
+ * runtimes which wait for a failed runtime are skipped, and the outcome of every runtime is reported once the rest of
+ * the runtimes are transitioned.
+ * <p>
+ * The transitions are chained with {@code CompletableFuture}s, hence no thread waits for the runtimes except the
+ * caller of the blocking {@link #transition(List, RuntimeTransition, Consumer)} method. The threads used for a
+ * transition live only until all the runtimes are transitioned.
+ *
+ * @since 5.2.0
+ */
+class RuntimeTransitionScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(RuntimeTransitionScheduler.class);
+
+    private final int concurrency;
+    private final long timeoutMillis;
+    private final long drainTimeoutMillis;
+
+    /**
+     * Creates a scheduler which applies the transitions one runtime after the other, without waiting for in-flight
+     * work, in the calling thread when they are applied with the blocking
+     * {@link #transition(List, RuntimeTransition, Consumer)} method.
+     */
+    RuntimeTransitionScheduler() {
+        this(1, 0, 0);
+    }
+
+    /**
+     * Creates a scheduler which applies the transitions in parallel, with a timeout for each runtime, and waits for
+     * the in-flight work of the runtimes which are put into maintenance.
+     *
+     * @param concurrency        maximum number of runtimes transitioned in parallel
+     * @param timeoutMillis      maximum time to wait for the transition of a single runtime, or 0 to wait without a
+     *                           timeout
+     * @param drainTimeoutMillis maximum time to wait for the in-flight work of a runtime when it is put into
+     *                           maintenance, or 0 to not wait
+     */
+    RuntimeTransitionScheduler(int concurrency, long timeoutMillis, long drainTimeoutMillis) {
+        this.concurrency = Math.max(concurrency, 1);
+        this.timeoutMillis = Math.max(timeoutMillis, 0);
+        this.drainTimeoutMillis = Math.max(drainTimeoutMillis, 0);
+    }
+
+    /**
+     * Applies the given transition to the given runtimes, and waits until all of them are transitioned.
+     *
+     * @param managedRuntimes  the runtimes to be transitioned
+     * @param transition       the transition to be applied
+     * @param progressListener consumer notified of the outcome of each runtime as soon as it is known
+     * @return the outcome of each runtime, in the order of the given runtimes
+     * @throws RuntimeServiceException if the runtime dependencies are cyclic, or if the transition of any runtime
+     *                                 fails, times out or is skipped, with the failure of each runtime as a
+     *                                 suppressed exception
+     */
+    List<RuntimeTransitionResult> transition(List<ManagedRuntime> managedRuntimes, RuntimeTransition transition,
+                                             Consumer<RuntimeTransitionResult> progressListener)
+            throws RuntimeServiceException {
+        boolean inCallingThread = concurrency == 1 && timeoutMillis == 0;
+        List<RuntimeTransitionResult> results;
+        try {
+            results = transition(managedRuntimes, transition, inCallingThread, progressListener).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeServiceException("Interrupted while waiting to " + transition.getDescription() +
+                    " runtimes", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeServiceException) {
+                throw (RuntimeServiceException) e.getCause();
+            }
+            throw new RuntimeServiceException("Failed to " + transition.getDescription() + " runtimes", e);
+        }
+
+        if (results.stream().anyMatch(result -> !result.isSuccessful())) {
+            throw createException(transition, results);
+        }
+        return results;
+    }
+
+    /**
+     * Applies the given transition to the given runtimes without waiting for them. The returned future completes
+     * normally once all the runtimes are transitioned, even if some of them failed, and completes exceptionally with a
+     * {@code RuntimeServiceException} only if the runtime dependencies are cyclic.
+     *
+     * @param managedRuntimes  the runtimes to be transitioned
+     * @param transition       the transition to be applied
+     * @param progressListener consumer notified of the outcome of each runtime as soon as it is known
+     * @return the future outcome of each runtime, in the order of the given runtimes
+     */
+    CompletableFuture<List<RuntimeTransitionResult>> transitionAsync(List<ManagedRuntime> managedRuntimes,
+                                                                     RuntimeTransition transition,
+                                                                     Consumer<RuntimeTransitionResult>
+                                                                             progressListener) {
+        return transition(managedRuntimes, transition, false, progressListener);
+    }
+
+    private CompletableFuture<List<RuntimeTransitionResult>> transition(
+            List<ManagedRuntime> managedRuntimes, RuntimeTransition transition, boolean inCallingThread,
+            Consumer<RuntimeTransitionResult> progressListener) {
+        List<ManagedRuntime> runtimes = new ArrayList<>(managedRuntimes);
+        Map<ManagedRuntime, List<ManagedRuntime>> successors = getSuccessors(runtimes, transition);
+        List<ManagedRuntime> transitionOrder;
+        try {
+            transitionOrder = getTransitionOrder(successors);
+        } catch (RuntimeServiceException e) {
+            CompletableFuture<List<RuntimeTransitionResult>> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(e);
+            return failedFuture;
+        }
+
+        Map<ManagedRuntime, List<ManagedRuntime>> predecessors = new LinkedHashMap<>();
+        runtimes.forEach(managedRuntime -> predecessors.put(managedRuntime, new ArrayList<>()));
+        successors.forEach((managedRuntime, managedRuntimeSuccessors) -> managedRuntimeSuccessors.forEach(successor ->
+                predecessors.get(successor).add(managedRuntime)));
+
+        ExecutorService executorService = null;
+        ScheduledExecutorService timeoutExecutorService = null;
+        if (!inCallingThread && !runtimes.isEmpty()) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executorService = Executors.newFixedThreadPool(Math.min(concurrency, runtimes.size()), runnable -> {
+                Thread thread = new Thread(runnable, "CarbonRuntimeTransition-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (timeoutMillis > 0) {
+                timeoutExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "CarbonRuntimeTransitionTimer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+
+        Map<ManagedRuntime, CompletableFuture<RuntimeTransitionResult>> results = new LinkedHashMap<>();
+        for (ManagedRuntime managedRuntime : transitionOrder) {
+            List<CompletableFuture<RuntimeTransitionResult>> predecessorResults = predecessors.get(managedRuntime)
+                    .stream()
+                    .map(results::get)
+                    .collect(Collectors.toList());
+            ExecutorService executor = executorService;
+            ScheduledExecutorService timeoutExecutor = timeoutExecutorService;
+            CompletableFuture<RuntimeTransitionResult> result = CompletableFuture
+                    .allOf(predecessorResults.toArray(new CompletableFuture[predecessorResults.size()]))
+                    .thenCompose(ignored -> {
+                        Optional<RuntimeTransitionResult> failedPredecessor = predecessorResults.stream()
+                                .map(CompletableFuture::join)
+                                .filter(predecessorResult -> !predecessorResult.isSuccessful())
+                                .findFirst();
+                        if (failedPredecessor.isPresent()) {
+                            return CompletableFuture.completedFuture(new RuntimeTransitionResult(
+                                    managedRuntime.getName(), RuntimeTransitionResult.Status.SKIPPED,
+                                    managedRuntime.getRuntime().getState(),
+                                    new RuntimeServiceException("Skipped runtime " + managedRuntime.getName() +
+                                            ", which waits for runtime " +
+                                            failedPredecessor.get().getRuntimeName())));
+                        }
+                        return executor == null ?
+                                CompletableFuture.completedFuture(apply(managedRuntime, transition)) :
+                                submit(managedRuntime, transition, executor, timeoutExecutor);
+                    });
+            result.thenAccept(progressListener);
+            results.put(managedRuntime, result);
+        }
+
+        CompletableFuture<List<RuntimeTransitionResult>> allResults = CompletableFuture
+                .allOf(results.values().toArray(new CompletableFuture[results.size()]))
+                .thenApply(ignored -> runtimes.stream()
+                        .map(managedRuntime -> results.get(managedRuntime).join())
+                        .collect(Collectors.toList()));
+        if (executorService != null) {
+            ExecutorService executor = executorService;
+            ScheduledExecutorService timeoutExecutor = timeoutExecutorService;
+            allResults.whenComplete((ignored, throwable) -> {
+                executor.shutdownNow();
+                if (timeoutExecutor != null) {
+                    timeoutExecutor.shutdownNow();
+                }
+            });
+        }
+        return allResults;
+    }
+
+    /**
+     * Applies the transition to the given runtime in a pooled thread, and reports a failure if it does not complete
+     * within the timeout, in which case the thread applying the transition is interrupted.
+     */
+    private CompletableFuture<RuntimeTransitionResult> submit(ManagedRuntime managedRuntime,
+                                                              RuntimeTransition transition, ExecutorService executor,
+                                                              ScheduledExecutorService timeoutExecutor) {
+        CompletableFuture<RuntimeTransitionResult> result = new CompletableFuture<>();
+        AtomicReference<Future<?>> task = new AtomicReference<>();
+        task.set(executor.submit(() -> {
+            ScheduledFuture<?> timeout = null;
+            if (timeoutExecutor != null) {
+                timeout = timeoutExecutor.schedule(() -> {
+                    RuntimeServiceException timeoutException = new RuntimeServiceException("Timed out after " +
+                            timeoutMillis + " ms while waiting to " + transition.getDescription() + " runtime " +
+                            managedRuntime.getName());
+                    if (result.complete(new RuntimeTransitionResult(managedRuntime.getName(),
+                            RuntimeTransitionResult.Status.FAILED, managedRuntime.getRuntime().getState(),
+                            timeoutException))) {
+                        Future<?> runningTask = task.get();
+                        if (runningTask != null) {
+                            runningTask.cancel(true);
+                        }
+                    }
+                }, timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            result.complete(apply(managedRuntime, transition));
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+        }));
+        return result;
+    }
+
+    private RuntimeTransitionResult apply(ManagedRuntime managedRuntime, RuntimeTransition transition) {
+        RuntimeTransitionResult.Status status;
+        Throwable failure = null;
+        try {
+            status = managedRuntime.transition(transition, drainTimeoutMillis) ?
+                    RuntimeTransitionResult.Status.TRANSITIONED : RuntimeTransitionResult.Status.UNCHANGED;
+            logger.debug("Completed {} of runtime {}, status: {}", transition, managedRuntime.getName(), status);
+        } catch (Throwable throwable) {
+            status = RuntimeTransitionResult.Status.FAILED;
+            failure = throwable;
+        }
+        return new RuntimeTransitionResult(managedRuntime.getName(), status, managedRuntime.getRuntime().getState(),
+                failure);
+    }
+
+    private static Map<ManagedRuntime, List<ManagedRuntime>> getSuccessors(List<ManagedRuntime> managedRuntimes,
+                                                                           RuntimeTransition transition) {
+        Map<String, List<ManagedRuntime>> runtimesByName = managedRuntimes.stream()
+                .collect(Collectors.groupingBy(ManagedRuntime::getName, LinkedHashMap::new, Collectors.toList()));
+        Map<ManagedRuntime, List<ManagedRuntime>> successors = new LinkedHashMap<>();
+        managedRuntimes.forEach(managedRuntime -> successors.put(managedRuntime, new ArrayList<>()));
+
+        for (ManagedRuntime managedRuntime : managedRuntimes) {
+            Set<String> dependencies = managedRuntime.getRuntime().getDependencies();
+            for (String dependency : dependencies == null ? Collections.<String>emptySet() : dependencies) {
+                List<ManagedRuntime> dependencyRuntimes = runtimesByName.get(dependency);
+                if (dependencyRuntimes == null) {
+                    logger.debug("Runtime {} depends on runtime {}, which is not registered",
+                            managedRuntime.getName(), dependency);
+                    continue;
+                }
+                for (ManagedRuntime dependencyRuntime : dependencyRuntimes) {
+                    if (transition.isReverseOrder()) {
+                        successors.get(managedRuntime).add(dependencyRuntime);
+                    } else {
+                        successors.get(dependencyRuntime).add(managedRuntime);
+                    }
+                }
+            }
+        }
+
+        return successors;
+    }
+
+    /**
+     * Returns the runtimes in the order they can be transitioned one after the other, i.e. every runtime is preceded
+     * by the runtimes it waits for.
+     *
+     * @throws RuntimeServiceException if the runtime dependencies are cyclic
+     */
+    private static List<ManagedRuntime> getTransitionOrder(Map<ManagedRuntime, List<ManagedRuntime>> successors)
+            throws RuntimeServiceException {
+        List<ManagedRuntime> transitionOrder = new ArrayList<>();
+        Map<ManagedRuntime, Integer> pendingPredecessors = getPredecessorCounts(successors);
+        Deque<ManagedRuntime> ready = getRuntimesWithoutPredecessors(pendingPredecessors);
+        while (!ready.isEmpty()) {
+            ManagedRuntime managedRuntime = ready.poll();
+            transitionOrder.add(managedRuntime);
+            pendingPredecessors.remove(managedRuntime);
+            for (ManagedRuntime successor : successors.get(managedRuntime)) {
+                if (pendingPredecessors.merge(successor, -1, Integer::sum) == 0) {
+                    ready.add(successor);
+                }
+            }
+        }
+
+        if (!pendingPredecessors.isEmpty()) {
+            throw new RuntimeServiceException("Cyclic dependencies among runtimes " + pendingPredecessors.keySet()
+                    .stream()
+                    .map(ManagedRuntime::getName)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return transitionOrder;
+    }
+
+    private static Map<ManagedRuntime, Integer> getPredecessorCounts(
+            Map<ManagedRuntime, List<ManagedRuntime>> successors) {
+        Map<ManagedRuntime, Integer> predecessorCounts = new LinkedHashMap<>();
+        successors.keySet().forEach(managedRuntime -> predecessorCounts.put(managedRuntime, 0));
+        successors.values().forEach(managedRuntimes -> managedRuntimes.forEach(successor ->
+                predecessorCounts.merge(successor, 1, Integer::sum)));
+        return predecessorCounts;
+    }
+
+    private static Deque<ManagedRuntime> getRuntimesWithoutPredecessors(
+            Map<ManagedRuntime, Integer> predecessorCounts) {
+        return predecessorCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() == 0)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(ArrayDeque::new));
+    }
+
+    private static RuntimeServiceException createException(RuntimeTransition transition,
+                                                           List<RuntimeTransitionResult> results) {
+        List<RuntimeTransitionResult> failedResults = results.stream()
+                .filter(result -> !result.isSuccessful())
+                .collect(Collectors.toList());
+        String message = "Failed to " + transition.getDescription() + " " + failedResults.size() + " of " +
+                results.size() + " runtimes : " + failedResults.stream()
+                .map(result -> result.getRuntimeName() + " (" + result.getFailure().getMessage() + ")")
+                .collect(Collectors.joining(", "));
+        Throwable firstFailure = failedResults.get(0).getFailure();
+        RuntimeServiceException exception = firstFailure instanceof Exception ?
+                new RuntimeServiceException(message, (Exception) firstFailure) :
+                new RuntimeServiceException(message);
+        failedResults.stream()
+                .map(RuntimeTransitionResult::getFailure)
+                .filter(failure -> failure != firstFailure)
+                .forEach(exception::addSuppressed);
+        return exception;
+    }
+}
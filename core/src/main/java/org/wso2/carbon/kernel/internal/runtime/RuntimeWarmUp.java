@@ -0,0 +1,172 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.kernel.runtime.WarmUpTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the registered warm-up tasks once the runtimes are started, before the server is reported to be started.
+ * <p>
+ * The warm-up runs in its own thread, hence it does not hold up the startup order resolver, which notifies the rest of
+ * the startup listeners while the runtimes are warmed up, and reports the server to be started once it completes.
+ * <p>
+ * The tasks are run by a bounded pool of threads within an overall time budget. The tasks which are still running
+ * once the budget elapses are interrupted, and the tasks which have not yet started are not run. A failed task is
+ * logged, and does not prevent the rest of the tasks from running.
+ *
+ * @since 5.2.0
+ */
+class RuntimeWarmUp {
+    private static final Logger logger = LoggerFactory.getLogger(RuntimeWarmUp.class);
+
+    private final int concurrency;
+    private final long timeoutMillis;
+
+    /**
+     * Creates a warm-up which runs the given number of tasks in parallel within the given time budget.
+     *
+     * @param concurrency   maximum number of warm-up tasks run in parallel
+     * @param timeoutMillis maximum time to run all the warm-up tasks, or 0 to wait without a time limit
+     */
+    RuntimeWarmUp(int concurrency, long timeoutMillis) {
+        this.concurrency = Math.max(1, concurrency);
+        this.timeoutMillis = Math.max(0, timeoutMillis);
+    }
+
+    /**
+     * Runs the given warm-up tasks in a separate thread, without blocking the caller.
+     *
+     * @param warmUpTasks the tasks to be run
+     * @return future which completes with the outcome of {@link #warmUp(List)} once the warm-up completes
+     */
+    CompletableFuture<Boolean> warmUpAsync(List<WarmUpTask> warmUpTasks) {
+        if (warmUpTasks.isEmpty()) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(warmUp(warmUpTasks));
+            } catch (Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+        }, "CarbonRuntimeWarmUp");
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+
+    /**
+     * Runs the given warm-up tasks, and returns once all of them complete or the time budget elapses.
+     *
+     * @param warmUpTasks the tasks to be run
+     * @return true if all the tasks completed within the time budget, false otherwise
+     */
+    boolean warmUp(List<WarmUpTask> warmUpTasks) {
+        if (warmUpTasks.isEmpty()) {
+            return true;
+        }
+
+        logger.info("Warming up the runtimes using {} warm-up tasks", warmUpTasks.size());
+        long startTime = System.nanoTime();
+        boolean completed;
+        if (concurrency == 1 && timeoutMillis == 0) {
+            warmUpTasks.forEach(RuntimeWarmUp::run);
+            completed = true;
+        } else {
+            completed = runInParallel(warmUpTasks);
+        }
+
+        if (completed) {
+            logger.info("Warmed up the runtimes in {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        }
+        return completed;
+    }
+
+    private boolean runInParallel(List<WarmUpTask> warmUpTasks) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(concurrency, warmUpTasks.size()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "CarbonRuntimeWarmUp-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        List<Future<?>> futures = new ArrayList<>(warmUpTasks.size());
+        try {
+            warmUpTasks.forEach(warmUpTask -> futures.add(executorService.submit(() -> run(warmUpTask))));
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            for (Future<?> future : futures) {
+                if (timeoutMillis == 0) {
+                    future.get();
+                } else {
+                    future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                }
+            }
+            return true;
+        } catch (TimeoutException e) {
+            String incompleteTasks = IntStream.range(0, futures.size())
+                    .filter(index -> !futures.get(index).isDone())
+                    .mapToObj(index -> warmUpTasks.get(index).getName())
+                    .collect(Collectors.joining(", "));
+            logger.warn("Warm-up did not complete within {} ms, hence the incomplete warm-up tasks are interrupted : " +
+                    "{}", timeoutMillis, incompleteTasks);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while warming up the runtimes");
+            return false;
+        } catch (ExecutionException e) {
+            // Not expected, since the failures of the warm-up tasks are handled while running them.
+            logger.error("Error while warming up the runtimes", e);
+            return false;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static void run(WarmUpTask warmUpTask) {
+        long startTime = System.nanoTime();
+        try {
+            warmUpTask.warmUp();
+            if (logger.isDebugEnabled()) {
+                logger.debug("Warm-up task {} completed in {} ms", warmUpTask.getName(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Warm-up task {} was interrupted", warmUpTask.getName());
+        } catch (Exception e) {
+            logger.warn("Warm-up task " + warmUpTask.getName() + " failed", e);
+        }
+    }
+}
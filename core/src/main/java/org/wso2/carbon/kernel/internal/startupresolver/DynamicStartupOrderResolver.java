@@ -0,0 +1,324 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.SynchronousBundleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.StartupComponent;
+import org.wso2.carbon.kernel.startupresolver.manifest.ManifestElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverConstants.CARBON_COMPONENT_HEADER;
+
+/**
+ * DynamicStartupOrderResolver resolves the startup listener components of the bundles which are installed, updated or
+ * refreshed after the server startup.
+ * <p>
+ * Only the bundles which get resolved after the startup are processed. Carbon-Component headers of the bundles
+ * resolved together are indexed in a new {@code StartupComponentManager}, and a component scoped
+ * {@code OSGiServiceCapabilityTracker} tracks the services required by those components only. Once all of those
+ * components are notified, the tracker is closed. Hence there are no service trackers in between such deployments. The
+ * tracker listens to the service events of the required interfaces only, hence service events which are unrelated to
+ * the new components are never processed, even if a required service never arrives.
+ * <p>
+ * When a bundle is stopped for an update or a refresh, the services reported to the {@code StartupServiceCache} by its
+ * components are removed, since the new bundle revision reports them again.
+ *
+ * @since 5.2.0
+ */
+class DynamicStartupOrderResolver implements SynchronousBundleListener {
+    private static final Logger logger = LoggerFactory.getLogger(DynamicStartupOrderResolver.class);
+
+    private final BundleContext bundleContext;
+
+    // Timer thread which processes the resolved bundles and notifies the satisfiable components.
+    private final Timer resolverTimer = new Timer("CarbonDynamicStartupOrderResolver", true);
+
+    // Key of this map is the bundle id and the value is the list of startup listener components in the bundle.
+    private final Map<Long, List<String>> indexedBundleMap = new HashMap<>();
+
+    // Bundles which are resolved, but not processed yet.
+    private final ConcurrentLinkedQueue<Bundle> resolvedBundleQueue = new ConcurrentLinkedQueue<>();
+
+    // Deployments with pending startup listener components.
+    private final List<Deployment> pendingDeployments = new CopyOnWriteArrayList<>();
+
+    private volatile boolean stopped = false;
+
+    DynamicStartupOrderResolver(BundleContext bundleContext) {
+        this.bundleContext = bundleContext;
+    }
+
+    /**
+     * Starts resolving the components of the bundles which get resolved from now on.
+     *
+     * @param processedBundles  bundles whose Carbon-Component headers are already processed during the server startup
+     * @param startupComponents startup listener components which are already notified during the server startup
+     */
+    void start(List<Bundle> processedBundles, List<StartupComponent> startupComponents) {
+        synchronized (indexedBundleMap) {
+            // Bundles without startup listener components are indexed too, so that their headers are not read again.
+            processedBundles.forEach(bundle -> indexedBundleMap.put(bundle.getBundleId(), Collections.emptyList()));
+            startupComponents.forEach(startupComponent -> {
+                long bundleId = startupComponent.getBundle().getBundleId();
+                List<String> componentNames = new ArrayList<>(
+                        indexedBundleMap.getOrDefault(bundleId, Collections.emptyList()));
+                componentNames.add(startupComponent.getName());
+                indexedBundleMap.put(bundleId, componentNames);
+            });
+        }
+
+        StartupServiceCache.getInstance().setUpdateListener(this::updateServiceCache);
+        bundleContext.addBundleListener(this);
+
+        // Bundles resolved after the startup order resolver read the manifest headers, but before this listener was
+        // added, are not notified via bundle events.
+        for (Bundle bundle : bundleContext.getBundles()) {
+            if ((bundle.getState() & (Bundle.RESOLVED | Bundle.STARTING | Bundle.ACTIVE)) != 0) {
+                enqueueResolvedBundle(bundle);
+            }
+        }
+        logger.debug("Started resolving startup listener components of the bundles installed after the startup");
+    }
+
+    /**
+     * Stops resolving the components and closes the trackers of the pending components.
+     */
+    void stop() {
+        stopped = true;
+        bundleContext.removeBundleListener(this);
+        resolverTimer.cancel();
+        StartupServiceCache.getInstance().setUpdateListener(null);
+
+        synchronized (StartupComponentManager.class) {
+            pendingDeployments.forEach(Deployment::close);
+            pendingDeployments.clear();
+        }
+        logger.debug("Stopped resolving startup listener components of the bundles installed after the startup");
+    }
+
+    /**
+     * Handles the bundle events in the thread which changes the bundle state, so that the services reported by the
+     * previous revision of an updated bundle are removed before the new revision is started.
+     *
+     * @param event the bundle event
+     */
+    @Override
+    public void bundleChanged(BundleEvent event) {
+        switch (event.getType()) {
+            case BundleEvent.RESOLVED:
+                enqueueResolvedBundle(event.getBundle());
+                break;
+            case BundleEvent.UNRESOLVED:
+                List<String> componentNames;
+                synchronized (indexedBundleMap) {
+                    componentNames = indexedBundleMap.remove(event.getBundle().getBundleId());
+                }
+                if (componentNames != null) {
+                    componentNames.forEach(StartupServiceCache.getInstance()::remove);
+                }
+                long bundleId = event.getBundle().getBundleId();
+                schedule(() -> discardPendingComponents(bundleId));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void enqueueResolvedBundle(Bundle bundle) {
+        synchronized (indexedBundleMap) {
+            if (indexedBundleMap.containsKey(bundle.getBundleId())) {
+                return;
+            }
+            indexedBundleMap.put(bundle.getBundleId(), Collections.emptyList());
+        }
+
+        resolvedBundleQueue.add(bundle);
+        schedule(this::processResolvedBundles);
+    }
+
+    /**
+     * Indexes the Carbon-Component headers of all the bundles resolved since the last invocation, as one deployment.
+     */
+    private void processResolvedBundles() {
+        List<ManifestElement> manifestElements = new ArrayList<>();
+        for (Bundle bundle = resolvedBundleQueue.poll(); bundle != null; bundle = resolvedBundleQueue.poll()) {
+            try {
+                manifestElements.addAll(StartupOrderResolverUtils.getManifestElements(bundle));
+            } catch (StartOrderResolverException e) {
+                logger.error("Error occurred while processing the " + CARBON_COMPONENT_HEADER + " header of " +
+                        "bundle(" + bundle.getSymbolicName() + ":" + bundle.getVersion() + ")", e);
+            }
+        }
+
+        if (manifestElements.isEmpty()) {
+            return;
+        }
+
+        synchronized (StartupComponentManager.class) {
+            if (stopped) {
+                return;
+            }
+
+            StartupComponentManager startupComponentManager = new StartupComponentManager();
+            StartupOrderResolver.processManifestElements(startupComponentManager, manifestElements);
+
+            List<StartupComponent> startupComponents = startupComponentManager.getComponents(component -> true);
+            if (startupComponents.isEmpty()) {
+                return;
+            }
+
+            synchronized (indexedBundleMap) {
+                startupComponents.forEach(startupComponent -> {
+                    long bundleId = startupComponent.getBundle().getBundleId();
+                    // The bundle may have been unresolved in the meantime.
+                    if (indexedBundleMap.containsKey(bundleId)) {
+                        List<String> componentNames = new ArrayList<>(indexedBundleMap.get(bundleId));
+                        componentNames.add(startupComponent.getName());
+                        indexedBundleMap.put(bundleId, componentNames);
+                    }
+                });
+            }
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("Resolving startup listener components {} of the bundles installed after the startup",
+                        startupComponents.stream().map(StartupComponent::getName).collect(Collectors.toList()));
+            }
+
+            Deployment deployment = new Deployment(startupComponentManager);
+            startupComponentManager.setDirtyComponentListener(() -> scheduleDirtyComponentCheck(deployment));
+            pendingDeployments.add(deployment);
+            deployment.capabilityTracker.startTracker();
+            startupComponentManager.notifySatisfiableComponents();
+            completeIfSatisfied(deployment);
+        }
+    }
+
+    /**
+     * Schedules a check of the dirty components of the given deployment. At most one check is pending per deployment,
+     * hence a burst of capability tracker events results in a single check.
+     */
+    private void scheduleDirtyComponentCheck(Deployment deployment) {
+        if (!deployment.dirtyComponentCheckPending.compareAndSet(false, true)) {
+            return;
+        }
+
+        schedule(() -> {
+            deployment.dirtyComponentCheckPending.set(false);
+            notifyDirtyComponents(deployment);
+        });
+    }
+
+    private void notifyDirtyComponents(Deployment deployment) {
+        synchronized (StartupComponentManager.class) {
+            if (!pendingDeployments.contains(deployment)) {
+                return;
+            }
+
+            deployment.startupComponentManager.notifyDirtyComponents();
+            completeIfSatisfied(deployment);
+        }
+    }
+
+    private void completeIfSatisfied(Deployment deployment) {
+        if (!deployment.startupComponentManager.hasPendingComponents()) {
+            logger.debug("All the startup listener components of the deployment are satisfied, closing its tracker");
+            pendingDeployments.remove(deployment);
+            deployment.close();
+        }
+    }
+
+    /**
+     * Closes the deployments whose pending components are all from the given bundle, since the bundle is no longer
+     * resolved. The components of the next bundle revision are resolved in a new deployment.
+     */
+    private void discardPendingComponents(long bundleId) {
+        synchronized (StartupComponentManager.class) {
+            pendingDeployments.stream()
+                    .filter(deployment -> deployment.startupComponentManager.getComponents(StartupComponent::isPending)
+                            .stream()
+                            .allMatch(startupComponent -> startupComponent.getBundle().getBundleId() == bundleId))
+                    .collect(Collectors.toList())
+                    .forEach(deployment -> {
+                        logger.debug("Discarding the pending startup listener components of the unresolved " +
+                                "bundle {}", bundleId);
+                        pendingDeployments.remove(deployment);
+                        deployment.close();
+                    });
+        }
+    }
+
+    private void updateServiceCache(String componentName, String interfaceName) {
+        pendingDeployments.forEach(deployment ->
+                deployment.startupComponentManager.updateServiceCache(componentName, interfaceName));
+    }
+
+    private void schedule(Runnable task) {
+        if (stopped) {
+            return;
+        }
+
+        try {
+            resolverTimer.schedule(new TimerTask() {
+
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        logger.error("Error occurred in the dynamic Startup Order Resolver.", e);
+                    }
+                }
+            }, 0);
+        } catch (IllegalStateException e) {
+            logger.debug("The dynamic Startup Order Resolver is already stopped, therefore skipping the task");
+        }
+    }
+
+    /**
+     * Startup listener components of the bundles resolved together, and the tracker of their required services.
+     */
+    private static class Deployment {
+        private final StartupComponentManager startupComponentManager;
+        private final OSGiServiceCapabilityTracker capabilityTracker;
+        private final AtomicBoolean dirtyComponentCheckPending = new AtomicBoolean();
+
+        private Deployment(StartupComponentManager startupComponentManager) {
+            this.startupComponentManager = startupComponentManager;
+            this.capabilityTracker = new OSGiServiceCapabilityTracker(startupComponentManager, true);
+        }
+
+        private void close() {
+            startupComponentManager.setDirtyComponentListener(null);
+            capabilityTracker.closeTracker();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.osgi.framework.Bundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.kernel.startupresolver.manifest.ManifestElement;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ManifestElementCache persists the Carbon-Component manifest headers of all the bundles in a binary file, so that
+ * the headers are read from the bundles again only if the bundle is changed since the last server start.
+ * <p>
+ * An entry is valid only if the bundle id, symbolic name, version and the last modified time of the bundle are equal
+ * to the cached values. Bundles without the Carbon-Component header are cached as entries without a header value.
+ * The cached header values are parsed into manifest elements on retrieval, which is cheap compared to reading the
+ * localized headers of a bundle. The cache file is read once when the cache is created, and is written only if some
+ * entries are changed.
+ * <p>
+ * This class is thread-safe, hence manifest elements of multiple bundles can be retrieved in parallel.
+ *
+ * @since 5.2.0
+ */
+class ManifestElementCache {
+    private static final Logger logger = LoggerFactory.getLogger(ManifestElementCache.class);
+
+    private static final int CACHE_FILE_MAGIC = 0x43434d43;
+    private static final int CACHE_FILE_VERSION = 2;
+
+    /**
+     * Number of bytes in the smallest entry, i.e. an entry with empty names and without a header value.
+     */
+    private static final int MIN_ENTRY_SIZE = 24;
+
+    private final File cacheFile;
+
+    /**
+     * Cached entries read from the cache file, keyed by the bundle id.
+     */
+    private final Map<Long, CacheEntry> cachedEntries;
+
+    /**
+     * Entries of the bundles retrieved via this cache, keyed by the bundle id.
+     */
+    private final Map<Long, CacheEntry> currentEntries = new ConcurrentHashMap<>();
+
+    private volatile boolean modified = false;
+
+    private ManifestElementCache(File cacheFile, Map<Long, CacheEntry> cachedEntries) {
+        this.cacheFile = cacheFile;
+        this.cachedEntries = cachedEntries;
+    }
+
+    /**
+     * Creates a cache backed by the given file. An invalid, corrupted or unreadable cache file is ignored, hence all
+     * the manifest headers are read from the bundles again in that case.
+     *
+     * @param cacheFile the file in which the manifest headers are persisted
+     * @return the cache
+     */
+    static ManifestElementCache load(File cacheFile) {
+        if (!cacheFile.isFile()) {
+            logger.debug("Manifest element cache file {} is not available", cacheFile);
+            return new ManifestElementCache(cacheFile, Collections.emptyMap());
+        }
+
+        long fileLength = cacheFile.length();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != CACHE_FILE_MAGIC || in.readInt() != CACHE_FILE_VERSION) {
+                logger.debug("Ignoring the manifest element cache file {} with an unknown format", cacheFile);
+                return new ManifestElementCache(cacheFile, Collections.emptyMap());
+            }
+
+            int entryCount = in.readInt();
+            if (entryCount < 0 || entryCount > fileLength / MIN_ENTRY_SIZE) {
+                throw new IOException("Invalid entry count " + entryCount);
+            }
+            Map<Long, CacheEntry> cachedEntries = new HashMap<>(entryCount * 2);
+            for (int i = 0; i < entryCount; i++) {
+                CacheEntry cacheEntry = CacheEntry.read(in, fileLength);
+                cachedEntries.put(cacheEntry.bundleId, cacheEntry);
+            }
+            logger.debug("Loaded {} entries from the manifest element cache file {}", entryCount, cacheFile);
+            return new ManifestElementCache(cacheFile, cachedEntries);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Error occurred while reading the manifest element cache file " + cacheFile +
+                    ", hence reading all the manifest headers", e);
+            return new ManifestElementCache(cacheFile, Collections.emptyMap());
+        }
+    }
+
+    /**
+     * Returns the manifest elements of the Carbon-Component header in the given bundle. The header is read from the
+     * bundle only if a valid cache entry is not available for the bundle.
+     *
+     * @param bundle the bundle from which the manifest elements are retrieved
+     * @return the list of manifest elements
+     */
+    List<ManifestElement> getManifestElements(Bundle bundle) {
+        CacheEntry cachedEntry = cachedEntries.get(bundle.getBundleId());
+        if (cachedEntry != null && cachedEntry.isValid(bundle)) {
+            try {
+                List<ManifestElement> manifestElements =
+                        StartupOrderResolverUtils.getManifestElements(bundle, cachedEntry.headerValue);
+                currentEntries.put(bundle.getBundleId(), cachedEntry);
+                return manifestElements;
+            } catch (RuntimeException e) {
+                // Cannot happen unless the cache file is corrupted, read the header from the bundle instead.
+                logger.debug("Invalid manifest element cache entry for bundle(" + cachedEntry.symbolicName + ":" +
+                        cachedEntry.version + ")", e);
+            }
+        }
+
+        String headerValue = StartupOrderResolverUtils.getCarbonComponentHeader(bundle);
+        List<ManifestElement> manifestElements = StartupOrderResolverUtils.getManifestElements(bundle, headerValue);
+        currentEntries.put(bundle.getBundleId(), new CacheEntry(bundle, headerValue));
+        modified = true;
+        return manifestElements;
+    }
+
+    /**
+     * Persists the entries retrieved via this cache, if any of them are changed or if some of the cached bundles are
+     * no longer available. Failures are logged, since the cache is only an optimization.
+     */
+    void save() {
+        if (!modified && currentEntries.size() == cachedEntries.size()) {
+            return;
+        }
+
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(tempFile)))) {
+                out.writeInt(CACHE_FILE_MAGIC);
+                out.writeInt(CACHE_FILE_VERSION);
+                out.writeInt(currentEntries.size());
+                for (CacheEntry cacheEntry : currentEntries.values()) {
+                    cacheEntry.write(out);
+                }
+            }
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            logger.debug("Saved {} entries to the manifest element cache file {}", currentEntries.size(), cacheFile);
+        } catch (IOException e) {
+            logger.warn("Error occurred while writing the manifest element cache file " + cacheFile, e);
+            if (!tempFile.delete()) {
+                logger.debug("Unable to delete the temporary file {}", tempFile);
+            }
+        }
+    }
+
+    /**
+     * Carbon-Component header value of a bundle, together with the bundle attributes which identify the bundle
+     * revision.
+     */
+    private static class CacheEntry {
+        private final long bundleId;
+        private final String symbolicName;
+        private final String version;
+        private final long lastModified;
+
+        /**
+         * The Carbon-Component header value, or null if the bundle does not have the header.
+         */
+        private final String headerValue;
+
+        private CacheEntry(Bundle bundle, String headerValue) {
+            this(bundle.getBundleId(), String.valueOf(bundle.getSymbolicName()), String.valueOf(bundle.getVersion()),
+                    bundle.getLastModified(), headerValue);
+        }
+
+        private CacheEntry(long bundleId, String symbolicName, String version, long lastModified,
+                           String headerValue) {
+            this.bundleId = bundleId;
+            this.symbolicName = symbolicName;
+            this.version = version;
+            this.lastModified = lastModified;
+            this.headerValue = headerValue;
+        }
+
+        private boolean isValid(Bundle bundle) {
+            return lastModified == bundle.getLastModified()
+                    && symbolicName.equals(String.valueOf(bundle.getSymbolicName()))
+                    && version.equals(String.valueOf(bundle.getVersion()));
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeLong(bundleId);
+            out.writeUTF(symbolicName);
+            out.writeUTF(version);
+            out.writeLong(lastModified);
+            if (headerValue == null) {
+                out.writeInt(-1);
+                return;
+            }
+
+            // The header value is not written using writeUTF, since it could be longer than 65535 bytes.
+            byte[] headerBytes = headerValue.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(headerBytes.length);
+            out.write(headerBytes);
+        }
+
+        private static CacheEntry read(DataInputStream in, long fileLength) throws IOException {
+            long bundleId = in.readLong();
+            String symbolicName = in.readUTF();
+            String version = in.readUTF();
+            long lastModified = in.readLong();
+
+            int headerLength = in.readInt();
+            String headerValue = null;
+            if (headerLength >= 0) {
+                if (headerLength > fileLength) {
+                    throw new IOException("Invalid header length " + headerLength + " of bundle(" + symbolicName +
+                            ":" + version + ")");
+                }
+                byte[] headerBytes = new byte[headerLength];
+                in.readFully(headerBytes);
+                headerValue = new String(headerBytes, StandardCharsets.UTF_8);
+            } else if (headerLength != -1) {
+                throw new IOException("Invalid header length " + headerLength + " of bundle(" + symbolicName + ":" +
+                        version + ")");
+            }
+            return new CacheEntry(bundleId, symbolicName, version, lastModified, headerValue);
+        }
+    }
+}
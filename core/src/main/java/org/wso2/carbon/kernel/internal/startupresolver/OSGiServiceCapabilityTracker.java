@@ -21,9 +21,9 @@ import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Filter;
 import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
 import org.osgi.framework.ServiceReference;
-import org.osgi.util.tracker.ServiceTracker;
-import org.osgi.util.tracker.ServiceTrackerCustomizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.carbon.kernel.internal.DataHolder;
@@ -34,9 +34,14 @@ import org.wso2.carbon.kernel.internal.startupresolver.beans.StartupComponent;
 import org.wso2.carbon.kernel.startupresolver.CapabilityProvider;
 import org.wso2.carbon.kernel.startupresolver.RequiredCapabilityListener;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverConstants.CAPABILITY_NAME;
 import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverConstants.COMPONENT_NAME;
@@ -45,7 +50,16 @@ import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverCon
 import static org.wso2.carbon.utils.StringUtils.getNonEmptyStringAfterTrim;
 
 /**
- * Tracks OSGi Services by creating a ServiceTracker which tracks only services required by startup components.
+ * Tracks OSGi Services required by startup components, using a single service listener which indexes the tracked
+ * services by the service interface name.
+ * <p>
+ * The listener of the startup tracker is registered without a filter, hence the framework does not evaluate any filter
+ * for the service events. The objectClass of each service event is looked up in the index, therefore the cost of a
+ * service event which is unrelated to the startup components does not depend on the number of required services.
+ * <p>
+ * A component scoped tracker may stay open for the rest of the server life if a required service never arrives, hence
+ * its listener is registered with an objectClass filter of the tracked interfaces, and the framework does not deliver
+ * unrelated service events to it.
  *
  * @since 5.1.0
  */
@@ -53,32 +67,159 @@ class OSGiServiceCapabilityTracker {
     private static final Logger logger = LoggerFactory.getLogger(OSGiServiceCapabilityTracker.class);
 
     private StartupComponentManager startupComponentManager;
-    private ServiceTracker<Object, Object> capabilityServiceTracker;
+
+    /**
+     * Key of this map is the tracked service interface name, and the value is the filter which should match the
+     * service reference as well, or null if all the services of the interface are tracked.
+     */
+    private Map<String, Filter> trackedServiceMap;
+
+    // Key of this map is the tracked service reference and the value is the service object.
+    private final Map<ServiceReference<?>, Object> trackedServices = new ConcurrentHashMap<>();
+
+    private final ServiceListener capabilityServiceListener = this::serviceChanged;
+
+    /**
+     * Whether to track only the {@code RequiredCapabilityListener} and {@code CapabilityProvider} services of the
+     * components in the {@code startupComponentManager}.
+     */
+    private final boolean componentScoped;
 
     OSGiServiceCapabilityTracker(StartupComponentManager startupComponentManager) {
+        this(startupComponentManager, false);
+    }
+
+    /**
+     * Creates a tracker for the components in the given {@code StartupComponentManager}.
+     * <p>
+     * A component scoped tracker tracks the {@code RequiredCapabilityListener} services of these components and the
+     * {@code CapabilityProvider} services of their required capabilities only. Such a tracker is used for the
+     * components of the bundles installed after the server startup, since the listeners and providers of all the
+     * other components are already processed.
+     *
+     * @param startupComponentManager the manager of the tracked components
+     * @param componentScoped         whether to track only the listeners and providers of the tracked components
+     */
+    OSGiServiceCapabilityTracker(StartupComponentManager startupComponentManager, boolean componentScoped) {
         this.startupComponentManager = startupComponentManager;
+        this.componentScoped = componentScoped;
     }
 
     /**
-     * Starts the ServiceTracker.
+     * Starts tracking the services.
+     * <p>
+     * The service listener is registered first and then the already registered services are looked up by the
+     * interface name, so that no service is missed. {@code CapabilityProvider} services are processed first since they
+     * add expected capabilities, and {@code RequiredCapabilityListener} services are processed last since they make
+     * components satisfiable.
      */
     void startTracker() {
-        Filter orFilter = getORFilter(getRequiredServiceList(startupComponentManager));
-        capabilityServiceTracker = new ServiceTracker<>(DataHolder.getInstance().getBundleContext(), orFilter,
-                new CapabilityServiceTrackerCustomizer());
+        BundleContext bundleContext = DataHolder.getInstance().getBundleContext();
+        Map<String, Filter> serviceMap = new LinkedHashMap<>();
+        getTrackerFilterStrings().forEach((serviceInterfaceName, filterString) -> {
+            if (filterString.equals(getObjectClassFilterString(serviceInterfaceName))) {
+                serviceMap.put(serviceInterfaceName, null);
+            } else {
+                serviceMap.put(serviceInterfaceName, getFilter(filterString));
+            }
+        });
+        trackedServiceMap = serviceMap;
 
-        capabilityServiceTracker.open();
+        String listenerFilterString = getServiceListenerFilterString(serviceMap.keySet());
+        try {
+            bundleContext.addServiceListener(capabilityServiceListener, listenerFilterString);
+        } catch (InvalidSyntaxException e) {
+            throw new StartOrderResolverException("Error occurred while adding the service listener with the filter " +
+                    listenerFilterString, e);
+        }
+        trackedServiceMap.keySet().forEach(serviceInterfaceName -> {
+            try {
+                ServiceReference<?>[] references = bundleContext.getServiceReferences(serviceInterfaceName, null);
+                if (references != null) {
+                    Arrays.stream(references).forEach(this::addingService);
+                }
+            } catch (InvalidSyntaxException e) {
+                throw new StartOrderResolverException("Error occurred while retrieving the services of " +
+                        serviceInterfaceName, e);
+            }
+        });
     }
 
     /**
-     * Closes the ServiceTracker.
+     * Stops tracking the services.
      */
     void closeTracker() {
-        capabilityServiceTracker.close();
-        capabilityServiceTracker = null;
+        // The tracked services are not released, since a delayed component would get deactivated when its last
+        // user releases the service.
+        DataHolder.getInstance().getBundleContext().removeServiceListener(capabilityServiceListener);
+        trackedServices.clear();
         startupComponentManager = null;
     }
 
+    private void serviceChanged(ServiceEvent event) {
+        // Unrelated service events return after a lookup in the trackedServiceMap.
+        switch (event.getType()) {
+            case ServiceEvent.REGISTERED:
+            case ServiceEvent.MODIFIED:
+                addingService(event.getServiceReference());
+                break;
+            case ServiceEvent.UNREGISTERING:
+                trackedServices.remove(event.getServiceReference());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Processes the given service, if it is registered under a tracked interface and it is not already tracked.
+     * <p>
+     * Required services which skip the startup order resolver are not tracked, hence the service object is not
+     * retrieved for them.
+     *
+     * @param reference the service reference
+     */
+    private void addingService(ServiceReference<?> reference) {
+        List<String> serviceInterfaceNames = null;
+        for (String serviceInterfaceName : (String[]) reference.getProperty(OBJECT_CLASS)) {
+            if (!trackedServiceMap.containsKey(serviceInterfaceName)) {
+                continue;
+            }
+
+            if (!RequiredCapabilityListener.class.getName().equals(serviceInterfaceName) &&
+                    !CapabilityProvider.class.getName().equals(serviceInterfaceName) &&
+                    Boolean.TRUE.equals(reference.getProperty(SKIP_CARBON_STARTUP_RESOLVER))) {
+                logger.debug("Skipping tracking of service {} which is registered under {}.", reference,
+                        serviceInterfaceName);
+                continue;
+            }
+
+            Filter filter = trackedServiceMap.get(serviceInterfaceName);
+            if (filter == null || filter.match(reference)) {
+                if (serviceInterfaceNames == null) {
+                    serviceInterfaceNames = new ArrayList<>(1);
+                }
+                serviceInterfaceNames.add(serviceInterfaceName);
+            }
+        }
+
+        if (serviceInterfaceNames == null || trackedServices.containsKey(reference)) {
+            return;
+        }
+
+        Object serviceObject = DataHolder.getInstance().getBundleContext().getService(reference);
+        // The service could be unregistered or tracked by another thread in the meantime.
+        if (serviceObject == null || trackedServices.putIfAbsent(reference, serviceObject) != null) {
+            return;
+        }
+
+        StartupComponentManager componentManager = startupComponentManager;
+        if (componentManager != null) {
+            serviceInterfaceNames.forEach(serviceInterfaceName ->
+                    addingService(componentManager, reference, serviceInterfaceName, serviceObject));
+        }
+    }
+
     /**
      * Returns a {@link List} of OSGi service keys required by startup components.
      *
@@ -92,110 +233,162 @@ class OSGiServiceCapabilityTracker {
                 .flatMap(startupComponent -> startupComponent.getRequiredServices().stream())
                 .distinct()
                 .collect(Collectors.toList());
-
-        // We need to track RequiredCapabilityListener services as well as CapabilityProvider service.
-        requiredServiceList.add(RequiredCapabilityListener.class.getName());
-        requiredServiceList.add(CapabilityProvider.class.getName());
         return requiredServiceList;
     }
 
     /**
-     * Returns and instance of {@link Filter}.
+     * Returns the LDAP like filter strings of the ServiceTrackers, in the order the trackers should be opened.
      *
-     * @param capabilityNameList all the required capability services.
-     * @return LDAP like filter
+     * @return a map of the tracked service interface name to the filter string
      */
-    private Filter getORFilter(List<String> capabilityNameList) {
-        StringBuilder orFilterBuilder = new StringBuilder();
-        orFilterBuilder.append("(|");
+    Map<String, String> getTrackerFilterStrings() {
+        List<String> requiredServiceList = getRequiredServiceList(startupComponentManager);
+        Map<String, String> filterStringMap = new LinkedHashMap<>();
+
+        if (!componentScoped) {
+            // We need to track RequiredCapabilityListener services as well as CapabilityProvider service.
+            filterStringMap.put(CapabilityProvider.class.getName(),
+                    getObjectClassFilterString(CapabilityProvider.class.getName()));
+            requiredServiceList.forEach(service -> filterStringMap.put(service, getObjectClassFilterString(service)));
+            filterStringMap.put(RequiredCapabilityListener.class.getName(),
+                    getObjectClassFilterString(RequiredCapabilityListener.class.getName()));
+            return filterStringMap;
+        }
 
-        for (String service : capabilityNameList) {
-            orFilterBuilder.append("(").append(OBJECT_CLASS).append("=").append(service).append(")");
+        if (!requiredServiceList.isEmpty()) {
+            filterStringMap.put(CapabilityProvider.class.getName(),
+                    getScopedFilterString(CapabilityProvider.class.getName(), CAPABILITY_NAME, requiredServiceList));
+        }
+        requiredServiceList.forEach(service -> filterStringMap.put(service, getObjectClassFilterString(service)));
+
+        List<String> componentNameList = startupComponentManager.getComponents(StartupComponent::isPending)
+                .stream()
+                .map(StartupComponent::getName)
+                .collect(Collectors.toList());
+        filterStringMap.put(RequiredCapabilityListener.class.getName(),
+                getScopedFilterString(RequiredCapabilityListener.class.getName(), COMPONENT_NAME, componentNameList));
+        return filterStringMap;
+    }
+
+    /**
+     * Returns the filter of the service listener, which matches the services of any of the given interfaces if this
+     * tracker is component scoped.
+     *
+     * @param serviceInterfaceNames the tracked service interface names
+     * @return the filter string, or null if the listener of this tracker is registered without a filter
+     */
+    String getServiceListenerFilterString(Collection<String> serviceInterfaceNames) {
+        if (!componentScoped) {
+            return null;
         }
 
-        orFilterBuilder.append(")");
+        StringBuilder filterBuilder = new StringBuilder("(|");
+        serviceInterfaceNames.forEach(serviceInterfaceName ->
+                appendFilterItem(filterBuilder, OBJECT_CLASS, serviceInterfaceName));
+        return filterBuilder.append(")").toString();
+    }
+
+    private static String getObjectClassFilterString(String serviceInterfaceName) {
+        return "(" + OBJECT_CLASS + "=" + serviceInterfaceName + ")";
+    }
 
+    /**
+     * Returns the filter string which matches the services of the given interface, with any of the given values for
+     * the given service property.
+     */
+    private static String getScopedFilterString(String serviceInterfaceName, String key, List<String> values) {
+        StringBuilder filterBuilder = new StringBuilder();
+        filterBuilder.append("(&").append(getObjectClassFilterString(serviceInterfaceName)).append("(|");
+        values.forEach(value -> appendFilterItem(filterBuilder, key, value));
+        filterBuilder.append("))");
+        return filterBuilder.toString();
+    }
+
+    private static void appendFilterItem(StringBuilder filterBuilder, String key, String value) {
+        filterBuilder.append("(").append(key).append("=");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '*' || c == '(' || c == ')') {
+                filterBuilder.append('\\');
+            }
+            filterBuilder.append(c);
+        }
+        filterBuilder.append(")");
+    }
+
+    /**
+     * Returns and instance of {@link Filter}.
+     *
+     * @param filterString LDAP like filter string
+     * @return the filter
+     */
+    private Filter getFilter(String filterString) {
         BundleContext bundleContext = DataHolder.getInstance().getBundleContext();
         try {
-            return bundleContext.createFilter(orFilterBuilder.toString());
+            return bundleContext.createFilter(filterString);
         } catch (InvalidSyntaxException e) {
             throw new StartOrderResolverException("Error occurred while creating the service filter", e);
         }
     }
 
     /**
-     * Custom implementation of the {@link ServiceTrackerCustomizer} which handles registered
-     * {@code RequiredCapabilityListener} services, {@code CapabilityProvider} services and
-     * all the other required services.
+     * Handles a registered {@code RequiredCapabilityListener} service, {@code CapabilityProvider} service or any other
+     * required service.
+     *
+     * @param startupComponentManager   the manager of the tracked components
+     * @param reference                 the service reference
+     * @param serviceInterfaceClassName the tracked interface, a service could be registered under several interfaces
+     * @param serviceObject             the service object
      */
-    private class CapabilityServiceTrackerCustomizer implements ServiceTrackerCustomizer<Object, Object> {
-
-        @Override
-        public Object addingService(ServiceReference<Object> reference) {
-            Object serviceObject = DataHolder.getInstance().getBundleContext().getService(reference);
-            String serviceInterfaceClassName = ((String[]) reference.getProperty(OBJECT_CLASS))[0];
-            String serviceImplClassName = serviceObject.getClass().getName();
-            Bundle bundle = reference.getBundle();
-
-            if (RequiredCapabilityListener.class.getName().equals(serviceInterfaceClassName)) {
-                String componentKey = getNonEmptyStringAfterTrim((String) reference.getProperty(COMPONENT_NAME))
-                        .orElseThrow(() -> new StartOrderResolverException(COMPONENT_NAME + " value is missing in " +
-                                "the services registered with the key " + serviceInterfaceClassName + ", " +
-                                "implementation class name is " + serviceImplClassName));
-
-                startupComponentManager.addRequiredCapabilityListener(
-                        (RequiredCapabilityListener) serviceObject, componentKey, reference.getBundle());
-
-            } else if (CapabilityProvider.class.getName().equals(serviceInterfaceClassName)) {
-                String capabilityName = getNonEmptyStringAfterTrim((String) reference.getProperty(CAPABILITY_NAME))
-                        .orElseThrow(() -> new StartOrderResolverException(CAPABILITY_NAME + " value is missing in " +
-                                "the services registered with the key " + serviceInterfaceClassName + ", " +
-                                "implementation class name is " + serviceImplClassName));
-
-                CapabilityProviderCapability capabilityProvider = new CapabilityProviderCapability(
-                        CapabilityProvider.class.getName(),
-                        Capability.CapabilityType.OSGi_SERVICE,
-                        Capability.CapabilityState.AVAILABLE,
-                        capabilityName.trim(),
-                        bundle);
-
-                startupComponentManager.addExpectedOrAvailableCapabilityProvider(capabilityProvider);
-
-                CapabilityProvider provider = (CapabilityProvider) serviceObject;
-                IntStream.range(0, provider.getCount())
-                        .forEach(count -> startupComponentManager.addExpectedCapability(
-                                new OSGiServiceCapability(
-                                        capabilityName.trim(),
-                                        Capability.CapabilityType.OSGi_SERVICE,
-                                        Capability.CapabilityState.EXPECTED,
-                                        bundle,
-                                        true)));
-            } else {
-                if (Boolean.TRUE.equals(reference.getProperty(SKIP_CARBON_STARTUP_RESOLVER))) {
-                    logger.debug("Skipping tracking of service {} which implements {}.", serviceImplClassName,
-                                 serviceInterfaceClassName);
-                    return null;
-                }
+    private void addingService(StartupComponentManager startupComponentManager, ServiceReference<?> reference,
+                               String serviceInterfaceClassName, Object serviceObject) {
+        String serviceImplClassName = serviceObject.getClass().getName();
+        Bundle bundle = reference.getBundle();
 
-                logger.debug("Updating indirect dependencies in components for interface={} via the implementation={}",
-                        serviceInterfaceClassName, serviceImplClassName);
-                startupComponentManager.updateCapability(new OSGiServiceCapability(
-                        serviceInterfaceClassName,
-                        Capability.CapabilityType.OSGi_SERVICE,
-                        Capability.CapabilityState.AVAILABLE,
-                        bundle,
-                        false));
-            }
+        if (RequiredCapabilityListener.class.getName().equals(serviceInterfaceClassName)) {
+            String componentKey = getNonEmptyStringAfterTrim((String) reference.getProperty(COMPONENT_NAME))
+                    .orElseThrow(() -> new StartOrderResolverException(COMPONENT_NAME + " value is missing in " +
+                            "the services registered with the key " + serviceInterfaceClassName + ", " +
+                            "implementation class name is " + serviceImplClassName));
 
-            return serviceObject;
-        }
+            startupComponentManager.addRequiredCapabilityListener(
+                    (RequiredCapabilityListener) serviceObject, componentKey, reference.getBundle());
 
-        @Override
-        public void modifiedService(ServiceReference<Object> reference, Object service) {
-        }
+        } else if (CapabilityProvider.class.getName().equals(serviceInterfaceClassName)) {
+            String capabilityName = getNonEmptyStringAfterTrim((String) reference.getProperty(CAPABILITY_NAME))
+                    .orElseThrow(() -> new StartOrderResolverException(CAPABILITY_NAME + " value is missing in " +
+                            "the services registered with the key " + serviceInterfaceClassName + ", " +
+                            "implementation class name is " + serviceImplClassName));
+
+            CapabilityProviderCapability capabilityProvider = new CapabilityProviderCapability(
+                    CapabilityProvider.class.getName(),
+                    Capability.CapabilityType.OSGi_SERVICE,
+                    Capability.CapabilityState.AVAILABLE,
+                    capabilityName.trim(),
+                    bundle);
 
-        @Override
-        public void removedService(ServiceReference<Object> reference, Object service) {
+            startupComponentManager.addExpectedOrAvailableCapabilityProvider(capabilityProvider);
+
+            CapabilityProvider provider = (CapabilityProvider) serviceObject;
+            if (provider.getCount() > 0) {
+                OSGiServiceCapability providedCapability = new OSGiServiceCapability(
+                        capabilityName.trim(),
+                        Capability.CapabilityType.OSGi_SERVICE,
+                        Capability.CapabilityState.EXPECTED,
+                        bundle,
+                        true);
+                providedCapability.setCount(provider.getCount());
+                startupComponentManager.addExpectedCapability(providedCapability);
+            }
+        } else {
+            logger.debug("Updating indirect dependencies in components for interface={} via the implementation={}",
+                    serviceInterfaceClassName, serviceImplClassName);
+            startupComponentManager.updateCapability(new OSGiServiceCapability(
+                    serviceInterfaceClassName,
+                    Capability.CapabilityType.OSGi_SERVICE,
+                    Capability.CapabilityState.AVAILABLE,
+                    bundle,
+                    false));
         }
     }
 }
@@ -21,13 +21,21 @@ import org.osgi.framework.Bundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.carbon.kernel.internal.startupresolver.beans.Capability;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.CapabilitySymbolTable;
 import org.wso2.carbon.kernel.internal.startupresolver.beans.CapabilityProviderCapability;
 import org.wso2.carbon.kernel.internal.startupresolver.beans.StartupComponent;
 import org.wso2.carbon.kernel.startupresolver.RequiredCapabilityListener;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -42,7 +50,34 @@ class StartupComponentManager {
     private static final Logger logger = LoggerFactory.getLogger(StartupComponentManager.class);
 
     // Key of this map is the component name
-    private Map<String, StartupComponent> startupComponentMap = new HashMap<>();
+    private Map<String, StartupComponent> startupComponentMap = new ConcurrentHashMap<>();
+
+    // Assigns dense ids to the names of the capabilities required by the components
+    private final CapabilitySymbolTable capabilitySymbolTable = new CapabilitySymbolTable();
+
+    // Index of this list is the capability id and the value is the list of components which require that capability
+    private final List<List<StartupComponent>> requiredCapabilityIndex = new ArrayList<>();
+
+    // Names of the components which may have become satisfiable since the last satisfiability check
+    private final Set<String> dirtyComponentNames = ConcurrentHashMap.newKeySet();
+
+    // Number of components which are not yet satisfied or whose listener has not returned yet, so that the startup
+    // completion is checked without a scan
+    private final AtomicInteger pendingComponentCount = new AtomicInteger();
+
+    // Invoked when a component is marked as dirty
+    private volatile Runnable dirtyComponentListener;
+
+    /**
+     * Executor used to notify the satisfiable components without waiting for their listeners. Components are notified
+     * in the calling thread, if this is not set.
+     */
+    private volatile ExecutorService listenerNotificationExecutor;
+
+    /**
+     * Records the timestamps of the startup events, if the critical path report is required.
+     */
+    private volatile StartupTimeline startupTimeline;
 
     /**
      * Adds the given {@code StartupComponent}.
@@ -75,6 +110,17 @@ class StartupComponentManager {
         }
 
         startupComponentMap.put(componentName, startupComponent);
+        if (startupComponent.isPending()) {
+            pendingComponentCount.incrementAndGet();
+        }
+        startupComponent.setCapabilitySymbolTable(capabilitySymbolTable);
+        for (int capabilityId : startupComponent.getRequiredCapabilityIds()) {
+            indexRequiredCapability(capabilityId, startupComponent);
+        }
+
+        // Services reported before this component is added, are not pushed via updateServiceCache.
+        StartupServiceCache.getInstance().getAvailableService(componentName)
+                .forEach(startupComponent::updateAvailableServiceCount);
     }
 
     /**
@@ -94,7 +140,11 @@ class StartupComponentManager {
         logger.debug("Updating the required OSGi Service list of startup component {}. capabilityName: {} ",
                 componentName, capabilityName);
 
+        boolean required = startupComponent.isServiceRequired(capabilityName);
         startupComponent.addRequiredService(capabilityName);
+        if (!required) {
+            indexRequiredCapability(capabilitySymbolTable.getId(capabilityName), startupComponent);
+        }
     }
 
     /**
@@ -128,6 +178,11 @@ class StartupComponentManager {
                     componentName, bundle.getSymbolicName(), bundle.getVersion());
         }
         startupComponent.setListener(listener);
+        StartupTimeline timeline = startupTimeline;
+        if (timeline != null) {
+            timeline.recordListenerRegistered(componentName, bundle, System.nanoTime());
+        }
+        markDirty(startupComponent);
     }
 
     /**
@@ -145,11 +200,11 @@ class StartupComponentManager {
                     capabilityProvider.getBundle().getVersion());
         }
 
-        startupComponentMap.values().stream()
-                .filter(startupComponent ->
-                        startupComponent.isServiceRequired(capabilityProvider.getProvidedCapabilityName()))
-                .forEach(startupComponent ->
-                        startupComponent.addExpectedOrAvailableCapabilityProvider(capabilityProvider));
+        getComponentsRequiring(capabilityProvider.getProvidedCapabilityName())
+                .forEach(startupComponent -> {
+                    startupComponent.addExpectedOrAvailableCapabilityProvider(capabilityProvider);
+                    markDirty(startupComponent);
+                });
     }
 
     /**
@@ -161,9 +216,8 @@ class StartupComponentManager {
      * @param capability {@code Capability} instance
      */
     void addExpectedCapability(Capability capability) {
-        startupComponentMap.values()
-                .stream()
-                .filter(startupComponent -> startupComponent.isServiceRequired(capability.getName()))
+        int capabilityId = capabilitySymbolTable.getId(capability.getName());
+        getComponentsRequiring(capabilityId)
                 .forEach(startupComponent -> {
 
                     if (startupComponent.isSatisfied()) {
@@ -188,7 +242,10 @@ class StartupComponentManager {
                                 capability.getBundle().getVersion(),
                                 startupComponent.getName());
                     }
-                    startupComponent.addExpectedCapability(new Capability(capability));
+                    if (startupComponent.addExpectedCapability(capabilityId, new Capability(capability))) {
+                        recordCapabilityAvailable(startupComponent, capability.getName(), capability.getBundle());
+                    }
+                    markDirty(startupComponent);
                 });
 
     }
@@ -199,9 +256,8 @@ class StartupComponentManager {
      * @param capability the capability to be updated.
      */
     void updateCapability(Capability capability) {
-        startupComponentMap.values()
-                .stream()
-                .filter(startupComponent -> startupComponent.isServiceRequired(capability.getName()))
+        int capabilityId = capabilitySymbolTable.getId(capability.getName());
+        getComponentsRequiring(capabilityId)
                 .forEach(startupComponent -> {
                     if (startupComponent.isSatisfied()) {
                         logger.warn("You are trying to add an {} capability {} from bundle({}:{}) to an already " +
@@ -217,10 +273,106 @@ class StartupComponentManager {
                                     startupComponent.getBundle().getSymbolicName(),
                                     startupComponent.getBundle().getVersion());
                     }
-                    startupComponent.updateCapability(capability);
+                    if (startupComponent.updateCapability(capabilityId, new Capability(capability))) {
+                        recordCapabilityAvailable(startupComponent, capability.getName(), capability.getBundle());
+                    }
+                    markDirty(startupComponent);
                 });
     }
 
+    /**
+     * Returns the {@code StartupComponent}s which require the given capability.
+     *
+     * @param capabilityName name of the capability
+     * @return an unmodifiable list of {@code StartupComponent}s, which could be empty
+     */
+    List<StartupComponent> getComponentsRequiring(String capabilityName) {
+        return getComponentsRequiring(capabilitySymbolTable.getId(capabilityName));
+    }
+
+    private List<StartupComponent> getComponentsRequiring(int capabilityId) {
+        if (capabilityId == CapabilitySymbolTable.UNKNOWN_ID || capabilityId >= requiredCapabilityIndex.size()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(requiredCapabilityIndex.get(capabilityId));
+    }
+
+    /**
+     * Updates the available service count of the specified component and marks it as dirty, because one of the OSGi
+     * services it is waiting for has been reported to the {@code StartupServiceCache}. Services of the interfaces
+     * which are not required by the component are not recorded in the startup timeline.
+     *
+     * @param componentName the name of the reporting component
+     * @param interfaceName the name of the reported OSGi service interface
+     */
+    void updateServiceCache(String componentName, String interfaceName) {
+        StartupComponent startupComponent = startupComponentMap.get(componentName);
+        if (startupComponent != null) {
+            startupComponent.updateAvailableServiceCount(interfaceName,
+                    StartupServiceCache.getInstance().getServiceCount(componentName, interfaceName));
+            if (startupComponent.isServiceRequired(interfaceName)) {
+                // The bundle which registered the reported service is not known to the StartupServiceCache.
+                recordCapabilityAvailable(startupComponent, interfaceName, null);
+            }
+            markDirty(startupComponent);
+        }
+    }
+
+    /**
+     * Sets the listener which gets invoked whenever a component is marked as dirty. Dirty components are the ones
+     * which may have become satisfiable due to a capability tracker event.
+     *
+     * @param dirtyComponentListener the listener, or null to remove the current listener
+     */
+    void setDirtyComponentListener(Runnable dirtyComponentListener) {
+        this.dirtyComponentListener = dirtyComponentListener;
+    }
+
+    /**
+     * Sets the executor used to notify {@code RequiredCapabilityListener}s in parallel, without waiting for them to
+     * return.
+     *
+     * @param listenerNotificationExecutor the executor, or null to notify the listeners in the calling thread
+     */
+    void setListenerNotificationExecutor(ExecutorService listenerNotificationExecutor) {
+        this.listenerNotificationExecutor = listenerNotificationExecutor;
+    }
+
+    /**
+     * Sets the {@code StartupTimeline} which records the timestamps of the startup events.
+     *
+     * @param startupTimeline the timeline, or null to stop recording
+     */
+    void setStartupTimeline(StartupTimeline startupTimeline) {
+        this.startupTimeline = startupTimeline;
+    }
+
+    private void recordCapabilityAvailable(StartupComponent startupComponent, String capabilityName, Bundle bundle) {
+        StartupTimeline timeline = startupTimeline;
+        if (timeline != null && !startupComponent.isSatisfied()) {
+            timeline.recordCapabilityAvailable(startupComponent.getName(), capabilityName, bundle, System.nanoTime());
+        }
+    }
+
+    private void indexRequiredCapability(int capabilityId, StartupComponent startupComponent) {
+        while (requiredCapabilityIndex.size() <= capabilityId) {
+            requiredCapabilityIndex.add(new ArrayList<>());
+        }
+        requiredCapabilityIndex.get(capabilityId).add(startupComponent);
+    }
+
+    private void markDirty(StartupComponent startupComponent) {
+        if (startupComponent.isSatisfied()) {
+            return;
+        }
+
+        dirtyComponentNames.add(startupComponent.getName());
+        Runnable listener = dirtyComponentListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
     /**
      * Returns a list of {@code StartupComponent}s based on the given {@code Predicate}.
      * <p>
@@ -234,6 +386,16 @@ class StartupComponentManager {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns whether any of the components is not yet satisfied, or is satisfied but its listener has not returned
+     * yet.
+     *
+     * @return true if there are pending components, false otherwise
+     */
+    boolean hasPendingComponents() {
+        return pendingComponentCount.get() > 0;
+    }
+
     /**
      * Returns the pending OSGi Service of type {@code CapabilityProvider}.
      *
@@ -247,8 +409,44 @@ class StartupComponentManager {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Notifies all the satisfiable components by scanning every component.
+     */
     void notifySatisfiableComponents() {
-        getComponents(StartupComponent::isSatisfiable)
+        // Components dirtied after this point are picked up either by this scan or by the next check.
+        dirtyComponentNames.clear();
+        notifyComponents(getComponents(StartupComponent::isSatisfiable));
+    }
+
+    /**
+     * Notifies the satisfiable components out of the components which were marked as dirty since the last check.
+     */
+    void notifyDirtyComponents() {
+        List<StartupComponent> satisfiableComponents = new ArrayList<>();
+        Iterator<String> iterator = dirtyComponentNames.iterator();
+        while (iterator.hasNext()) {
+            StartupComponent startupComponent = startupComponentMap.get(iterator.next());
+            iterator.remove();
+            if (startupComponent != null && startupComponent.isSatisfiable()) {
+                satisfiableComponents.add(startupComponent);
+            }
+        }
+        notifyComponents(satisfiableComponents);
+    }
+
+    /**
+     * Notifies the given satisfiable components.
+     * <p>
+     * All the given components are marked as satisfied before notifying any of them. If a
+     * {@code listenerNotificationExecutor} is set, the listeners are submitted to it and this method returns without
+     * waiting for them. Hence a slow listener neither holds the lock of the caller nor delays the components which
+     * become satisfiable while it runs. Once a listener returns, the dirty component listener is invoked, so that the
+     * startup completion is checked.
+     *
+     * @param satisfiableComponents the components to be notified
+     */
+    private void notifyComponents(List<StartupComponent> satisfiableComponents) {
+        satisfiableComponents
                 .forEach(startupComponent -> {
 
                     if (logger.isDebugEnabled()) {
@@ -260,14 +458,48 @@ class StartupComponentManager {
                     }
 
                     startupComponent.setSatisfied(true);
-                    RequiredCapabilityListener capabilityListener = startupComponent.getListener();
+                });
+
+        ExecutorService executor = listenerNotificationExecutor;
+        for (StartupComponent startupComponent : satisfiableComponents) {
+            if (executor == null) {
+                notifyListener(startupComponent);
+                continue;
+            }
 
-                    try {
-                        capabilityListener.onAllRequiredCapabilitiesAvailable();
-                    } catch (RuntimeException e) {
-                        logger.error("Runtime Exception occurred while calling onAllRequiredCapabilitiesAvailable of "
-                                + "component " + startupComponent.getName(), e);
+            try {
+                executor.execute(() -> {
+                    notifyListener(startupComponent);
+                    Runnable listener = dirtyComponentListener;
+                    if (listener != null) {
+                        listener.run();
                     }
                 });
+            } catch (RejectedExecutionException e) {
+                logger.debug("Listener notification executor is shut down, therefore notifying component {} in the " +
+                        "calling thread", startupComponent.getName());
+                notifyListener(startupComponent);
+            }
+        }
+    }
+
+    private void notifyListener(StartupComponent startupComponent) {
+        RequiredCapabilityListener capabilityListener = startupComponent.getListener();
+        StartupTimeline timeline = startupTimeline;
+        if (timeline != null) {
+            timeline.recordNotificationStarted(startupComponent.getName(), System.nanoTime());
+        }
+
+        try {
+            capabilityListener.onAllRequiredCapabilitiesAvailable();
+        } catch (RuntimeException e) {
+            logger.error("Runtime Exception occurred while calling onAllRequiredCapabilitiesAvailable of "
+                    + "component " + startupComponent.getName(), e);
+        } finally {
+            if (timeline != null) {
+                timeline.recordNotificationFinished(startupComponent.getName(), System.nanoTime());
+            }
+            pendingComponentCount.decrementAndGet();
+        }
     }
 }
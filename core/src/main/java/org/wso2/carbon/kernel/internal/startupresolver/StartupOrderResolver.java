@@ -27,23 +27,30 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.carbon.kernel.CarbonRuntime;
 import org.wso2.carbon.kernel.config.model.CarbonConfiguration;
+import org.wso2.carbon.kernel.config.model.StartupResolverConfig;
 import org.wso2.carbon.kernel.internal.CarbonStartupHandler;
+import org.wso2.carbon.kernel.internal.DataHolder;
 import org.wso2.carbon.kernel.internal.startupresolver.beans.StartupComponent;
 import org.wso2.carbon.kernel.startupresolver.manifest.ManifestElement;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 import java.util.Timer;
 import java.util.TimerTask;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.wso2.carbon.kernel.internal.startupresolver.StartupOrderResolverUtils.capabilityProviderElementPredicate;
 import static org.wso2.carbon.kernel.internal.startupresolver.StartupOrderResolverUtils.logPendingCapabilityProviderServiceDetails;
 import static org.wso2.carbon.kernel.internal.startupresolver.StartupOrderResolverUtils.logPendingComponentDetails;
 import static org.wso2.carbon.kernel.internal.startupresolver.StartupOrderResolverUtils.logPendingRequiredCapabilityListenerServiceDetails;
 import static org.wso2.carbon.kernel.internal.startupresolver.StartupOrderResolverUtils.requiredCapabilityListenerElementPredicate;
+import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverConstants.MANIFEST_ELEMENT_CACHE_FILE;
 import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverConstants.OSGI_SERVICE_COMPONENT;
 import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverConstants.STARTUP_LISTENER_COMPONENT;
 
@@ -74,12 +81,27 @@ public class StartupOrderResolver {
 
     private OSGiServiceCapabilityTracker osgiServiceTracker;
 
-    private Timer capabilityListenerTimer = new Timer();
+    private volatile Timer capabilityListenerTimer = new Timer();
 
     private Timer pendingCapabilityTimer = new Timer();
 
+    private final AtomicBoolean dirtyComponentCheckPending = new AtomicBoolean();
+
+    private ExecutorService listenerNotificationExecutor;
+
+    private StartupTimeline startupTimeline;
+
     private CarbonRuntime carbonRuntime;
 
+    private CarbonConfiguration carbonConfiguration;
+
+    private BundleContext bundleContext;
+
+    private DynamicStartupOrderResolver dynamicStartupOrderResolver;
+
+    // Bundles whose Carbon-Component headers are processed during the startup.
+    private List<Bundle> processedBundles;
+
     /**
      * Process Provide-Capability headers and populate a counter which keep all the expected service counts. Register
      * timers to track the service availability as well as pending service registrations.
@@ -93,17 +115,38 @@ public class StartupOrderResolver {
     public void start(BundleContext bundleContext) throws Exception {
         try {
             logger.debug("Initialize - Startup Order Resolver.");
+            carbonConfiguration = carbonRuntime.getConfiguration();
+            this.bundleContext = bundleContext;
+
+            if (carbonConfiguration.getStartupResolverConfig().isLogCriticalPath() || logger.isDebugEnabled()) {
+                startupTimeline = new StartupTimeline(System.nanoTime());
+                startupComponentManager.setStartupTimeline(startupTimeline);
+            }
 
-            // 1) Process OSGi manifest headers to calculate the expected list required capabilities.
-            processManifestHeaders(Arrays.asList(bundleContext.getBundles()));
+            // 1) Get notified when startup components report OSGi services to the StartupServiceCache, which may have
+            // been released by a previous activation of this resolver.
+            StartupServiceCache.getInstance().reset();
+            StartupServiceCache.getInstance().setUpdateListener(startupComponentManager::updateServiceCache);
 
-            // 2) Register capability trackers to get notified when required capabilities are available.
+            // 2) Process OSGi manifest headers to calculate the expected list required capabilities.
+            processedBundles = Arrays.asList(bundleContext.getBundles());
+            processManifestHeaders(processedBundles,
+                    createManifestElementCache(bundleContext));
+
+            // 3) Get notified when capability tracker events make startup components satisfiable.
+            if (carbonConfiguration.getStartupResolverConfig().isEventDrivenNotification()) {
+                startupComponentManager.setDirtyComponentListener(this::scheduleDirtyComponentCheck);
+            }
+            createListenerNotificationExecutor();
+
+            // 4) Register capability trackers to get notified when required capabilities are available.
             startCapabilityTrackers();
 
-            // 3) Schedule a time task to check for startup components with zero pending required capabilities.
+            // 5) Schedule a time task to check for startup components with zero pending required capabilities.
+            // In the event driven mode, this periodic check acts as a fallback.
             scheduleCapabilityListenerTimer();
 
-            // 4) Start a timer task to track pending capabilities, pending CapabilityProvider services,
+            // 6) Start a timer task to track pending capabilities, pending CapabilityProvider services,
             // pending RequiredCapabilityLister services.
             schedulePendingCapabilityTimerTask();
         } catch (Throwable e) {
@@ -113,6 +156,10 @@ public class StartupOrderResolver {
 
     @Deactivate
     public void stop(BundleContext bundleContext) throws Exception {
+        if (dynamicStartupOrderResolver != null) {
+            dynamicStartupOrderResolver.stop();
+            dynamicStartupOrderResolver = null;
+        }
         logger.debug("Deactivating startup resolver component available in bundle {}",
                 bundleContext.getBundle().getSymbolicName());
     }
@@ -141,73 +188,211 @@ public class StartupOrderResolver {
      * <p>
      * Process Provide-Capability headers to get a list of CapabilityProviders and RequiredCapabilityListeners.
      *
-     * @param bundleList list of bundles to be scanned for Provide-Capability headers.
+     * @param bundleList           list of bundles to be scanned for Provide-Capability headers.
+     * @param manifestElementCache cache of the parsed headers, or null if the headers should always be parsed.
      */
-    private void processManifestHeaders(List<Bundle> bundleList) {
-        Map<String, List<ManifestElement>> groupedManifestElements =
-                bundleList.stream()
-                        // Filter out all the bundles with the Carbon-Component manifest header.
-                        .filter(StartupOrderResolverUtils::isCarbonComponentHeaderPresent)
-                        // Process filtered manifest headers and get a list of ManifestElements.
-                        .map(StartupOrderResolverUtils::getManifestElements)
-                        // Merge all the manifest elements lists into a single list.
-                        .flatMap(Collection::stream)
-                        // Partition all the ManifestElements with the manifest header name.
-                        .collect(Collectors.groupingBy(ManifestElement::getValue));
-
-        if (groupedManifestElements.get(STARTUP_LISTENER_COMPONENT) != null) {
-            processServiceComponents(groupedManifestElements);
+    private void processManifestHeaders(List<Bundle> bundleList, ManifestElementCache manifestElementCache) {
+        // Read and parse the Carbon-Component headers of all the bundles in parallel.
+        List<ManifestElement> manifestElements;
+        if (manifestElementCache != null) {
+            manifestElements = StartupOrderResolverUtils.getManifestElements(bundleList,
+                    manifestElementCache::getManifestElements);
+            manifestElementCache.save();
+        } else {
+            manifestElements = StartupOrderResolverUtils.getManifestElements(bundleList);
         }
 
-        if (groupedManifestElements.get(OSGI_SERVICE_COMPONENT) != null) {
-            processCapabilityProviders(groupedManifestElements.get(OSGI_SERVICE_COMPONENT));
-            processOSGiServices(groupedManifestElements.get(OSGI_SERVICE_COMPONENT));
+        processManifestElements(startupComponentManager, manifestElements);
+    }
+
+    /**
+     * Processes the given Carbon-Component manifest elements and populates the given {@code StartupComponentManager}.
+     * <p>
+     * ManifestElements are partitioned by the manifest header name, preserving the bundle order.
+     *
+     * @param startupComponentManager the manager to which the startup components and capabilities are added
+     * @param manifestElements        the manifest elements to be processed
+     */
+    static void processManifestElements(StartupComponentManager startupComponentManager,
+                                        List<ManifestElement> manifestElements) {
+        List<ManifestElement> startupListenerElements = new ArrayList<>();
+        List<ManifestElement> osgiServiceElements = new ArrayList<>();
+
+        for (ManifestElement manifestElement : manifestElements) {
+            if (STARTUP_LISTENER_COMPONENT.equals(manifestElement.getValue())) {
+                startupListenerElements.add(manifestElement);
+            } else if (OSGI_SERVICE_COMPONENT.equals(manifestElement.getValue())) {
+                osgiServiceElements.add(manifestElement);
+            }
         }
 
+        processServiceComponents(startupComponentManager, startupListenerElements);
+        processCapabilityProviders(startupComponentManager, osgiServiceElements);
+        processOSGiServices(startupComponentManager, osgiServiceElements);
+
         // You can add logic to handle other types of provide capabilities here.
         // e.g. custom manifest headers, config files etc.
     }
 
     /**
-     * Schedule a timer task to monitor satisfiable CapabilityListeners.
+     * Creates the cache of parsed Carbon-Component headers, stored in the persistent data area of the Carbon core
+     * bundle.
+     *
+     * @param bundleContext OSGi bundle context of the Carbon.core bundle
+     * @return the cache, or null if the cache is disabled or the framework does not support a data area
+     */
+    private ManifestElementCache createManifestElementCache(BundleContext bundleContext) {
+        if (!carbonConfiguration.getStartupResolverConfig().isManifestCacheEnabled()) {
+            return null;
+        }
+
+        File cacheFile = bundleContext.getDataFile(MANIFEST_ELEMENT_CACHE_FILE);
+        if (cacheFile == null) {
+            logger.debug("Persistent data area is not available, hence the Carbon-Component headers are not cached");
+            return null;
+        }
+        return ManifestElementCache.load(cacheFile);
+    }
+
+    /**
+     * Creates the executor to notify RequiredCapabilityListeners in parallel, if the configured concurrency is
+     * greater than one.
+     */
+    private void createListenerNotificationExecutor() {
+        int concurrency = carbonConfiguration.getStartupResolverConfig().getListenerNotificationConcurrency();
+        if (concurrency <= 1) {
+            return;
+        }
+
+        logger.debug("Notifying RequiredCapabilityListeners in parallel, concurrency: {}", concurrency);
+        AtomicInteger threadCount = new AtomicInteger();
+        listenerNotificationExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "CarbonStartupListenerNotifier-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        startupComponentManager.setListenerNotificationExecutor(listenerNotificationExecutor);
+    }
+
+    /**
+     * Schedule a timer task to monitor satisfiable CapabilityListeners. If the components are notified on capability
+     * tracker events, this task is only a fallback, hence it runs less often.
      */
     private void scheduleCapabilityListenerTimer() {
-        CarbonConfiguration carbonConfiguration = carbonRuntime.getConfiguration();
-        long capabilityListenerTimerDelay = carbonConfiguration.getStartupResolverConfig().
-                getCapabilityListenerTimer().getDelay();
-        long capabilityListenerTimerPeriod = carbonConfiguration.getStartupResolverConfig().
-                getCapabilityListenerTimer().getPeriod();
+        StartupResolverConfig startupResolverConfig = carbonConfiguration.getStartupResolverConfig();
+        long capabilityListenerTimerDelay = startupResolverConfig.getCapabilityListenerTimer().getDelay();
+        long capabilityListenerTimerPeriod = startupResolverConfig.isEventDrivenNotification() ?
+                startupResolverConfig.getCapabilityListenerTimer().getEventDrivenPeriod() :
+                startupResolverConfig.getCapabilityListenerTimer().getPeriod();
 
         capabilityListenerTimer.scheduleAtFixedRate(new TimerTask() {
 
             @Override
             public void run() {
-                synchronized (StartupComponentManager.class) {
-                    if (startupComponentManager.getComponents(StartupComponent::isPending).size() == 0) {
-                        startupComponentManager.notifySatisfiableComponents();
-
-                        logger.debug("All the StartupComponents are satisfied. Cancelling the capabilityListenerTimer");
+                notifySatisfiableComponents(false);
+            }
+        }, capabilityListenerTimerDelay, capabilityListenerTimerPeriod);
+    }
 
-                        CarbonStartupHandler.logServerStartupTime(carbonConfiguration.getName());
-                        CarbonStartupHandler.registerCarbonServerInfoService();
+    /**
+     * Schedule a one-off timer task to check the startup components which were marked as dirty by capability tracker
+     * events. This task runs in the capabilityListenerTimer thread, hence it never overlaps with the periodic task.
+     * <p>
+     * At most one check is pending at a time. The pending flag is cleared before the check starts, hence the components
+     * marked as dirty while a check runs are picked up by the next check, and a burst of events results in a single
+     * check.
+     */
+    private void scheduleDirtyComponentCheck() {
+        Timer timer = capabilityListenerTimer;
+        if (timer == null || !dirtyComponentCheckPending.compareAndSet(false, true)) {
+            return;
+        }
 
-                        capabilityListenerTimer.cancel();
-                        capabilityListenerTimer = null;
-                        startupComponentManager = null;
-                        stopCapabilityTrackers();
+        try {
+            timer.schedule(new TimerTask() {
 
-                        logger.debug("Complete - Startup Order Resolver.");
-                        return;
-                    }
+                @Override
+                public void run() {
+                    dirtyComponentCheckPending.set(false);
+                    notifySatisfiableComponents(true);
                 }
+            }, 0);
+        } catch (IllegalStateException e) {
+            dirtyComponentCheckPending.set(false);
+            logger.debug("The capabilityListenerTimer is already cancelled, therefore skipping the check");
+        }
+    }
 
+    /**
+     * Notifies the satisfiable startup components and completes the startup once all of them are satisfied.
+     *
+     * @param dirtyComponentsOnly whether to check only the components marked as dirty by capability tracker events.
+     */
+    private void notifySatisfiableComponents(boolean dirtyComponentsOnly) {
+        synchronized (StartupComponentManager.class) {
+            if (startupComponentManager == null) {
+                return;
+            }
+
+            if (dirtyComponentsOnly) {
+                startupComponentManager.notifyDirtyComponents();
+            } else {
                 startupComponentManager.notifySatisfiableComponents();
             }
-        }, capabilityListenerTimerDelay, capabilityListenerTimerPeriod);
+
+            if (!startupComponentManager.hasPendingComponents()) {
+                logger.debug("All the StartupComponents are satisfied. Cancelling the capabilityListenerTimer");
+
+                logCriticalPath();
+                // The runtimes are warmed up outside this lock, and the server is reported to be started once the
+                // warm-up completes. This happens right away if no warm-up is in progress.
+                String serverName = carbonConfiguration.getName();
+                DataHolder.getInstance().getRuntimeWarmUp().whenComplete((warmedUp, throwable) -> {
+                    CarbonStartupHandler.logServerStartupTime(serverName);
+                    CarbonStartupHandler.registerCarbonServerInfoService();
+                });
+
+                capabilityListenerTimer.cancel();
+                capabilityListenerTimer = null;
+                startupComponentManager.setDirtyComponentListener(null);
+                StartupServiceCache.getInstance().setUpdateListener(null);
+                if (listenerNotificationExecutor != null) {
+                    listenerNotificationExecutor.shutdown();
+                    listenerNotificationExecutor = null;
+                }
+                stopCapabilityTrackers();
+
+                if (carbonConfiguration.getStartupResolverConfig().isDynamicResolution()) {
+                    // Keep the StartupServiceCache, since the components installed later report their services.
+                    dynamicStartupOrderResolver = new DynamicStartupOrderResolver(bundleContext);
+                    dynamicStartupOrderResolver.start(processedBundles,
+                            startupComponentManager.getComponents(component -> true));
+                } else {
+                    StartupServiceCache.getInstance().release();
+                }
+                startupComponentManager = null;
+                processedBundles = null;
+
+                logger.debug("Complete - Startup Order Resolver.");
+            }
+        }
+    }
+
+    private void logCriticalPath() {
+        if (startupTimeline == null) {
+            return;
+        }
+
+        if (carbonConfiguration.getStartupResolverConfig().isLogCriticalPath()) {
+            logger.info(startupTimeline.getCriticalPathReport());
+        } else {
+            logger.debug(startupTimeline.getCriticalPathReport());
+        }
+        startupComponentManager.setStartupTimeline(null);
+        startupTimeline = null;
     }
 
     private void schedulePendingCapabilityTimerTask() {
-        CarbonConfiguration carbonConfiguration = carbonRuntime.getConfiguration();
         long pendingCapabilityTimerDelay = carbonConfiguration.getStartupResolverConfig().
                 getPendingCapabilityTimer().getDelay();
         long pendingCapabilityTimerPeriod = carbonConfiguration.getStartupResolverConfig().
@@ -254,8 +439,9 @@ public class StartupOrderResolver {
         }, pendingCapabilityTimerDelay, pendingCapabilityTimerPeriod);
     }
 
-    private void processServiceComponents(Map<String, List<ManifestElement>> groupedManifestElements) {
-        groupedManifestElements.get(STARTUP_LISTENER_COMPONENT)
+    private static void processServiceComponents(StartupComponentManager startupComponentManager,
+                                                 List<ManifestElement> manifestElementList) {
+        manifestElementList
                 .stream()
                 .map(StartupOrderResolverUtils::getStartupComponent)
                 .forEach(startupComponentManager::addStartupComponent);
@@ -266,16 +452,19 @@ public class StartupOrderResolver {
      * <p>
      * At the moment this methods process manifest elements with the namespace osgi.service.
      *
-     * @param manifestElementList manifest elements by the header name.
+     * @param startupComponentManager the manager to which the capabilities are added.
+     * @param manifestElementList     manifest elements by the header name.
      */
-    private void processOSGiServices(List<ManifestElement> manifestElementList) {
+    private static void processOSGiServices(StartupComponentManager startupComponentManager,
+                                            List<ManifestElement> manifestElementList) {
         manifestElementList
                 .stream()
                 .filter(capabilityProviderElementPredicate.negate().and(
                         requiredCapabilityListenerElementPredicate.negate()))
                 // Creating a Capability from the manifestElement
-                .map(StartupOrderResolverUtils::getOSGiServiceCapabilities)
-                .flatMap(Collection::stream)
+                .map(StartupOrderResolverUtils::getOSGiServiceCapability)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
                 .forEach(serviceCapability -> {
                     if (!serviceCapability.getRequiredByComponentNames().isEmpty()) {
                         serviceCapability.getRequiredByComponentNames()
@@ -290,9 +479,11 @@ public class StartupOrderResolver {
     }
 
     /**
-     * @param manifestElementList A list of {@code ManifestElement}
+     * @param startupComponentManager the manager to which the capability providers are added
+     * @param manifestElementList     A list of {@code ManifestElement}
      */
-    private void processCapabilityProviders(List<ManifestElement> manifestElementList) {
+    private static void processCapabilityProviders(StartupComponentManager startupComponentManager,
+                                                   List<ManifestElement> manifestElementList) {
         manifestElementList.stream()
                 .filter(capabilityProviderElementPredicate)
                 .map(StartupOrderResolverUtils::getCapabilityProviderCapability)
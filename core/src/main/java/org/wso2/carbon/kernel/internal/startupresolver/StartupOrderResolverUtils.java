@@ -33,9 +33,16 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverConstants.CAPABILITY_NAME;
 import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverConstants.CAPABILITY_NAME_SPLIT_CHAR;
@@ -68,11 +75,6 @@ class StartupOrderResolverUtils {
             manifestElement -> RequiredCapabilityListener.class.getName().equals(
                     getObjectClassName(manifestElement));
 
-    static Boolean isCarbonComponentHeaderPresent(Bundle bundle) {
-        return AccessController.doPrivileged((PrivilegedAction<Boolean>) () ->
-                bundle.getHeaders().get(CARBON_COMPONENT_HEADER) != null);
-    }
-
     /**
      * Creates {@code ManifestElement} instances from CARBON_COMPONENT_HEADER in the given bundle.
      *
@@ -80,9 +82,29 @@ class StartupOrderResolverUtils {
      * @return the created list of {@code ManifestElement} instances
      */
     static List<ManifestElement> getManifestElements(Bundle bundle) {
-        String headerValue = AccessController.doPrivileged((PrivilegedAction<String>) () ->
+        return getManifestElements(bundle, getCarbonComponentHeader(bundle));
+    }
+
+    /**
+     * Returns the value of the CARBON_COMPONENT_HEADER in the given bundle.
+     *
+     * @param bundle from the which the header value should retrieved.
+     * @return the header value, or null if the bundle does not have the header
+     */
+    static String getCarbonComponentHeader(Bundle bundle) {
+        return AccessController.doPrivileged((PrivilegedAction<String>) () ->
                 bundle.getHeaders().get(CARBON_COMPONENT_HEADER));
+    }
 
+    /**
+     * Creates {@code ManifestElement} instances from the given value of the CARBON_COMPONENT_HEADER in the given
+     * bundle.
+     *
+     * @param bundle      the bundle in which the header resides
+     * @param headerValue the header value, or null if the bundle does not have the header
+     * @return the created list of {@code ManifestElement} instances
+     */
+    static List<ManifestElement> getManifestElements(Bundle bundle, String headerValue) {
         try {
             return ManifestElement.parseHeader(CARBON_COMPONENT_HEADER, headerValue, bundle);
         } catch (ManifestElementParserException e) {
@@ -92,6 +114,70 @@ class StartupOrderResolverUtils {
         }
     }
 
+    /**
+     * Creates {@code ManifestElement} instances from CARBON_COMPONENT_HEADER in all the given bundles.
+     * <p>
+     * Headers are read and parsed in parallel, using a thread pool which lives only during this method call. The
+     * threads of this pool inherit the access control context of the calling thread. The returned elements are in the
+     * order of the given bundles, and in the order of declaration within a bundle.
+     *
+     * @param bundleList bundles from which the header values should retrieved.
+     * @return the created list of {@code ManifestElement} instances
+     */
+    static List<ManifestElement> getManifestElements(List<Bundle> bundleList) {
+        return getManifestElements(bundleList, StartupOrderResolverUtils::getManifestElements);
+    }
+
+    /**
+     * Retrieves {@code ManifestElement} instances of all the given bundles in parallel, using the given function to
+     * retrieve the elements of a single bundle, e.g. from a {@code ManifestElementCache}.
+     *
+     * @param bundleList               bundles from which the header values should retrieved.
+     * @param manifestElementsFunction function which returns the {@code ManifestElement} instances of a bundle
+     * @return the created list of {@code ManifestElement} instances
+     */
+    static List<ManifestElement> getManifestElements(List<Bundle> bundleList,
+                                                     Function<Bundle, List<ManifestElement>> manifestElementsFunction) {
+        int parallelism = Math.min(Runtime.getRuntime().availableProcessors(), bundleList.size());
+        List<ManifestElement> manifestElements = new ArrayList<>();
+        if (parallelism <= 1) {
+            bundleList.forEach(bundle -> manifestElements.addAll(manifestElementsFunction.apply(bundle)));
+            return manifestElements;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "CarbonStartupManifestReader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Callable<List<ManifestElement>>> readTasks = bundleList.stream()
+                    .map(bundle -> (Callable<List<ManifestElement>>) () -> manifestElementsFunction.apply(bundle))
+                    .collect(Collectors.toList());
+            for (Future<List<ManifestElement>> future : executor.invokeAll(readTasks)) {
+                manifestElements.addAll(future.get());
+            }
+            return manifestElements;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StartOrderResolverException("Interrupted while reading " + CARBON_COMPONENT_HEADER +
+                    " headers", e);
+        } catch (ExecutionException e) {
+            // Rethrow the failure of the read task as it is, e.g. a StartOrderResolverException for an invalid header.
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new StartOrderResolverException("Error occurred while reading " + CARBON_COMPONENT_HEADER +
+                    " headers", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Create a {@code StartupComponent} from he manifest element.
      *
@@ -141,7 +227,14 @@ class StartupOrderResolverUtils {
                 manifestElement.getBundle());
     }
 
-    static List<OSGiServiceCapability> getOSGiServiceCapabilities(ManifestElement manifestElement) {
+    /**
+     * Creates the OSGi service capability of the given manifest element. A single capability represents all the
+     * services declared with the serviceCount manifest attribute.
+     *
+     * @param manifestElement the osgi.service manifest element
+     * @return the capability, or an empty {@code Optional} if the serviceCount is not positive
+     */
+    static Optional<OSGiServiceCapability> getOSGiServiceCapability(ManifestElement manifestElement) {
         // Get the value of the serviceCount manifest attribute, if any. Default value is 1.
         int serviceCount = getNonEmptyStringAfterTrim(manifestElement.getAttribute(SERVICE_COUNT))
                 .map(serviceCountStr -> {
@@ -155,38 +248,36 @@ class StartupOrderResolverUtils {
                 })
                 .orElse(1);
 
-        // Create specified number of OSGi service components and adding them to a list.
-        List<OSGiServiceCapability> osgiServiceCapabilityList = new ArrayList<>(serviceCount);
-        IntStream.range(0, serviceCount)
-                .forEach(count -> {
-                    OSGiServiceCapability osgiServiceCapability = new OSGiServiceCapability(
-                            getObjectClassName(manifestElement),
-                            Capability.CapabilityType.OSGi_SERVICE,
-                            Capability.CapabilityState.EXPECTED,
-                            manifestElement.getBundle(),
-                            true);
-
-                    // Check whether requiredByComponent property is specified.
-                    getNonEmptyStringAfterTrim(manifestElement.getAttribute(REQUIRED_BY_COMPONENT_NAME))
-                            .ifPresent(requiredByComponentNameStr -> {
-                                        osgiServiceCapability.setDirectDependency(false);
-                                        addRequiredByComponentNames(osgiServiceCapability, requiredByComponentNameStr);
-                                    }
-
-                            );
-
-                    // Check whether dependentComponentName property is specified. Backward compatibility.
-                    getNonEmptyStringAfterTrim(manifestElement.getAttribute(DEPENDENT_COMPONENT_NAME))
-                            .ifPresent(requiredByComponentNameStr -> {
-                                        osgiServiceCapability.setDirectDependency(false);
-                                        addRequiredByComponentNames(osgiServiceCapability, requiredByComponentNameStr);
-                                    }
-                            );
-
-                    osgiServiceCapabilityList.add(osgiServiceCapability);
-                });
+        if (serviceCount <= 0) {
+            return Optional.empty();
+        }
 
-        return osgiServiceCapabilityList;
+        OSGiServiceCapability osgiServiceCapability = new OSGiServiceCapability(
+                getObjectClassName(manifestElement),
+                Capability.CapabilityType.OSGi_SERVICE,
+                Capability.CapabilityState.EXPECTED,
+                manifestElement.getBundle(),
+                true);
+        osgiServiceCapability.setCount(serviceCount);
+
+        // Check whether requiredByComponent property is specified.
+        getNonEmptyStringAfterTrim(manifestElement.getAttribute(REQUIRED_BY_COMPONENT_NAME))
+                .ifPresent(requiredByComponentNameStr -> {
+                            osgiServiceCapability.setDirectDependency(false);
+                            addRequiredByComponentNames(osgiServiceCapability, requiredByComponentNameStr);
+                        }
+
+                );
+
+        // Check whether dependentComponentName property is specified. Backward compatibility.
+        getNonEmptyStringAfterTrim(manifestElement.getAttribute(DEPENDENT_COMPONENT_NAME))
+                .ifPresent(requiredByComponentNameStr -> {
+                            osgiServiceCapability.setDirectDependency(false);
+                            addRequiredByComponentNames(osgiServiceCapability, requiredByComponentNameStr);
+                        }
+                );
+
+        return Optional.of(osgiServiceCapability);
     }
 
     static void logPendingComponentDetails(Logger logger, List<StartupComponent> pendingComponents) {
@@ -246,18 +337,19 @@ class StartupOrderResolverUtils {
                                                     Capability provideCapability) {
         if (provideCapability.getState() == Capability.CapabilityState.EXPECTED) {
             logger.warn("Startup component {} from bundle({}:{}) is in the " +
-                            "pending state until Capability {} from " +
+                            "pending state until Capability {} (count: {}) from " +
                             "bundle({}:{}) is available as an OSGi service. Refer the Startup Order " +
                             "Resolver documentation for information.",
                     startupComponent.getName(),
                     startupComponent.getBundle().getSymbolicName(),
                     startupComponent.getBundle().getVersion(),
                     provideCapability.getName(),
+                    provideCapability.getCount(),
                     provideCapability.getBundle().getSymbolicName(),
                     provideCapability.getBundle().getVersion());
         } else {
             logger.warn("Startup component {} from bundle({}:{}) is in the " +
-                            "pending state, because of the Capability {} from " +
+                            "pending state, because of the Capability {} (count: {}) from " +
                             "bundle({}:{}). If you've registered this capability as an OSGi service, you need to " +
                             "declare it using the Carbon-Component manifest header. Refer the Startup Order " +
                             "Resolver documentation for information.",
@@ -265,6 +357,7 @@ class StartupOrderResolverUtils {
                     startupComponent.getBundle().getSymbolicName(),
                     startupComponent.getBundle().getVersion(),
                     provideCapability.getName(),
+                    provideCapability.getCount(),
                     provideCapability.getBundle().getSymbolicName(),
                     provideCapability.getBundle().getVersion());
         }
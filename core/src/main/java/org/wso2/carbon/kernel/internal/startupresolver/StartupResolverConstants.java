@@ -36,6 +36,7 @@ class StartupResolverConstants {
     static final String OBJECT_CLASS = "objectClass";
     static final String CAPABILITY_NAME_SPLIT_CHAR = ",";
     static final String REQUIRED_SERVICE = "requiredService";
+    static final String MANIFEST_ELEMENT_CACHE_FILE = "carbon-component-manifest.cache";
 
 
     private StartupResolverConstants() {
@@ -19,14 +19,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
  * StartupServiceCache caches all the startup services against the component name.
  * Component name is taken from ${@link org.wso2.carbon.kernel.startupresolver.RequiredCapabilityListener}
  * and interface name of the services.
+ * <p>
+ * This implementation is lock-free. Service counts are kept in {@link AtomicLong}s, hence
+ * {@link #getServiceCount(String, String)} can be used without allocating memory.
  *
  * @since 5.2.0
  */
@@ -36,10 +41,21 @@ public class StartupServiceCache {
     private static StartupServiceCache serviceCacheInstance = new StartupServiceCache();
 
     /*
-    The internal map contains interface name (OSGi service class) against a list of implementation objects. The outer
+    The internal map contains interface name (OSGi service class) against the number of reported services. The outer
     map has the mapping between the component name and the internal map.
      */
-    private Map<String, Map<String, Long>> componentMap = new HashMap<>();
+    private final Map<String, Map<String, AtomicLong>> componentMap = new ConcurrentHashMap<>();
+
+    /*
+    Invoked with the component name and the interface name whenever a component reports a new OSGi service, so that
+    the startup order resolver can update only that component.
+     */
+    private volatile BiConsumer<String, String> updateListener;
+
+    /*
+    Indicates whether the cached service counts are released, once the startup order resolver no longer needs them.
+     */
+    private volatile boolean released = false;
 
     public static StartupServiceCache getInstance() {
         return serviceCacheInstance;
@@ -50,50 +66,102 @@ public class StartupServiceCache {
 
     /**
      * This method updates the StartupServiceCache with the provided information.
+     * <p>
+     * Updates are ignored once the cache is released, until the startup order resolver starts again.
      *
      * @param componentName name of the reporting component
      * @param interfaceName name of the OSGi service interface
      */
     public void update(String componentName, Class interfaceName) {
+        if (released) {
+            logger.debug("StartupServiceCache is already released, therefore ignoring the update, componentName={}, " +
+                    "interfaceName={}.", componentName, interfaceName.getName());
+            return;
+        }
+
         logger.debug("Updating StartupServiceCache, componentName={}, interfaceName={}.",
                 componentName, interfaceName.getName());
 
-        synchronized (componentMap) {
-            Map<String, Long> componentServicesMap = componentMap.get(componentName);
-            if (componentServicesMap == null) {
-                logger.debug("Creating a Component Services Map for component {}", componentName);
-                componentServicesMap = new HashMap<>();
-                componentMap.put(componentName, componentServicesMap);
-            }
-
-            Long serviceCount = componentServicesMap.get(interfaceName.getName());
-            if (serviceCount == null) {
-                logger.debug("Creating a Service Instance List for interface {} in component {}",
-                        interfaceName, componentName);
-                serviceCount = 1L;
-            } else {
-                serviceCount++;
-            }
-            componentServicesMap.put(interfaceName.getName(), serviceCount);
+        componentMap.computeIfAbsent(componentName, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(interfaceName.getName(), key -> new AtomicLong())
+                .incrementAndGet();
+
+        BiConsumer<String, String> listener = updateListener;
+        if (listener != null) {
+            listener.accept(componentName, interfaceName.getName());
         }
     }
 
+    /**
+     * Sets the listener which gets notified with the component name and the interface name, whenever this cache is
+     * updated.
+     *
+     * @param updateListener the listener, or null to remove the current listener
+     */
+    void setUpdateListener(BiConsumer<String, String> updateListener) {
+        this.updateListener = updateListener;
+    }
+
+    /**
+     * Removes the service counts reported by the given component. This method is invoked when the bundle of the
+     * component is stopped for an update or a refresh, hence the component reports its services again.
+     *
+     * @param componentName name of the reporter component
+     */
+    void remove(String componentName) {
+        logger.debug("Removing the services reported by component {} from the StartupServiceCache", componentName);
+        componentMap.remove(componentName);
+    }
+
+    /**
+     * Releases the cached service counts. This method is invoked once all the startup listener components are
+     * satisfied, hence the service counts are no longer required.
+     */
+    void release() {
+        logger.debug("Releasing the StartupServiceCache");
+        released = true;
+        componentMap.clear();
+    }
+
+    /**
+     * Accepts the updates again, after the cache has been released. This method is invoked whenever the startup order
+     * resolver starts, since a resolver which is reactivated, e.g. when the kernel bundle is refreshed, waits for the
+     * services reported by the components again.
+     */
+    void reset() {
+        logger.debug("Resetting the StartupServiceCache");
+        released = false;
+    }
+
     /**
      * This method provides a map of OSGi services and service count for the given {@code componentName}.
      *
      * @param componentName name of the reporter component
-     * @return a list of reported OSGi service names
+     * @return a copy of the reported OSGi service names and service counts
      */
     public Map<String, Long> getAvailableService(String componentName) {
-        synchronized (componentMap) {
-            Map<String, Long> availableServices = componentMap.get(componentName);
-            if (availableServices == null) {
-                return Collections.emptyMap();
-            }
-            return availableServices.entrySet()
-                    .stream()
-                    .collect(Collectors.toMap(Map.Entry::getKey,
-                            stringLongEntry -> Long.valueOf(stringLongEntry.getValue())));
+        Map<String, AtomicLong> availableServices = componentMap.get(componentName);
+        if (availableServices == null) {
+            return Collections.emptyMap();
+        }
+        return availableServices.entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get()));
+    }
+
+    /**
+     * Returns the number of OSGi services of the given interface reported by the given component.
+     *
+     * @param componentName name of the reporter component
+     * @param interfaceName name of the OSGi service interface
+     * @return the number of reported OSGi services
+     */
+    public long getServiceCount(String componentName, String interfaceName) {
+        Map<String, AtomicLong> availableServices = componentMap.get(componentName);
+        if (availableServices == null) {
+            return 0;
         }
+        AtomicLong serviceCount = availableServices.get(interfaceName);
+        return serviceCount == null ? 0 : serviceCount.get();
     }
 }
@@ -0,0 +1,261 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.osgi.framework.Bundle;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StartupTimeline records the monotonic timestamps of the startup order resolver events and computes the critical path
+ * through the startup listener components.
+ * <p>
+ * Following events are recorded per startup listener component.
+ * 1) A required capability becoming available, e.g. an EXPECTED capability going to the AVAILABLE state.
+ * 2) The {@code RequiredCapabilityListener} OSGi service getting registered.
+ * 3) The {@code onAllRequiredCapabilitiesAvailable} method invocation starting and finishing.
+ * <p>
+ * A component can be notified only after its listener is registered and its last required capability is available.
+ * The latest of these two events is the one which held the component back. If that is a capability, it is attributed
+ * to the startup listener component in the providing bundle, which was notified before the capability became
+ * available. The critical path is built by following these attributions backwards from the component which
+ * finished last.
+ *
+ * @since 5.2.0
+ */
+class StartupTimeline {
+
+    private final long startTime;
+
+    private final Map<String, ComponentTimeline> componentTimelineMap = new ConcurrentHashMap<>();
+
+    StartupTimeline(long startTime) {
+        this.startTime = startTime;
+    }
+
+    /**
+     * Records the time at which a required capability of the given component became available.
+     *
+     * @param componentName  name of the startup listener component
+     * @param capabilityName name of the capability
+     * @param bundle         the bundle which provides the capability, or null if it is not known
+     * @param time           value of {@code System.nanoTime()} at which the capability became available
+     */
+    void recordCapabilityAvailable(String componentName, String capabilityName, Bundle bundle, long time) {
+        ComponentTimeline timeline = getComponentTimeline(componentName);
+        synchronized (timeline) {
+            if (timeline.capabilityName == null || time >= timeline.capabilityAvailableTime) {
+                // Keep the bundle already known for the same capability, e.g. from an OSGi service event, when the
+                // capability is reported again without its bundle.
+                if (bundle != null || !capabilityName.equals(timeline.capabilityName)) {
+                    timeline.capabilityBundle = bundle;
+                }
+                timeline.capabilityName = capabilityName;
+                timeline.capabilityAvailableTime = time;
+            }
+        }
+    }
+
+    /**
+     * Records the time at which the {@code RequiredCapabilityListener} of the given component was registered.
+     *
+     * @param componentName name of the startup listener component
+     * @param bundle        the bundle in which the startup listener component resides
+     * @param time          value of {@code System.nanoTime()} at which the listener was registered
+     */
+    void recordListenerRegistered(String componentName, Bundle bundle, long time) {
+        ComponentTimeline timeline = getComponentTimeline(componentName);
+        synchronized (timeline) {
+            timeline.bundle = bundle;
+            timeline.listenerRegisteredTime = time;
+        }
+    }
+
+    /**
+     * Records the time at which the {@code onAllRequiredCapabilitiesAvailable} method of the given component was
+     * invoked.
+     *
+     * @param componentName name of the startup listener component
+     * @param time          value of {@code System.nanoTime()} at which the method was invoked
+     */
+    void recordNotificationStarted(String componentName, long time) {
+        ComponentTimeline timeline = getComponentTimeline(componentName);
+        synchronized (timeline) {
+            timeline.notificationStartTime = time;
+        }
+    }
+
+    /**
+     * Records the time at which the {@code onAllRequiredCapabilitiesAvailable} method of the given component returned.
+     *
+     * @param componentName name of the startup listener component
+     * @param time          value of {@code System.nanoTime()} at which the method returned
+     */
+    void recordNotificationFinished(String componentName, long time) {
+        ComponentTimeline timeline = getComponentTimeline(componentName);
+        synchronized (timeline) {
+            timeline.notificationEndTime = time;
+            timeline.notified = true;
+        }
+    }
+
+    /**
+     * Returns the critical path, starting from the component which was notified first.
+     *
+     * @return the list of startup listener component names in the critical path
+     */
+    List<String> getCriticalPath() {
+        List<String> criticalPath = new ArrayList<>();
+        Set<String> visitedComponents = new HashSet<>();
+        String componentName = getLastFinishedComponent();
+
+        while (componentName != null && visitedComponents.add(componentName)) {
+            criticalPath.add(0, componentName);
+            componentName = getBlockingComponent(componentName);
+        }
+        return criticalPath;
+    }
+
+    /**
+     * Returns a human readable report of the critical path with the per component durations.
+     *
+     * @return the critical path report
+     */
+    String getCriticalPathReport() {
+        List<String> criticalPath = getCriticalPath();
+        if (criticalPath.isEmpty()) {
+            return "Startup critical path is not available, since no startup listener component was notified.";
+        }
+
+        DecimalFormat decimalFormatter = new DecimalFormat("#,##0.000");
+        ComponentTimeline lastTimeline = componentTimelineMap.get(criticalPath.get(criticalPath.size() - 1));
+        StringBuilder report = new StringBuilder("Startup critical path, all startup listener components notified in ")
+                .append(decimalFormatter.format(toSeconds(lastTimeline.notificationEndTime - startTime)))
+                .append(" sec after the Startup Order Resolver started:");
+
+        for (int i = 0; i < criticalPath.size(); i++) {
+            String componentName = criticalPath.get(i);
+            ComponentTimeline timeline = componentTimelineMap.get(componentName);
+            long readyTime = timeline.getReadyTime();
+
+            report.append(System.lineSeparator()).append("  ").append(i + 1).append(") ").append(componentName);
+            if (timeline.bundle != null) {
+                report.append(" in bundle(").append(timeline.bundle.getSymbolicName()).append(":")
+                        .append(timeline.bundle.getVersion()).append(")");
+            }
+            report.append(" waited for ");
+            if (timeline.isBlockedByCapability()) {
+                report.append("capability ").append(timeline.capabilityName);
+                if (timeline.capabilityBundle != null) {
+                    report.append(" from bundle(").append(timeline.capabilityBundle.getSymbolicName()).append(":")
+                            .append(timeline.capabilityBundle.getVersion()).append(")");
+                }
+            } else {
+                report.append("its RequiredCapabilityListener");
+            }
+            report.append(" until ").append(decimalFormatter.format(toSeconds(readyTime - startTime)))
+                    .append(" sec, notified after ")
+                    .append(decimalFormatter.format(toSeconds(timeline.notificationStartTime - readyTime)))
+                    .append(" sec, listener took ")
+                    .append(decimalFormatter.format(
+                            toSeconds(timeline.notificationEndTime - timeline.notificationStartTime)))
+                    .append(" sec");
+        }
+        return report.toString();
+    }
+
+    private ComponentTimeline getComponentTimeline(String componentName) {
+        return componentTimelineMap.computeIfAbsent(componentName, name -> new ComponentTimeline());
+    }
+
+    private String getLastFinishedComponent() {
+        String lastComponentName = null;
+        long lastEndTime = 0;
+        for (Map.Entry<String, ComponentTimeline> entry : componentTimelineMap.entrySet()) {
+            ComponentTimeline timeline = entry.getValue();
+            if (timeline.isNotified() && (lastComponentName == null || timeline.notificationEndTime > lastEndTime)) {
+                lastComponentName = entry.getKey();
+                lastEndTime = timeline.notificationEndTime;
+            }
+        }
+        return lastComponentName;
+    }
+
+    /**
+     * Returns the component which held back the given component, i.e. the component in the bundle which provided the
+     * last required capability and whose listener was invoked most recently before that capability became available.
+     */
+    private String getBlockingComponent(String componentName) {
+        ComponentTimeline timeline = componentTimelineMap.get(componentName);
+        if (!timeline.isBlockedByCapability() || timeline.capabilityBundle == null) {
+            return null;
+        }
+
+        String blockingComponentName = null;
+        long blockingStartTime = 0;
+        for (Map.Entry<String, ComponentTimeline> entry : componentTimelineMap.entrySet()) {
+            ComponentTimeline candidate = entry.getValue();
+            if (entry.getKey().equals(componentName) || !candidate.isNotified()
+                    || !timeline.capabilityBundle.equals(candidate.bundle)
+                    || candidate.notificationStartTime > timeline.capabilityAvailableTime) {
+                continue;
+            }
+
+            if (blockingComponentName == null || candidate.notificationStartTime > blockingStartTime) {
+                blockingComponentName = entry.getKey();
+                blockingStartTime = candidate.notificationStartTime;
+            }
+        }
+        return blockingComponentName;
+    }
+
+    private static double toSeconds(long nanoTime) {
+        return (double) Math.max(nanoTime, 0) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Recorded timestamps of a startup listener component.
+     */
+    private static class ComponentTimeline {
+        private Bundle bundle;
+        private long listenerRegisteredTime;
+        private String capabilityName;
+        private Bundle capabilityBundle;
+        private long capabilityAvailableTime;
+        private long notificationStartTime;
+        private long notificationEndTime;
+        private boolean notified;
+
+        private boolean isNotified() {
+            return notified;
+        }
+
+        private boolean isBlockedByCapability() {
+            return capabilityName != null && capabilityAvailableTime > listenerRegisteredTime;
+        }
+
+        private long getReadyTime() {
+            return isBlockedByCapability() ? capabilityAvailableTime : listenerRegisteredTime;
+        }
+    }
+}
@@ -34,6 +34,7 @@ public class Capability {
     protected Bundle bundle;
     protected boolean directDependency;
     protected boolean secondCheck;
+    protected long count = 1;
 
     /**
      * Describes the type of the Capability.
@@ -83,6 +84,7 @@ public class Capability {
     public Capability(Capability capability) {
         this(capability.getName(), capability.getType(), capability.getState(), capability.getBundle(),
                 capability.isDirectDependency());
+        this.count = capability.getCount();
     }
 
     public String getName() {
@@ -121,6 +123,20 @@ public class Capability {
         this.secondCheck = secondCheck;
     }
 
+    /**
+     * Returns the number of instances of this capability, e.g. the number of OSGi services of the same interface
+     * expected from the bundle. A single {@code Capability} object represents all of them.
+     *
+     * @return the number of instances, which is 1 by default
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
     /**
      * Checks whether the given {@code Capability} is equal to this {@code Capability} instance.
      * @param obj Capability to be compared.
@@ -0,0 +1,91 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver.beans;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code CapabilitySymbolTable} maps capability and OSGi service interface names to dense int ids.
+ * <p>
+ * Names are interned while the Carbon-Component manifest headers are processed, hence the capability events received
+ * afterwards are resolved to an id with a single hash lookup, and the per component state is kept in arrays and
+ * {@code BitSet}s indexed by these ids.
+ * <p>
+ * Ids are assigned in the interning order starting from zero, and never change.
+ *
+ * @since 5.2.0
+ */
+public class CapabilitySymbolTable {
+
+    /**
+     * Value returned by {@link #getId(String)} for names which are not interned.
+     */
+    public static final int UNKNOWN_ID = -1;
+
+    private final Map<String, Integer> idMap = new ConcurrentHashMap<>();
+
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * Returns the id of the given name, assigning the next id if the name is not interned yet.
+     *
+     * @param name capability or OSGi service interface name
+     * @return the id of the name
+     */
+    public synchronized int intern(String name) {
+        Integer id = idMap.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        names.add(name);
+        idMap.put(name, names.size() - 1);
+        return names.size() - 1;
+    }
+
+    /**
+     * Returns the id of the given name.
+     *
+     * @param name capability or OSGi service interface name
+     * @return the id of the name, or {@code UNKNOWN_ID} if the name is not interned
+     */
+    public int getId(String name) {
+        Integer id = idMap.get(name);
+        return id == null ? UNKNOWN_ID : id;
+    }
+
+    /**
+     * Returns the name to which the given id is assigned.
+     *
+     * @param id the id of the name
+     * @return the name
+     */
+    public synchronized String getName(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * Returns the number of interned names, which is also the next id to be assigned.
+     *
+     * @return the number of interned names
+     */
+    public synchronized int size() {
+        return names.size();
+    }
+}
@@ -18,16 +18,16 @@
 package org.wso2.carbon.kernel.internal.startupresolver.beans;
 
 import org.osgi.framework.Bundle;
-import org.wso2.carbon.kernel.internal.startupresolver.StartupServiceCache;
 import org.wso2.carbon.kernel.startupresolver.RequiredCapabilityListener;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 /**
  * {@code StartupComponent} Represents an entity which needs to hold its initialization until all the required
@@ -55,19 +55,37 @@ public class StartupComponent {
     private List<String> requiredServiceList = new ArrayList<>();
 
     /**
-     * List of expected capabilities.
+     * Symbol table which assigns the ids of the required capabilities. Components share the symbol table of the
+     * {@code StartupComponentManager} to which they are added.
      */
-    private final List<Capability> expectedCapabilityList = Collections.synchronizedList(new ArrayList<>());
+    private CapabilitySymbolTable capabilitySymbolTable = new CapabilitySymbolTable();
+
+    /**
+     * Ids of the distinct required capabilities. The index of an id in this array is the slot of that capability in
+     * the per capability state of this component.
+     */
+    private volatile int[] capabilityIds = new int[0];
+
+    /**
+     * Expected and available capabilities of each slot.
+     */
+    private final List<CapabilitySlot> capabilitySlots = new ArrayList<>();
+
+    /**
+     * Slots whose expected count is greater than the available count. All the per capability state, as well as the
+     * pending CapabilityProvider services, is guarded by the lock of this set.
+     */
+    private final BitSet pendingCapabilities = new BitSet();
 
     /**
      * RequiredCapabilityListener service instance.
      */
-    private RequiredCapabilityListener listener;
+    private volatile RequiredCapabilityListener listener;
 
     /**
      * List of pending expected or available CapabilityProvider OSGi services.
      */
-    private List<CapabilityProviderCapability> pendingCapabilityProviderList = new ArrayList<>();
+    private final List<CapabilityProviderCapability> pendingCapabilityProviderList = new ArrayList<>();
 
     /**
      * OSGi bundle to which this component resides.
@@ -77,7 +95,7 @@ public class StartupComponent {
     /**
      * Indicates whether this startup listener component is already satisfied or not.
      */
-    private boolean satisfied = false;
+    private volatile boolean satisfied = false;
 
     /**
      * Constructor to create a {@code StartupComponent} instance.
@@ -109,80 +127,175 @@ public class StartupComponent {
     }
 
     public void addRequiredServices(List<String> requiredServiceList) {
-        this.requiredServiceList.addAll(requiredServiceList);
+        requiredServiceList.forEach(this::addRequiredService);
     }
 
     public void addRequiredService(String requiredService) {
-        requiredServiceList.add(requiredService);
+        synchronized (pendingCapabilities) {
+            int capabilityId = capabilitySymbolTable.intern(requiredService);
+            if (getCapabilitySlot(capabilityId) < 0) {
+                int slot = capabilityIds.length;
+                capabilityIds = Arrays.copyOf(capabilityIds, slot + 1);
+                capabilityIds[slot] = capabilityId;
+                capabilitySlots.add(new CapabilitySlot());
+            }
+            requiredServiceList.add(requiredService);
+        }
     }
 
     public boolean isServiceRequired(String service) {
-        return requiredServiceList.contains(service);
+        return getCapabilitySlot(capabilitySymbolTable.getId(service)) >= 0;
+    }
+
+    /**
+     * Interns the required capabilities of this component in the given symbol table, which then assigns the ids of
+     * the capabilities passed to this component.
+     *
+     * @param capabilitySymbolTable the symbol table of the {@code StartupComponentManager} of this component
+     */
+    public void setCapabilitySymbolTable(CapabilitySymbolTable capabilitySymbolTable) {
+        synchronized (pendingCapabilities) {
+            this.capabilitySymbolTable = capabilitySymbolTable;
+            // Slots are assigned in the order of the distinct required services.
+            capabilityIds = requiredServiceList.stream()
+                    .distinct()
+                    .mapToInt(capabilitySymbolTable::intern)
+                    .toArray();
+        }
+    }
+
+    /**
+     * Returns the ids of the distinct required capabilities of this component.
+     *
+     * @return the capability ids, assigned by the symbol table of this component
+     */
+    public int[] getRequiredCapabilityIds() {
+        synchronized (pendingCapabilities) {
+            return capabilityIds.clone();
+        }
     }
 
     /**
      * Register {@code Capability} instances with this startup listener component.
      * <p>
-     * Adds the given {@code Capability} to the {@code expectedCapabilityList}
+     * Adds the given {@code Capability} to the expected capabilities of its slot. Capabilities which are not
+     * required by this component are ignored.
      *
      * @param capability {@code Capability} object to be registered with this startup listener component.
+     * @return true if the given capability is matched with an already AVAILABLE capability.
      */
-    public void addExpectedCapability(Capability capability) {
-        synchronized (expectedCapabilityList) {
-            Capability expectedCapability = expectedCapabilityList.stream()
-                    .filter(expCapability -> expCapability.getName().equals(capability.getName()))
-                    .filter(expCapability -> !expCapability.isSecondCheck()
-                            && expCapability.getState() == Capability.CapabilityState.AVAILABLE)
-                    .findFirst().orElse(null);
-
-            if (expectedCapability != null) {
-                expectedCapability.setSecondCheck(true);
-                expectedCapability.setDirectDependency(capability.isDirectDependency());
-            } else {
-                expectedCapabilityList.add(capability);
+    public boolean addExpectedCapability(Capability capability) {
+        return addExpectedCapability(capabilitySymbolTable.getId(capability.getName()), capability);
+    }
+
+    /**
+     * Register {@code Capability} instances with this startup listener component.
+     *
+     * @param capabilityId id of the capability name, assigned by the symbol table of this component
+     * @param capability   {@code Capability} object to be registered with this startup listener component.
+     * @return true if the given capability is matched with an already AVAILABLE capability.
+     */
+    public boolean addExpectedCapability(int capabilityId, Capability capability) {
+        synchronized (pendingCapabilities) {
+            int slot = getCapabilitySlot(capabilityId);
+            if (slot < 0) {
+                return false;
             }
+
+            // Each instance of the capability is matched with an already AVAILABLE one, if any.
+            CapabilitySlot capabilitySlot = capabilitySlots.get(slot);
+            long matchedCount = 0;
+            for (Capability matchedCapability : capabilitySlot.remove(capabilitySlot.available,
+                    capability.getCount())) {
+                matchedCapability.setSecondCheck(true);
+                matchedCapability.setDirectDependency(capability.isDirectDependency());
+                capabilitySlot.add(matchedCapability);
+                matchedCount += matchedCapability.getCount();
+            }
+            capabilitySlot.add(capability, capability.getCount() - matchedCount);
+            updatePendingCapability(slot);
+            return matchedCount > 0;
         }
     }
 
     /**
-     * This method updates the capability in the expected capability list.
+     * This method updates the capability in the expected capabilities.
      *
-     * If a corresponding capability is found in the expectedCapabilityList, then the existing capability is updated,
-     * or the new capability is added to the expectedCapabilityList otherwise.
+     * If a corresponding capability is found in the expected capabilities, then the existing capability is updated,
+     * or the new capability is added to the expected capabilities otherwise. Capabilities which are not required by
+     * this component are ignored.
      *
      * @param capability the capability to be updated
+     * @return true if an EXPECTED capability in the expected capabilities became AVAILABLE.
      */
-    public void updateCapability(Capability capability) {
-        synchronized (expectedCapabilityList) {
+    public boolean updateCapability(Capability capability) {
+        return updateCapability(capabilitySymbolTable.getId(capability.getName()), capability);
+    }
+
+    /**
+     * This method updates the capability in the expected capabilities.
+     *
+     * @param capabilityId id of the capability name, assigned by the symbol table of this component
+     * @param capability   the capability to be updated
+     * @return true if an EXPECTED capability in the expected capabilities became AVAILABLE.
+     */
+    public boolean updateCapability(int capabilityId, Capability capability) {
+        synchronized (pendingCapabilities) {
+            int slot = getCapabilitySlot(capabilityId);
+            if (slot < 0) {
+                return false;
+            }
+
+            CapabilitySlot capabilitySlot = capabilitySlots.get(slot);
+            long matchedCount = 0;
             if (capability.getState() == Capability.CapabilityState.EXPECTED) {
-                Optional<Capability> optCapability = expectedCapabilityList.stream()
-                        .filter(expCapability -> expCapability.getName().equals(capability.getName()))
-                        .filter(expCapability -> expCapability.getState() == Capability.CapabilityState.AVAILABLE)
-                        .filter(expCapability -> !expCapability.isSecondCheck())
-                        .findFirst();
-
-                if (optCapability.isPresent()) {
-                    optCapability.get().setSecondCheck(true);
-                } else {
-                    expectedCapabilityList.add(capability);
+                for (Capability matchedCapability : capabilitySlot.remove(capabilitySlot.available,
+                        capability.getCount())) {
+                    matchedCapability.setSecondCheck(true);
+                    capabilitySlot.add(matchedCapability);
+                    matchedCount += matchedCapability.getCount();
                 }
+                capabilitySlot.add(capability, capability.getCount() - matchedCount);
+                updatePendingCapability(slot);
+                return false;
             } else {
                 // if Capability.CapabilityState.AVAILABLE
-                Optional<Capability> optCapability = expectedCapabilityList.stream()
-                        .filter(expCapability -> expCapability.getName().equals(capability.getName()))
-                        .filter(expCapability -> expCapability.getState() == Capability.CapabilityState.EXPECTED)
-                        .findFirst();
-
-                if (optCapability.isPresent()) {
-                    optCapability.get().setState(Capability.CapabilityState.AVAILABLE);
-                    optCapability.get().setSecondCheck(true);
-                } else {
-                    expectedCapabilityList.add(capability);
+                for (Capability matchedCapability : capabilitySlot.remove(capabilitySlot.expected,
+                        capability.getCount())) {
+                    matchedCapability.setState(Capability.CapabilityState.AVAILABLE);
+                    matchedCapability.setSecondCheck(true);
+                    capabilitySlot.add(matchedCapability);
+                    matchedCount += matchedCapability.getCount();
                 }
+                capabilitySlot.add(capability, capability.getCount() - matchedCount);
+                updatePendingCapability(slot);
+                return matchedCount > 0;
             }
         }
     }
 
+    /**
+     * Updates the number of OSGi services of the given interface, which are reported to the
+     * {@code StartupServiceCache} by this startup listener component.
+     * <p>
+     * Reported service counts only grow, hence a count lower than the current one is ignored. Services of the
+     * interfaces which are not required by this component, are never pending hence ignored.
+     *
+     * @param interfaceName name of the OSGi service interface
+     * @param serviceCount  number of services reported so far
+     */
+    public void updateAvailableServiceCount(String interfaceName, long serviceCount) {
+        synchronized (pendingCapabilities) {
+            int slot = getCapabilitySlot(capabilitySymbolTable.getId(interfaceName));
+            if (slot < 0 || serviceCount <= capabilitySlots.get(slot).availableCount) {
+                return;
+            }
+
+            capabilitySlots.get(slot).availableCount = serviceCount;
+            updatePendingCapability(slot);
+        }
+    }
+
     /**
      * Returns all the pending capabilities of this startup listener component. There could capabilities
      * in both AVAILABLE and EXPECTED state.
@@ -200,30 +313,17 @@ public class StartupComponent {
      * @return the list of pending capabilities.
      */
     public List<Capability> getPendingCapabilities() {
-        Map<String, Long> availableServiceCounts = StartupServiceCache.getInstance().getAvailableService(name);
-
-        synchronized (expectedCapabilityList) {
-            Map<String, Long> expectedServiceCounts = expectedCapabilityList.stream()
-                    .filter(expCapability -> expCapability.isDirectDependency()
-                            || (!expCapability.isDirectDependency()
-                            && expCapability.getState() == Capability.CapabilityState.EXPECTED))
-                    .map(expCapability -> expCapability.getName())
-                    .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-
-            availableServiceCounts.forEach((s, aLong) -> {
-                Long eCount = expectedServiceCounts.get(s);
-                if (eCount != null && aLong >= eCount) {
-                    expectedServiceCounts.remove(s);
-                }
-            });
-
-            if (expectedServiceCounts.isEmpty()) {
+        synchronized (pendingCapabilities) {
+            if (pendingCapabilities.isEmpty()) {
                 return Collections.emptyList();
-            } else {
-                return expectedCapabilityList.stream()
-                        .filter(expCapability -> expectedServiceCounts.keySet().contains(expCapability.getName()))
-                        .collect(Collectors.toList());
             }
+
+            List<Capability> capabilities = new ArrayList<>();
+            for (int slot = pendingCapabilities.nextSetBit(0); slot >= 0;
+                 slot = pendingCapabilities.nextSetBit(slot + 1)) {
+                capabilities.addAll(capabilitySlots.get(slot).getCapabilities());
+            }
+            return capabilities;
         }
     }
 
@@ -235,16 +335,25 @@ public class StartupComponent {
         this.listener = listener;
     }
 
+    /**
+     * Matches the given EXPECTED or AVAILABLE {@code CapabilityProvider} with the pending one of the other state, or
+     * adds it to the pending {@code CapabilityProvider}s if there is no such one. Capability tracker events of the
+     * services registered by concurrently notified listeners may call this method in parallel.
+     *
+     * @param capabilityProvider the EXPECTED or AVAILABLE {@code CapabilityProvider}
+     */
     public void addExpectedOrAvailableCapabilityProvider(CapabilityProviderCapability capabilityProvider) {
-        if (pendingCapabilityProviderList.contains(capabilityProvider)) {
-            pendingCapabilityProviderList.remove(capabilityProvider);
-        } else {
-            pendingCapabilityProviderList.add(capabilityProvider);
+        synchronized (pendingCapabilities) {
+            if (!pendingCapabilityProviderList.remove(capabilityProvider)) {
+                pendingCapabilityProviderList.add(capabilityProvider);
+            }
         }
     }
 
     public List<CapabilityProviderCapability> getPendingCapabilityProviders() {
-        return Collections.unmodifiableList(pendingCapabilityProviderList);
+        synchronized (pendingCapabilities) {
+            return Collections.unmodifiableList(new ArrayList<>(pendingCapabilityProviderList));
+        }
     }
 
     public Bundle getBundle() {
@@ -270,10 +379,13 @@ public class StartupComponent {
      * @return 'true' if this component can be satisfied, or else 'false'.
      */
     public boolean isSatisfiable() {
-        return !satisfied &&
-                getPendingCapabilities().size() == 0 &&
-                listener != null &&
-                pendingCapabilityProviderList.size() == 0;
+        if (satisfied || listener == null) {
+            return false;
+        }
+
+        synchronized (pendingCapabilities) {
+            return pendingCapabilities.isEmpty() && pendingCapabilityProviderList.isEmpty();
+        }
     }
 
     /**
@@ -290,6 +402,149 @@ public class StartupComponent {
         return !satisfied;
     }
 
+    /**
+     * Returns the slot of the given capability id, or -1 if the capability is not required by this component.
+     * Components require only a few capabilities, hence the ids are scanned linearly.
+     */
+    private int getCapabilitySlot(int capabilityId) {
+        if (capabilityId == CapabilitySymbolTable.UNKNOWN_ID) {
+            return -1;
+        }
+
+        int[] ids = capabilityIds;
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (ids[slot] == capabilityId) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void updatePendingCapability(int slot) {
+        pendingCapabilities.set(slot, capabilitySlots.get(slot).isPending());
+    }
+
+    /**
+     * Keeps the capabilities of a slot as runs, i.e. capabilities whose count is the number of consecutive instances
+     * with the same state, bundle and dependency type. Hence the memory and the update cost of a slot do not depend
+     * on the declared service counts. Instances are matched in the order in which they are added.
+     */
+    private static class CapabilitySlot {
+
+        /**
+         * EXPECTED capabilities, which are not matched with an AVAILABLE capability yet.
+         */
+        private final Deque<Capability> expected = new ArrayDeque<>();
+
+        /**
+         * AVAILABLE capabilities, which are not matched with an EXPECTED capability yet.
+         */
+        private final Deque<Capability> available = new ArrayDeque<>();
+
+        /**
+         * AVAILABLE capabilities, which are matched with an EXPECTED capability.
+         */
+        private final Deque<Capability> matched = new ArrayDeque<>();
+
+        /**
+         * Number of counted instances. All the direct dependencies and the indirect dependencies at EXPECTED state
+         * are counted.
+         */
+        private long expectedCount;
+
+        /**
+         * Number of OSGi services reported to the {@code StartupServiceCache}.
+         */
+        private long availableCount;
+
+        private boolean isPending() {
+            return expectedCount > availableCount;
+        }
+
+        private void add(Capability capability) {
+            add(capability, capability.getCount());
+        }
+
+        /**
+         * Adds the given number of instances of the given capability.
+         */
+        private void add(Capability capability, long count) {
+            if (count <= 0) {
+                return;
+            }
+
+            Deque<Capability> capabilities;
+            if (capability.getState() == Capability.CapabilityState.EXPECTED) {
+                capabilities = expected;
+            } else {
+                capabilities = capability.isSecondCheck() ? matched : available;
+            }
+
+            Capability last = capabilities.peekLast();
+            if (last != null && isSameRun(last, capability)) {
+                last.setCount(last.getCount() + count);
+            } else {
+                capabilities.addLast(copy(capability, count));
+            }
+            if (isCounted(capability)) {
+                expectedCount += count;
+            }
+        }
+
+        /**
+         * Removes up to the given number of instances from the head of the given capabilities.
+         *
+         * @return copies of the removed runs
+         */
+        private List<Capability> remove(Deque<Capability> capabilities, long count) {
+            List<Capability> removedCapabilities = new ArrayList<>();
+            while (count > 0 && !capabilities.isEmpty()) {
+                Capability first = capabilities.peekFirst();
+                long removedCount = Math.min(count, first.getCount());
+                if (removedCount == first.getCount()) {
+                    capabilities.removeFirst();
+                } else {
+                    first.setCount(first.getCount() - removedCount);
+                }
+                if (isCounted(first)) {
+                    expectedCount -= removedCount;
+                }
+                removedCapabilities.add(copy(first, removedCount));
+                count -= removedCount;
+            }
+            return removedCapabilities;
+        }
+
+        private List<Capability> getCapabilities() {
+            List<Capability> capabilities = new ArrayList<>(matched);
+            capabilities.addAll(available);
+            capabilities.addAll(expected);
+            return capabilities;
+        }
+
+        private static Capability copy(Capability capability, long count) {
+            Capability copy = new Capability(capability);
+            copy.setSecondCheck(capability.isSecondCheck());
+            copy.setCount(count);
+            return copy;
+        }
+
+        private static boolean isSameRun(Capability run, Capability capability) {
+            return run.isDirectDependency() == capability.isDirectDependency()
+                    && run.isSecondCheck() == capability.isSecondCheck()
+                    && Objects.equals(run.getBundle(), capability.getBundle());
+        }
+
+        /**
+         * Checks whether the given capability is counted as an expected capability.
+         * <p>
+         * All the direct dependencies and the indirect dependencies at EXPECTED state are counted.
+         */
+        private static boolean isCounted(Capability capability) {
+            return capability.isDirectDependency() || capability.getState() == Capability.CapabilityState.EXPECTED;
+        }
+    }
+
     /**
      * Checks whether the given components is equal to this component.
      * <p>
@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.runtime;
+
+import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A blocking method of the {@link RuntimeService}, which the default asynchronous methods of the
+ * {@link RuntimeService} call in a dedicated thread.
+ *
+ * @since 5.2.0
+ */
+@FunctionalInterface
+interface BlockingRuntimeServiceCall {
+
+    void call() throws RuntimeServiceException;
+
+    /**
+     * Calls the given blocking method in a new daemon thread, hence it neither blocks the caller nor occupies a thread
+     * of the common pool while the runtimes are transitioned.
+     *
+     * @param blockingCall the blocking method to be called
+     * @param threadName   the name of the thread
+     * @return future which completes with an empty list once the blocking method returns, or completes exceptionally
+     * with the exception thrown by it
+     */
+    static CompletableFuture<List<RuntimeTransitionResult>> callAsync(BlockingRuntimeServiceCall blockingCall,
+                                                                      String threadName) {
+        CompletableFuture<List<RuntimeTransitionResult>> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                blockingCall.call();
+                result.complete(Collections.emptyList());
+            } catch (Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+        }, threadName);
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.runtime;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Counts the units of work, e.g. requests, which a runtime is processing, so that the kernel can wait for them to
+ * complete before it reports the runtime to be in MAINTENANCE state.
+ * <p>
+ * The count is striped across threads, hence {@link #enter()} and {@link #exit()} can be called on the request path of
+ * a runtime without contention. Reading the count is comparatively expensive, and is done only while the runtime is
+ * being put into maintenance.
+ * <pre>
+ * inFlightWorkTracker.enter();
+ * try {
+ *     processRequest();
+ * } finally {
+ *     inFlightWorkTracker.exit();
+ * }
+ * </pre>
+ *
+ * @see Runtime#getInFlightWorkTracker()
+ * @since 5.2.0
+ */
+public final class InFlightWorkTracker {
+
+    private static final long MIN_POLL_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long MAX_POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final LongAdder inFlightCount = new LongAdder();
+
+    /**
+     * Records the start of a unit of work.
+     */
+    public void enter() {
+        inFlightCount.increment();
+    }
+
+    /**
+     * Records the completion of a unit of work started with {@link #enter()}.
+     */
+    public void exit() {
+        inFlightCount.decrement();
+    }
+
+    /**
+     * Returns the number of units of work in flight.
+     *
+     * @return the number of units of work which are started but not completed
+     */
+    public long getInFlightCount() {
+        return inFlightCount.sum();
+    }
+
+    /**
+     * Waits until no unit of work is in flight, or the given timeout elapses. The runtime should stop accepting new
+     * work before this method is called, otherwise it may never return true under load.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return true if no unit of work is in flight, false if the timeout elapsed first
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public boolean awaitQuiescence(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long pollInterval = MIN_POLL_INTERVAL_NANOS;
+        while (getInFlightCount() > 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(this, Math.min(pollInterval, remaining));
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Interrupted while waiting for in-flight work to complete");
+            }
+            pollInterval = Math.min(pollInterval * 2, MAX_POLL_INTERVAL_NANOS);
+        }
+        return true;
+    }
+}
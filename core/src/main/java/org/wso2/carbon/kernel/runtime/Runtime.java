@@ -17,6 +17,9 @@ package org.wso2.carbon.kernel.runtime;
 
 import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * <p>
  * This interface is used to register/integrate custom runtime into Carbon server, by extending this
@@ -103,4 +106,45 @@ public interface Runtime {
      */
     void setState(RuntimeState runtimeState);
 
+    /**
+     * Return the name of the runtime, which other runtimes use to declare their dependency on this runtime.
+     *
+     * @return the name of the runtime, which is the class name of the runtime by default
+     * @since 5.2.0
+     */
+    default String getName() {
+        return getClass().getName();
+    }
+
+    /**
+     * Return the names of the runtimes this runtime depends on. These runtimes are started before this runtime and
+     * stopped after this runtime, while runtimes which do not depend on each other may be started and stopped in
+     * parallel. Names which do not belong to a registered runtime are ignored.
+     *
+     * @return the names of the runtimes this runtime depends on, which is empty by default
+     * @since 5.2.0
+     */
+    default Set<String> getDependencies() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Return the tracker of the work this runtime is processing. When the runtime is put into maintenance, the
+     * RuntimeService waits for the tracked work to complete after {@link #beginMaintenance()} returns, up to the
+     * configured deadline, before it reports the runtime to be in MAINTENANCE state.
+     * <p>
+     * {@link #beginMaintenance()} must stop the runtime from accepting new work. It should leave the state of the
+     * runtime unchanged, so that the RuntimeService moves the runtime to MAINTENANCE state once the work is drained. A
+     * runtime which sets its own state in {@link #beginMaintenance()} reports MAINTENANCE while its work is still in
+     * flight. If the work does not complete within the deadline, the runtime is moved to MAINTENANCE state regardless,
+     * and putting it into maintenance is reported as failed.
+     *
+     * @return the in-flight work tracker of the runtime, or null if the runtime does not track its work, which is the
+     * default
+     * @since 5.2.0
+     */
+    default InFlightWorkTracker getInFlightWorkTracker() {
+        return null;
+    }
+
 }
@@ -17,6 +17,9 @@ package org.wso2.carbon.kernel.runtime;
 
 import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * User level APIs for consuming RuntimeManager functionality.
  * This will be registered as an OSGi service so that users can reference this in their component.
@@ -60,4 +63,61 @@ public interface RuntimeService {
      */
     void endMaintenance() throws RuntimeServiceException;
 
+    /**
+     * Starts all registered runtimes without blocking the caller.
+     * <p>
+     * The default implementation calls {@link #startRuntimes()} in a new daemon thread. As the blocking call does not
+     * report the outcome of each runtime, implementations which are able to report it should override this method.
+     *
+     * @return future which completes with an empty list once {@link #startRuntimes()} returns, or completes
+     * exceptionally with the {@link RuntimeServiceException} thrown by it
+     * @since 5.2.0
+     */
+    default CompletableFuture<List<RuntimeTransitionResult>> startRuntimesAsync() {
+        return BlockingRuntimeServiceCall.callAsync(this::startRuntimes, "RuntimeService-startRuntimes");
+    }
+
+    /**
+     * Stops all registered runtimes without blocking the caller.
+     * <p>
+     * The default implementation calls {@link #stopRuntimes()} in a new daemon thread. As the blocking call does not
+     * report the outcome of each runtime, implementations which are able to report it should override this method.
+     *
+     * @return future which completes with an empty list once {@link #stopRuntimes()} returns, or completes
+     * exceptionally with the {@link RuntimeServiceException} thrown by it
+     * @since 5.2.0
+     */
+    default CompletableFuture<List<RuntimeTransitionResult>> stopRuntimesAsync() {
+        return BlockingRuntimeServiceCall.callAsync(this::stopRuntimes, "RuntimeService-stopRuntimes");
+    }
+
+    /**
+     * Puts all registered runtimes into MAINTENANCE state without blocking the caller.
+     * <p>
+     * The default implementation calls {@link #beginMaintenance()} in a new daemon thread. As the blocking call does
+     * not report the outcome of each runtime, implementations which are able to report it should override this
+     * method.
+     *
+     * @return future which completes with an empty list once {@link #beginMaintenance()} returns, or completes
+     * exceptionally with the {@link RuntimeServiceException} thrown by it
+     * @since 5.2.0
+     */
+    default CompletableFuture<List<RuntimeTransitionResult>> beginMaintenanceAsync() {
+        return BlockingRuntimeServiceCall.callAsync(this::beginMaintenance, "RuntimeService-beginMaintenance");
+    }
+
+    /**
+     * Puts all registered runtimes back into INACTIVE state without blocking the caller.
+     * <p>
+     * The default implementation calls {@link #endMaintenance()} in a new daemon thread. As the blocking call does not
+     * report the outcome of each runtime, implementations which are able to report it should override this method.
+     *
+     * @return future which completes with an empty list once {@link #endMaintenance()} returns, or completes
+     * exceptionally with the {@link RuntimeServiceException} thrown by it
+     * @since 5.2.0
+     */
+    default CompletableFuture<List<RuntimeTransitionResult>> endMaintenanceAsync() {
+        return BlockingRuntimeServiceCall.callAsync(this::endMaintenance, "RuntimeService-endMaintenance");
+    }
+
 }
@@ -0,0 +1,95 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.runtime;
+
+/**
+ * The outcome of starting, stopping, or beginning or ending the maintenance of a single runtime, as reported by the
+ * asynchronous methods of the {@link RuntimeService}.
+ *
+ * @since 5.2.0
+ */
+public final class RuntimeTransitionResult {
+
+    /**
+     * The outcome of the transition of a runtime.
+     */
+    public enum Status {
+        /**
+         * The lifecycle methods of the runtime are invoked.
+         */
+        TRANSITIONED,
+        /**
+         * The transition is not applicable to the state of the runtime, e.g. the runtime is already started.
+         */
+        UNCHANGED,
+        /**
+         * The lifecycle methods of the runtime failed or timed out.
+         */
+        FAILED,
+        /**
+         * The runtime is not transitioned, since a runtime it waits for failed.
+         */
+        SKIPPED
+    }
+
+    private final String runtimeName;
+    private final Status status;
+    private final Enum<RuntimeState> state;
+    private final Throwable failure;
+
+    public RuntimeTransitionResult(String runtimeName, Status status, Enum<RuntimeState> state, Throwable failure) {
+        this.runtimeName = runtimeName;
+        this.status = status;
+        this.state = state;
+        this.failure = failure;
+    }
+
+    public String getRuntimeName() {
+        return runtimeName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the state of the runtime once the transition completed.
+     *
+     * @return the state reported by the runtime, which may be null
+     */
+    public Enum<RuntimeState> getState() {
+        return state;
+    }
+
+    /**
+     * Returns the reason the runtime was not transitioned.
+     *
+     * @return the failure, or null if the transition did not fail and was not skipped
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public boolean isSuccessful() {
+        return status == Status.TRANSITIONED || status == Status.UNCHANGED;
+    }
+
+    @Override
+    public String toString() {
+        return runtimeName + " : " + status + " [" + state + "]" +
+                (failure == null ? "" : " " + failure.getMessage());
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.runtime;
+
+/**
+ * A task which exercises the code paths of a runtime or a component, e.g. by processing synthetic requests, so that
+ * these are loaded and compiled before the server is reported to be started.
+ * <p>
+ * Register warm-up tasks as OSGi services. Once the runtimes are started, the kernel runs the registered warm-up tasks,
+ * and only then registers the {@code CarbonServerInfo} service. Hence listeners of that service see a server which is
+ * ready to serve requests at its steady-state latency. The tasks run in warm-up threads of the kernel, while the rest
+ * of the startup listeners are notified. The tasks may run in parallel, and are interrupted once the warm-up time
+ * budget elapses, hence a task should not depend on other tasks and should return when interrupted. A task which fails
+ * or is interrupted does not fail the server startup.
+ *
+ * @since 5.2.0
+ */
+public interface WarmUpTask {
+
+    /**
+     * Returns the name of this warm-up task, which is used in the logs.
+     *
+     * @return the name of this task
+     */
+    default String getName() {
+        return getClass().getName();
+    }
+
+    /**
+     * Warms up the runtime or the component.
+     *
+     * @throws Exception if the warm-up fails
+     */
+    void warmUp() throws Exception;
+}
@@ -34,7 +34,8 @@ public class StartupServiceUtils {
      * of the StartupOrderResolver.
      *
      * Existing {@link StartupServiceCache} implementation uses the {@code componentName} to track the startup
-     * components which has received the OSGi service of type {@code interfaceName}.
+     * components which has received the OSGi service of type {@code interfaceName}. Updates made after all the startup
+     * listener components are satisfied, are ignored.
      *
      * @param componentName name of the reporting component
      * @param interfaceName name of the OSGi service interface
@@ -18,12 +18,13 @@ package org.wso2.carbon.kernel.startupresolver.manifest;
 import org.osgi.framework.Bundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wso2.carbon.utils.Tokenizer;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class represents a single manifest element.  A manifest element must consist of a single
@@ -72,7 +73,8 @@ import java.util.List;
  * <p>
  * This class is not intended to be subclassed by clients.
  * <p>
- * This class is taken from org.eclipse.osgi.util
+ * This class is taken from org.eclipse.osgi.util. The header parser is modified to scan the header value only once
+ * without copying it, and to reuse the {@link String} instances of the well known attribute keys.
  *
  * @since 5.0.0
  */
@@ -82,6 +84,14 @@ public class ManifestElement {
 
     private static final String MANIFEST_INVALID_HEADER_EXCEPTION = "Invalid header found.";
 
+    /**
+     * Attribute and directive keys which are repeated in almost every Carbon-Component manifest header. Parsed tokens
+     * equal to these keys are replaced with these instances.
+     */
+    private static final String[] WELL_KNOWN_KEYS = {"objectClass", "componentName", "requiredService",
+            "capabilityName", "serviceCount", "requiredByComponentName", "dependentComponentName", "effective",
+            "version", "uses"};
+
     private final String manifestHeaderName;
 
     /**
@@ -90,14 +100,14 @@ public class ManifestElement {
     private final String mainValue;
 
     /**
-     * The table of attributes for the manifest element.
+     * The table of attributes for the manifest element, in the order of declaration.
      */
-    private Hashtable<String, Object> attributes;
+    private Map<String, Object> attributes;
 
     /**
-     * The table of directives for the manifest element.
+     * The table of directives for the manifest element, in the order of declaration.
      */
-    private Hashtable<String, Object> directives;
+    private Map<String, Object> directives;
 
     /**
      * Containing OSGi bundle.
@@ -235,11 +245,11 @@ public class ManifestElement {
     /**
      * Return the last value associated with the given key in the specified table.
      *
-     * @param table Hashtable&lt;String, Object&gt;
+     * @param table Map&lt;String, Object&gt;
      * @param key   String
      * @return String
      */
-    private String getTableValue(Hashtable<String, Object> table, String key) {
+    private String getTableValue(Map<String, Object> table, String key) {
         if (table == null) {
             return null;
         }
@@ -259,11 +269,11 @@ public class ManifestElement {
     /**
      * Return the values associated with the given key in the specified table.
      *
-     * @param table Hashtable&lt;String, Object&gt;
+     * @param table Map&lt;String, Object&gt;
      * @param key   String
      * @return String[]
      */
-    private String[] getTableValues(Hashtable<String, Object> table, String key) {
+    private String[] getTableValues(Map<String, Object> table, String key) {
         if (table == null) {
             return new String[]{};
         }
@@ -282,14 +292,14 @@ public class ManifestElement {
     /**
      * Return an enumeration of table keys for the specified table.
      *
-     * @param table Hashtable&lt;String, Object&gt;
+     * @param table Map&lt;String, Object&gt;
      * @return Enumeration&lt;String&gt;
      */
-    private Enumeration<String> getTableKeys(Hashtable<String, Object> table) {
+    private Enumeration<String> getTableKeys(Map<String, Object> table) {
         if (table == null) {
             return null;
         }
-        return table.keys();
+        return Collections.enumeration(table.keySet());
     }
 
     /**
@@ -297,15 +307,15 @@ public class ManifestElement {
      * for this key, then create an array list from the current value (if necessary) and
      * append the new value to the end of the list.
      *
-     * @param table Hashtable&lt;String, Object&gt;
+     * @param table Map&lt;String, Object&gt;
      * @param key   String
      * @param value String
-     * @return Hashtable&lt;String, Object&gt;
+     * @return Map&lt;String, Object&gt;
      */
     @SuppressWarnings("unchecked")
-    private Hashtable<String, Object> addTableValue(Hashtable<String, Object> table, String key, String value) {
+    private Map<String, Object> addTableValue(Map<String, Object> table, String key, String value) {
         if (table == null) {
-            table = new Hashtable<>(7);
+            table = new LinkedHashMap<>(8);
         }
         Object curValue = table.get(key);
         if (curValue != null) {
@@ -344,87 +354,94 @@ public class ManifestElement {
             return new ArrayList<>();
         }
         List<ManifestElement> headerElements = new ArrayList<>(10);
-        Tokenizer tokenizer = new Tokenizer(value);
+        HeaderScanner scanner = new HeaderScanner(value);
         while (true) {
-            String next = tokenizer.getString(";,");
+            String next = scanner.getString(";,");
             if (next == null) {
                 throw new ManifestElementParserException(MANIFEST_INVALID_HEADER_EXCEPTION + " Header : " +
                         header + ", Value: " + value);
             }
-            StringBuilder headerValue = new StringBuilder(next);
+            // Most of the header values consist of a single component, hence the builder is created only if required.
+            String headerValue = next;
+            StringBuilder headerValueBuilder = null;
 
-            logger.debug("parseHeader: " + next);
+            logger.debug("parseHeader: {}", next);
             boolean directive = false;
-            char c = tokenizer.getChar();
+            char c = scanner.getChar();
             // Header values may be a list of ';' separated values.  Just append them all into one value until the
             // first '=' or ','
             while (c == ';') {
-                next = tokenizer.getString(";,=:");
+                next = scanner.getString(";,=:");
                 if (next == null) {
                     throw new ManifestElementParserException(MANIFEST_INVALID_HEADER_EXCEPTION + " Header: " +
                             header + ", Value: " + value);
                 }
-                c = tokenizer.getChar();
+                c = scanner.getChar();
                 while (c == ':') { // may not really be a :=
-                    c = tokenizer.getChar();
+                    c = scanner.getChar();
                     if (c != '=') {
-                        String restOfNext = tokenizer.getToken(";,=:");
+                        String restOfNext = scanner.getToken(";,=:");
                         if (restOfNext == null) {
                             throw new ManifestElementParserException(MANIFEST_INVALID_HEADER_EXCEPTION + " Header: " +
                                     header + ", Value: " +
                                     value);
                         }
-                        next = next.concat(":" + c + restOfNext);
-                        c = tokenizer.getChar();
+                        next = next + ':' + c + restOfNext;
+                        c = scanner.getChar();
                     } else {
                         directive = true;
                     }
                 }
                 if (c == ';' || c == ',' || c == '\0') /* more */ {
-                    headerValue.append(";").append(next);
-                    logger.debug(";" + next);
+                    if (headerValueBuilder == null) {
+                        headerValueBuilder = new StringBuilder(headerValue);
+                    }
+                    headerValueBuilder.append(';').append(next);
+                    logger.debug(";{}", next);
                 }
             }
+            if (headerValueBuilder != null) {
+                headerValue = headerValueBuilder.toString();
+            }
             // found the header value create a manifestElement for it.
-            ManifestElement manifestElement = new ManifestElement(header, headerValue.toString(), bundle);
+            ManifestElement manifestElement = new ManifestElement(header, headerValue, bundle);
 
             // now add any attributes/directives for the manifestElement.
             while (c == '=' || c == ':') {
                 while (c == ':') { // may not really be a :=
-                    c = tokenizer.getChar();
+                    c = scanner.getChar();
                     if (c != '=') {
-                        String restOfNext = tokenizer.getToken("=:");
+                        String restOfNext = scanner.getToken("=:");
                         if (restOfNext == null) {
                             throw new ManifestElementParserException(MANIFEST_INVALID_HEADER_EXCEPTION + " Header: " +
                                     header + ", Value: " +
                                     value);
                         }
-                        next = next.concat(":" + c + restOfNext);
-                        c = tokenizer.getChar();
+                        next = next + ':' + c + restOfNext;
+                        c = scanner.getChar();
                     } else {
                         directive = true;
                     }
                 }
                 // determine if the attribute is the form attr:List<type>
                 String preserveEscapes = null;
-                String tempNextWithoutFirstLetter = next.substring(1);
-                if (!directive && tempNextWithoutFirstLetter.contains("List")) {
-                    Tokenizer listTokenizer = new Tokenizer(next);
-                    String attrKey = listTokenizer.getToken(":");
-                    if (attrKey != null && listTokenizer.getChar() == ':' && "List"
-                            .equals(listTokenizer.getToken("<"))) {
+                if (!directive && next.indexOf("List", 1) != -1) {
+                    HeaderScanner listScanner = new HeaderScanner(next);
+                    String attrKey = listScanner.getToken(":");
+                    if (attrKey != null && listScanner.getChar() == ':' && "List"
+                            .equals(listScanner.getToken("<"))) {
                         // we assume we must preserve escapes for , and "
                         preserveEscapes = "\\,";
                     }
                 }
 
-                String val = tokenizer.getString(";,", preserveEscapes);
+                String val = scanner.getString(";,", preserveEscapes);
                 if (val == null) {
                     throw new ManifestElementParserException(MANIFEST_INVALID_HEADER_EXCEPTION + " Header: " +
                             header + ", Value: " + value);
                 }
 
-                logger.debug(";" + next + "=" + val);
+                logger.debug(";{}={}", next, val);
                 try {
                     if (directive) {
                         manifestElement.addDirective(next, val);
@@ -436,15 +453,15 @@ public class ManifestElement {
                     throw new ManifestElementParserException(MANIFEST_INVALID_HEADER_EXCEPTION + " Header: " +
                             header + ", Value: " + value);
                 }
-                c = tokenizer.getChar();
+                c = scanner.getChar();
                 if (c == ';') /* more */ {
-                    next = tokenizer.getToken("=:");
+                    next = scanner.getToken("=:");
                     if (next == null) {
                         throw new ManifestElementParserException(MANIFEST_INVALID_HEADER_EXCEPTION + " Header: " +
                                 header + ", Value: " +
                                 value);
                     }
-                    c = tokenizer.getChar();
+                    c = scanner.getChar();
                 }
             }
             headerElements.add(manifestElement);
@@ -504,4 +521,135 @@ public class ManifestElement {
             result.append("=\"").append(value).append('\"');
         }
     }
+
+    /**
+     * Scans a manifest header value from the beginning to the end, without copying it. This has the same semantics as
+     * org.eclipse.osgi.framework.internal.core.Tokenizer.
+     */
+    private static final class HeaderScanner {
+        private final String value;
+        private final int max;
+        private int cursor;
+
+        private HeaderScanner(String value) {
+            this.value = value;
+            this.max = value.length();
+            this.cursor = 0;
+        }
+
+        private void skipWhiteSpace() {
+            int cur = cursor;
+            for (; cur < max; cur++) {
+                char c = value.charAt(cur);
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                    break;
+                }
+            }
+            cursor = cur;
+        }
+
+        /**
+         * Returns the next token up to one of the given terminal characters, trimmed, or null if it is empty.
+         */
+        private String getToken(String terminals) {
+            skipWhiteSpace();
+            int cur = cursor;
+            int begin = cur;
+            for (; cur < max; cur++) {
+                if (terminals.indexOf(value.charAt(cur)) != -1) {
+                    break;
+                }
+            }
+            cursor = cur;
+            int count = cur - begin;
+            if (count > 0) {
+                skipWhiteSpace();
+                while (count > 0) {
+                    char last = value.charAt(begin + count - 1);
+                    if (last != ' ' && last != '\t') {
+                        break;
+                    }
+                    count--;
+                }
+                return substring(begin, count);
+            }
+            return null;
+        }
+
+        private String getString(String terminals) {
+            return getString(terminals, null);
+        }
+
+        /**
+         * Returns the next quoted string, or the next token if the value is not quoted.
+         */
+        private String getString(String terminals, String preserveEscapes) {
+            skipWhiteSpace();
+            int cur = cursor;
+            if (cur < max) {
+                if (value.charAt(cur) == '"') {
+                    cur++; /* skip quote */
+                    char c = '\0';
+                    int begin = cur;
+                    StringBuilder builder = null;
+                    for (; cur < max; cur++) {
+                        c = value.charAt(cur);
+                        // this is an escaped char
+                        if (c == '\\') {
+                            if (builder == null) {
+                                builder = new StringBuilder(value.length() - begin).append(value, begin, cur);
+                            }
+                            cur++; // skip the escape char
+                            if (cur == max) {
+                                break;
+                            }
+                            c = value.charAt(cur); // include the escaped char
+                            if (preserveEscapes != null && preserveEscapes.indexOf(c) != -1) {
+                                builder.append('\\'); // must preserve escapes for c
+                            }
+                        } else if (c == '"') {
+                            break;
+                        }
+                        if (builder != null) {
+                            builder.append(c);
+                        }
+                    }
+                    int count = cur - begin;
+                    String result = builder == null ? substring(begin, count) : builder.toString();
+                    if (c == '"') {
+                        cur++;
+                    }
+                    cursor = cur;
+                    if (count > 0) {
+                        skipWhiteSpace();
+                        return result;
+                    }
+                } else {
+                    return getToken(terminals);
+                }
+            }
+            return null;
+        }
+
+        private char getChar() {
+            int cur = cursor;
+            if (cur < max) {
+                cursor = cur + 1;
+                return value.charAt(cur);
+            }
+            return '\0';
+        }
+
+        /**
+         * Returns the given region of the value, reusing the instance of a well known key if the region is equal to it.
+         */
+        private String substring(int begin, int count) {
+            for (String key : WELL_KNOWN_KEYS) {
+                if (key.length() == count && value.regionMatches(begin, key, 0, count)) {
+                    return key;
+                }
+            }
+            return value.substring(begin, begin + count);
+        }
+    }
 }
@@ -0,0 +1,120 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.context;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * This class tests the functionality of org.wso2.carbon.kernel.context.CarbonContextSnapshot and
+ * org.wso2.carbon.kernel.context.CarbonContextExecutors.
+ *
+ * @since 5.2.0
+ */
+public class CarbonContextSnapshotTest {
+
+    private final Principal userPrincipal = () -> "test";
+
+    private ExecutorService executorService;
+
+    @BeforeClass
+    public void setup() {
+        executorService = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterClass
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @AfterMethod
+    public void destroyCurrentContext() {
+        PrivilegedCarbonContext.destroyCurrentContext();
+    }
+
+    @Test
+    public void testSnapshotIsIsolatedFromCapturedContext() throws Exception {
+        PrivilegedCarbonContext.getCurrentContext().setUserPrincipal(userPrincipal);
+        PrivilegedCarbonContext.getCurrentContext().setProperty("KEY", "VALUE");
+        CarbonContextSnapshot snapshot = CarbonContextSnapshot.capture();
+
+        PrivilegedCarbonContext.getCurrentContext().setProperty("KEY", "NEW-VALUE");
+        Assert.assertEquals(snapshot.getUserPrincipal(), userPrincipal);
+        Assert.assertEquals(snapshot.getProperty("KEY"), "VALUE");
+
+        snapshot.run(() -> {
+            Assert.assertEquals(CarbonContext.getCurrentContext().getProperty("KEY"), "VALUE");
+            PrivilegedCarbonContext.getCurrentContext().setProperty("KEY", "TASK-VALUE");
+        });
+        Assert.assertEquals(snapshot.getProperty("KEY"), "VALUE");
+        Assert.assertEquals(CarbonContext.getCurrentContext().getProperty("KEY"), "NEW-VALUE");
+    }
+
+    @Test
+    public void testExecutorServicePropagatesContext() throws Exception {
+        PrivilegedCarbonContext.getCurrentContext().setUserPrincipal(userPrincipal);
+        PrivilegedCarbonContext.getCurrentContext().setProperty("KEY", "VALUE");
+        ExecutorService contextExecutorService = CarbonContextExecutors.wrap(executorService);
+
+        Future<Principal> principal = contextExecutorService.submit(() ->
+                CarbonContext.getCurrentContext().getUserPrincipal());
+        Assert.assertEquals(principal.get(5, TimeUnit.SECONDS), userPrincipal);
+
+        List<Object> properties = contextExecutorService.invokeAll(Arrays.asList(
+                () -> CarbonContext.getCurrentContext().getProperty("KEY"),
+                () -> CarbonContext.getCurrentContext().getProperty("KEY")))
+                .stream()
+                .map(future -> {
+                    try {
+                        return future.get();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+        Assert.assertEquals(properties, Arrays.asList("VALUE", "VALUE"));
+
+        // The carbon context of the pooled thread is restored once the tasks complete.
+        Future<Principal> pooledThreadPrincipal = executorService.submit(() ->
+                CarbonContext.getCurrentContext().getUserPrincipal());
+        Assert.assertNull(pooledThreadPrincipal.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCompletableFuturePropagatesContext() throws Exception {
+        PrivilegedCarbonContext.getCurrentContext().setUserPrincipal(userPrincipal);
+
+        String userName = CompletableFuture.supplyAsync(() -> CarbonContext.getCurrentContext().getUserPrincipal(),
+                CarbonContextExecutors.wrap((Executor) executorService))
+                .thenApply(Principal::getName)
+                .get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(userName, "test");
+    }
+}
@@ -97,6 +97,24 @@ public class CarbonContextTest {
                 );
     }
 
+    @Test
+    public void testCurrentContextIsCached() throws Exception {
+        try {
+            CarbonContext carbonContext = CarbonContext.getCurrentContext();
+            PrivilegedCarbonContext privilegedCarbonContext = PrivilegedCarbonContext.getCurrentContext();
+            Assert.assertSame(CarbonContext.getCurrentContext(), carbonContext);
+            Assert.assertSame(PrivilegedCarbonContext.getCurrentContext(), privilegedCarbonContext);
+
+            privilegedCarbonContext.setProperty("KEY", "VALUE");
+            PrivilegedCarbonContext.destroyCurrentContext();
+            Assert.assertNotSame(CarbonContext.getCurrentContext(), carbonContext);
+            Assert.assertNotSame(PrivilegedCarbonContext.getCurrentContext(), privilegedCarbonContext);
+            Assert.assertNull(CarbonContext.getCurrentContext().getProperty("KEY"));
+        } finally {
+            PrivilegedCarbonContext.destroyCurrentContext();
+        }
+    }
+
     private class CarbonContextInvoker extends Thread {
         String carbonContextPropertyKey;
         Object carbonContextPropertyValue;
@@ -0,0 +1,120 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.context;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * This class tests the functionality of org.wso2.carbon.kernel.context.ContextKey.
+ *
+ * @since 5.2.0
+ */
+public class ContextKeyTest {
+
+    private static final ContextKey<String> CORRELATION_ID = ContextKey.register("test.correlation.id", String.class);
+    private static final ContextKey<Integer> RETRY_COUNT = ContextKey.register("test.retry.count", Integer.class);
+
+    @AfterMethod
+    public void destroyCurrentContext() {
+        PrivilegedCarbonContext.destroyCurrentContext();
+    }
+
+    @Test
+    public void testRegister() throws Exception {
+        Assert.assertSame(ContextKey.register("test.correlation.id", String.class), CORRELATION_ID);
+        Assert.assertNotEquals(CORRELATION_ID.getSlot(), RETRY_COUNT.getSlot());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRegisterWithDifferentType() throws Exception {
+        ContextKey.register("test.correlation.id", Integer.class);
+    }
+
+    @Test
+    public void testRegisterWithTypeFromDifferentClassLoader() throws Exception {
+        ContextKey<TenantInfo> tenantInfo = ContextKey.register("test.tenant.info", TenantInfo.class);
+        URL testClasses = TenantInfo.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{testClasses},
+                ClassLoader.getSystemClassLoader().getParent())) {
+            Class<?> reloadedType = classLoader.loadClass(TenantInfo.class.getName());
+            Assert.assertNotEquals(reloadedType, TenantInfo.class);
+
+            ContextKey<?> reloadedTenantInfo = ContextKey.register("test.tenant.info", reloadedType);
+            Assert.assertEquals(reloadedTenantInfo.getType(), reloadedType);
+            Assert.assertEquals(reloadedTenantInfo.getSlot(), tenantInfo.getSlot());
+            Assert.assertSame(ContextKey.register("test.tenant.info", reloadedType), reloadedTenantInfo);
+
+            @SuppressWarnings("unchecked")
+            ContextKey<Object> reloadedKey = (ContextKey<Object>) reloadedTenantInfo;
+            PrivilegedCarbonContext.getCurrentContext().set(reloadedKey, reloadedType.newInstance());
+            Assert.assertEquals(CarbonContext.getCurrentContext().get(reloadedKey).getClass(), reloadedType);
+        }
+    }
+
+    @Test
+    public void testTypedProperties() throws Exception {
+        Assert.assertNull(CarbonContext.getCurrentContext().get(CORRELATION_ID));
+
+        PrivilegedCarbonContext.getCurrentContext().set(CORRELATION_ID, "correlation-1");
+        PrivilegedCarbonContext.getCurrentContext().set(RETRY_COUNT, 3);
+        Assert.assertEquals(CarbonContext.getCurrentContext().get(CORRELATION_ID), "correlation-1");
+        Assert.assertEquals(CarbonContext.getCurrentContext().get(RETRY_COUNT), Integer.valueOf(3));
+    }
+
+    @Test
+    public void testStringPropertiesAreSeparateFromTypedProperties() throws Exception {
+        PrivilegedCarbonContext.getCurrentContext().setProperty("test.correlation.id", "correlation-1");
+        Assert.assertNull(CarbonContext.getCurrentContext().get(CORRELATION_ID));
+
+        PrivilegedCarbonContext.getCurrentContext().set(CORRELATION_ID, "correlation-2");
+        Assert.assertEquals(CarbonContext.getCurrentContext().getProperty("test.correlation.id"), "correlation-1");
+        Assert.assertEquals(CarbonContext.getCurrentContext().get(CORRELATION_ID), "correlation-2");
+    }
+
+    @Test
+    public void testStringPropertySetBeforeKeyIsRegistered() throws Exception {
+        PrivilegedCarbonContext.getCurrentContext().setProperty("test.attempt", "three");
+        ContextKey<Integer> attempt = ContextKey.register("test.attempt", Integer.class);
+
+        Assert.assertEquals(CarbonContext.getCurrentContext().getProperty("test.attempt"), "three");
+        PrivilegedCarbonContext.getCurrentContext().setProperty("test.attempt", "four");
+        Assert.assertEquals(CarbonContext.getCurrentContext().getProperty("test.attempt"), "four");
+        Assert.assertNull(CarbonContext.getCurrentContext().get(attempt));
+    }
+
+    @Test
+    public void testSnapshotOfTypedProperties() throws Exception {
+        PrivilegedCarbonContext.getCurrentContext().set(CORRELATION_ID, "correlation-1");
+        CarbonContextSnapshot snapshot = CarbonContextSnapshot.capture();
+        PrivilegedCarbonContext.getCurrentContext().set(CORRELATION_ID, "correlation-2");
+
+        Assert.assertEquals(snapshot.get(CORRELATION_ID), "correlation-1");
+        snapshot.run(() -> Assert.assertEquals(CarbonContext.getCurrentContext().get(CORRELATION_ID),
+                "correlation-1"));
+        Assert.assertEquals(CarbonContext.getCurrentContext().get(CORRELATION_ID), "correlation-2");
+    }
+
+    /**
+     * Value type of a context key, which is loaded again by a different class loader.
+     */
+    public static class TenantInfo {
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.context;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.security.Principal;
+
+/**
+ * This class tests the functionality of org.wso2.carbon.kernel.context.ContextScope.
+ *
+ * @since 5.2.0
+ */
+public class ContextScopeTest {
+
+    private final Principal userPrincipal1 = () -> "test1";
+    private final Principal userPrincipal2 = () -> "test2";
+
+    @AfterMethod
+    public void destroyCurrentContext() {
+        PrivilegedCarbonContext.destroyCurrentContext();
+    }
+
+    @Test
+    public void testNestedScopes() throws Exception {
+        PrivilegedCarbonContext.getCurrentContext().setProperty("KEY", "VALUE");
+
+        try (ContextScope outerScope = PrivilegedCarbonContext.open(userPrincipal1)) {
+            Assert.assertEquals(CarbonContext.getCurrentContext().getUserPrincipal(), userPrincipal1);
+            Assert.assertEquals(CarbonContext.getCurrentContext().getProperty("KEY"), "VALUE");
+            PrivilegedCarbonContext.getCurrentContext().setProperty("KEY", "OUTER-VALUE");
+
+            try (ContextScope innerScope = PrivilegedCarbonContext.open(userPrincipal2)) {
+                Assert.assertEquals(CarbonContext.getCurrentContext().getUserPrincipal(), userPrincipal2);
+                Assert.assertEquals(CarbonContext.getCurrentContext().getProperty("KEY"), "OUTER-VALUE");
+                PrivilegedCarbonContext.getCurrentContext().setProperty("KEY", "INNER-VALUE");
+            }
+
+            Assert.assertEquals(CarbonContext.getCurrentContext().getUserPrincipal(), userPrincipal1);
+            Assert.assertEquals(CarbonContext.getCurrentContext().getProperty("KEY"), "OUTER-VALUE");
+        }
+
+        Assert.assertNull(CarbonContext.getCurrentContext().getUserPrincipal());
+        Assert.assertEquals(CarbonContext.getCurrentContext().getProperty("KEY"), "VALUE");
+    }
+
+    @Test
+    public void testScopeOverridesPrincipalOfPooledThread() throws Exception {
+        PrivilegedCarbonContext.getCurrentContext().setUserPrincipal(userPrincipal1);
+
+        try (ContextScope scope = PrivilegedCarbonContext.open(userPrincipal2)) {
+            Assert.assertEquals(CarbonContext.getCurrentContext().getUserPrincipal(), userPrincipal2);
+        }
+        Assert.assertEquals(CarbonContext.getCurrentContext().getUserPrincipal(), userPrincipal1);
+    }
+
+    @Test
+    public void testPrincipalSetWithinScope() throws Exception {
+        try (ContextScope scope = PrivilegedCarbonContext.open()) {
+            PrivilegedCarbonContext.getCurrentContext().setUserPrincipal(userPrincipal1);
+            Assert.assertEquals(CarbonContext.getCurrentContext().getUserPrincipal(), userPrincipal1);
+        }
+        Assert.assertNull(CarbonContext.getCurrentContext().getUserPrincipal());
+
+        // The principal of the closed scope does not prevent setting a different principal.
+        PrivilegedCarbonContext.getCurrentContext().setUserPrincipal(userPrincipal2);
+        Assert.assertEquals(CarbonContext.getCurrentContext().getUserPrincipal(), userPrincipal2);
+    }
+
+    @Test
+    public void testCloseTwice() throws Exception {
+        ContextScope scope = PrivilegedCarbonContext.open(userPrincipal1);
+        scope.close();
+        scope.close();
+        Assert.assertNull(CarbonContext.getCurrentContext().getUserPrincipal());
+    }
+
+    @Test
+    public void testCloseAfterContextIsDestroyed() throws Exception {
+        PrivilegedCarbonContext.getCurrentContext().setUserPrincipal(userPrincipal1);
+
+        try (ContextScope scope = PrivilegedCarbonContext.open(userPrincipal2)) {
+            PrivilegedCarbonContext.destroyCurrentContext();
+            Assert.assertNull(CarbonContext.getCurrentContext().getUserPrincipal());
+        }
+
+        Assert.assertEquals(CarbonContext.getCurrentContext().getUserPrincipal(), userPrincipal1);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testCloseOutOfOrder() throws Exception {
+        ContextScope outerScope = PrivilegedCarbonContext.open(userPrincipal1);
+        ContextScope innerScope = PrivilegedCarbonContext.open(userPrincipal2);
+        try {
+            outerScope.close();
+        } finally {
+            innerScope.close();
+            outerScope.close();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.runtime;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.kernel.runtime.RuntimeState;
+import org.wso2.carbon.kernel.runtime.RuntimeTransitionResult;
+import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class to test the asynchronous operations of org.wso2.carbon.kernel.internal.runtime.CarbonRuntimeService.
+ *
+ * @since 5.2.0
+ */
+public class CarbonRuntimeServiceTest {
+
+    @Test
+    public void testAsyncOperationsReportRuntimeResults() throws Exception {
+        RuntimeManager runtimeManager = new RuntimeManager();
+        org.wso2.carbon.kernel.runtime.CustomRuntime runtime = new org.wso2.carbon.kernel.runtime.CustomRuntime();
+        runtime.init();
+        runtimeManager.registerRuntime(runtime);
+        CarbonRuntimeService carbonRuntimeService = new CarbonRuntimeService(runtimeManager);
+
+        List<RuntimeTransitionResult> results = carbonRuntimeService.startRuntimesAsync().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(results.size(), 1);
+        Assert.assertEquals(results.get(0).getStatus(), RuntimeTransitionResult.Status.TRANSITIONED);
+        Assert.assertEquals(runtime.getState(), RuntimeState.ACTIVE);
+
+        results = carbonRuntimeService.beginMaintenanceAsync()
+                .thenCompose(ignored -> carbonRuntimeService.startRuntimesAsync())
+                .get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(results.get(0).getStatus(), RuntimeTransitionResult.Status.FAILED);
+        Assert.assertTrue(results.get(0).getFailure() instanceof RuntimeServiceException);
+        Assert.assertEquals(carbonRuntimeService.getRuntimeTransitionResults().length, 1);
+        Assert.assertTrue(carbonRuntimeService.getRuntimeTransitionResults()[0].contains("FAILED [MAINTENANCE]"));
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.runtime;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.kernel.runtime.InFlightWorkTracker;
+import org.wso2.carbon.kernel.runtime.Runtime;
+import org.wso2.carbon.kernel.runtime.RuntimeState;
+import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class to test the lifecycle transitions of org.wso2.carbon.kernel.internal.runtime.ManagedRuntime.
+ *
+ * @since 5.2.0
+ */
+public class ManagedRuntimeTest {
+
+    @Test
+    public void testTransitionMovesRuntimeToTargetState() throws RuntimeServiceException {
+        ManagedRuntime managedRuntime = new ManagedRuntime(new StatefulRuntime(RuntimeState.INACTIVE));
+
+        Assert.assertTrue(managedRuntime.transition(RuntimeTransition.START));
+        Assert.assertEquals(managedRuntime.getRuntime().getState(), RuntimeState.ACTIVE);
+        Assert.assertTrue(managedRuntime.transition(RuntimeTransition.BEGIN_MAINTENANCE));
+        Assert.assertEquals(managedRuntime.getRuntime().getState(), RuntimeState.MAINTENANCE);
+        Assert.assertTrue(managedRuntime.transition(RuntimeTransition.END_MAINTENANCE));
+        Assert.assertEquals(managedRuntime.getRuntime().getState(), RuntimeState.INACTIVE);
+    }
+
+    @Test
+    public void testInapplicableTransitionIsSkipped() throws RuntimeServiceException {
+        ManagedRuntime activeRuntime = new ManagedRuntime(new StatefulRuntime(RuntimeState.ACTIVE));
+        Assert.assertFalse(activeRuntime.transition(RuntimeTransition.START));
+        Assert.assertFalse(activeRuntime.transition(RuntimeTransition.END_MAINTENANCE));
+        Assert.assertEquals(activeRuntime.getRuntime().getState(), RuntimeState.ACTIVE);
+
+        ManagedRuntime inactiveRuntime = new ManagedRuntime(new StatefulRuntime(RuntimeState.INACTIVE));
+        Assert.assertFalse(inactiveRuntime.transition(RuntimeTransition.STOP));
+        Assert.assertFalse(inactiveRuntime.transition(RuntimeTransition.END_MAINTENANCE));
+        Assert.assertEquals(inactiveRuntime.getRuntime().getState(), RuntimeState.INACTIVE);
+    }
+
+    @Test(expectedExceptions = RuntimeServiceException.class)
+    public void testTransitionOfPendingRuntime() throws RuntimeServiceException {
+        new ManagedRuntime(new StatefulRuntime(RuntimeState.PENDING)).transition(RuntimeTransition.STOP);
+    }
+
+    @Test
+    public void testConcurrentTransitionOfSameRuntimeFails() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StatefulRuntime runtime = new StatefulRuntime(RuntimeState.INACTIVE) {
+            @Override
+            public void start() throws RuntimeServiceException {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        ManagedRuntime managedRuntime = new ManagedRuntime(runtime);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> start = executorService.submit(() -> managedRuntime.transition(RuntimeTransition.START));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            try {
+                managedRuntime.transition(RuntimeTransition.BEGIN_MAINTENANCE);
+                Assert.fail("Runtime was transitioned while another transition was in progress");
+            } catch (RuntimeServiceException e) {
+                Assert.assertTrue(e.getMessage().contains(RuntimeTransition.START.name()));
+            }
+            release.countDown();
+
+            Assert.assertTrue(start.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(runtime.getState(), RuntimeState.ACTIVE);
+            Assert.assertTrue(managedRuntime.transition(RuntimeTransition.BEGIN_MAINTENANCE));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBeginMaintenanceTimeoutStillMovesToMaintenance() throws Exception {
+        InFlightWorkTracker inFlightWorkTracker = new InFlightWorkTracker();
+        StatefulRuntime runtime = new StatefulRuntime(RuntimeState.ACTIVE) {
+            @Override
+            public InFlightWorkTracker getInFlightWorkTracker() {
+                return inFlightWorkTracker;
+            }
+        };
+        ManagedRuntime managedRuntime = new ManagedRuntime(runtime);
+        inFlightWorkTracker.enter();
+
+        try {
+            managedRuntime.transition(RuntimeTransition.BEGIN_MAINTENANCE, 50);
+            Assert.fail("Timeout while draining the in-flight work was not reported");
+        } catch (RuntimeServiceException e) {
+            Assert.assertTrue(e.getMessage().contains("1 in-flight work"), e.getMessage());
+        }
+        Assert.assertEquals(runtime.getState(), RuntimeState.MAINTENANCE);
+        inFlightWorkTracker.exit();
+    }
+
+    @Test
+    public void testBeginMaintenanceWaitsForInFlightWorkBeforeMovingToMaintenance() throws Exception {
+        InFlightWorkTracker inFlightWorkTracker = new InFlightWorkTracker();
+        StatefulRuntime runtime = new StatefulRuntime(RuntimeState.ACTIVE) {
+            @Override
+            public InFlightWorkTracker getInFlightWorkTracker() {
+                return inFlightWorkTracker;
+            }
+        };
+        ManagedRuntime managedRuntime = new ManagedRuntime(runtime);
+        inFlightWorkTracker.enter();
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> beginMaintenance = executorService.submit(() ->
+                    managedRuntime.transition(RuntimeTransition.BEGIN_MAINTENANCE, 5000));
+            Thread.sleep(50);
+            Assert.assertEquals(runtime.getState(), RuntimeState.ACTIVE);
+            inFlightWorkTracker.exit();
+            Assert.assertTrue(beginMaintenance.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(runtime.getState(), RuntimeState.MAINTENANCE);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRegistryCanBeModifiedWhileIterating() {
+        RuntimeManager runtimeManager = new RuntimeManager();
+        runtimeManager.registerRuntime(new StatefulRuntime(RuntimeState.INACTIVE));
+        runtimeManager.registerRuntime(new StatefulRuntime(RuntimeState.INACTIVE));
+
+        for (ManagedRuntime managedRuntime : runtimeManager.getManagedRuntimes()) {
+            runtimeManager.unRegisterRuntime(managedRuntime.getRuntime());
+            runtimeManager.registerRuntime(new StatefulRuntime(RuntimeState.INACTIVE));
+        }
+        Assert.assertEquals(runtimeManager.getRuntimeList().size(), 2);
+    }
+
+    /**
+     * Runtime which leaves its state to be updated by the runtime manager.
+     */
+    private static class StatefulRuntime implements Runtime {
+        private volatile RuntimeState state;
+
+        StatefulRuntime(RuntimeState state) {
+            this.state = state;
+        }
+
+        @Override
+        public void init() throws RuntimeServiceException {
+        }
+
+        @Override
+        public void start() throws RuntimeServiceException {
+        }
+
+        @Override
+        public void stop() throws RuntimeServiceException {
+        }
+
+        @Override
+        public void beginMaintenance() throws RuntimeServiceException {
+        }
+
+        @Override
+        public void endMaintenance() throws RuntimeServiceException {
+        }
+
+        @Override
+        public Enum<RuntimeState> getState() {
+            return state;
+        }
+
+        @Override
+        public void setState(RuntimeState runtimeState) {
+            this.state = runtimeState;
+        }
+    }
+}
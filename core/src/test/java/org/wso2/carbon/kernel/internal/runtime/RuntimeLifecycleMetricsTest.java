@@ -0,0 +1,147 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.runtime;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.kernel.runtime.Runtime;
+import org.wso2.carbon.kernel.runtime.RuntimeState;
+import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Test class to test the functionality of org.wso2.carbon.kernel.internal.runtime.RuntimeLifecycleMetrics.
+ *
+ * @since 5.2.0
+ */
+public class RuntimeLifecycleMetricsTest {
+
+    @Test
+    public void testLifecycleOperationsAreRecorded() throws RuntimeServiceException {
+        RuntimeLifecycleMetrics lifecycleMetrics = new RuntimeLifecycleMetrics();
+        ManagedRuntime managedRuntime = new ManagedRuntime(new SampleRuntime(), lifecycleMetrics);
+
+        managedRuntime.transition(RuntimeTransition.START);
+        managedRuntime.transition(RuntimeTransition.STOP);
+        managedRuntime.transition(RuntimeTransition.START);
+
+        List<RuntimeLifecycleStatistics> lifecycleStatistics = lifecycleMetrics.getLifecycleStatistics();
+        Assert.assertEquals(lifecycleStatistics.stream()
+                .map(RuntimeLifecycleStatistics::getOperation)
+                .collect(Collectors.toList()), Arrays.asList("init", "start", "stop"));
+
+        RuntimeLifecycleStatistics startStatistics = lifecycleStatistics.get(1);
+        Assert.assertEquals(startStatistics.getRuntimeClass(), SampleRuntime.class.getName());
+        Assert.assertEquals(startStatistics.getCount(), 2);
+        Assert.assertEquals(startStatistics.getFailureCount(), 0);
+        Assert.assertTrue(startStatistics.getMinNanos() <= startStatistics.getMaxNanos());
+        Assert.assertTrue(startStatistics.getTotalNanos() >= startStatistics.getMaxNanos());
+        Assert.assertEquals(startStatistics.getHistogram().length,
+                lifecycleMetrics.getHistogramBoundsMillis().length + 1);
+        Assert.assertEquals(Arrays.stream(startStatistics.getHistogram()).sum(), 2);
+
+        lifecycleMetrics.reset();
+        Assert.assertTrue(lifecycleMetrics.getLifecycleStatistics().isEmpty());
+    }
+
+    @Test
+    public void testFailedLifecycleOperationIsRecorded() {
+        RuntimeLifecycleMetrics lifecycleMetrics = new RuntimeLifecycleMetrics();
+        ManagedRuntime managedRuntime = new ManagedRuntime(new SampleRuntime() {
+            @Override
+            public void start() throws RuntimeServiceException {
+                throw new RuntimeServiceException("Start failed");
+            }
+        }, lifecycleMetrics);
+
+        try {
+            managedRuntime.transition(RuntimeTransition.START);
+            Assert.fail("Runtime was started although start failed");
+        } catch (RuntimeServiceException e) {
+            Assert.assertEquals(e.getMessage(), "Start failed");
+        }
+
+        RuntimeLifecycleStatistics startStatistics = lifecycleMetrics.getLifecycleStatistics().get(1);
+        Assert.assertEquals(startStatistics.getOperation(), "start");
+        Assert.assertEquals(startStatistics.getCount(), 1);
+        Assert.assertEquals(startStatistics.getFailureCount(), 1);
+    }
+
+    @Test
+    public void testMetricsAreExposedThroughJMX() throws Exception {
+        RuntimeLifecycleMetrics lifecycleMetrics = new RuntimeLifecycleMetrics();
+        new ManagedRuntime(new SampleRuntime(), lifecycleMetrics).transition(RuntimeTransition.START);
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("org.wso2.carbon.test:type=RuntimeLifecycleMetrics");
+        mBeanServer.registerMBean(lifecycleMetrics, objectName);
+        try {
+            CompositeData[] lifecycleStatistics =
+                    (CompositeData[]) mBeanServer.getAttribute(objectName, "LifecycleStatistics");
+            Assert.assertEquals(lifecycleStatistics.length, 2);
+            Assert.assertEquals(lifecycleStatistics[1].get("operation"), "start");
+            Assert.assertEquals(lifecycleStatistics[1].get("count"), 1L);
+            Assert.assertEquals(((long[]) lifecycleStatistics[1].get("histogram")).length,
+                    ((long[]) mBeanServer.getAttribute(objectName, "HistogramBoundsMillis")).length + 1);
+        } finally {
+            mBeanServer.unregisterMBean(objectName);
+        }
+    }
+
+    /**
+     * Runtime which leaves its state to be updated by the runtime manager.
+     */
+    private static class SampleRuntime implements Runtime {
+        private volatile RuntimeState state = RuntimeState.INACTIVE;
+
+        @Override
+        public void init() throws RuntimeServiceException {
+        }
+
+        @Override
+        public void start() throws RuntimeServiceException {
+        }
+
+        @Override
+        public void stop() throws RuntimeServiceException {
+        }
+
+        @Override
+        public void beginMaintenance() throws RuntimeServiceException {
+        }
+
+        @Override
+        public void endMaintenance() throws RuntimeServiceException {
+        }
+
+        @Override
+        public Enum<RuntimeState> getState() {
+            return state;
+        }
+
+        @Override
+        public void setState(RuntimeState runtimeState) {
+            this.state = runtimeState;
+        }
+    }
+}
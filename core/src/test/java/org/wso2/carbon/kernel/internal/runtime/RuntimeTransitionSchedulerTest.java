@@ -0,0 +1,243 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.runtime;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.kernel.runtime.Runtime;
+import org.wso2.carbon.kernel.runtime.RuntimeState;
+import org.wso2.carbon.kernel.runtime.RuntimeTransitionResult;
+import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Test class to test org.wso2.carbon.kernel.internal.runtime.RuntimeTransitionScheduler.
+ *
+ * @since 5.2.0
+ */
+public class RuntimeTransitionSchedulerTest {
+
+    private final List<String> startedRuntimes = new CopyOnWriteArrayList<>();
+
+    @BeforeMethod
+    public void clearStartedRuntimes() {
+        startedRuntimes.clear();
+    }
+
+    @Test
+    public void testRuntimesAreTransitionedInDependencyOrder() throws RuntimeServiceException {
+        for (RuntimeTransitionScheduler scheduler : Arrays.asList(new RuntimeTransitionScheduler(),
+                new RuntimeTransitionScheduler(3, 5000, 0))) {
+            startedRuntimes.clear();
+            List<Runtime> stoppedRuntimes = new CopyOnWriteArrayList<>();
+            DependentRuntime transport = new DependentRuntime("transport", "engine") {
+                @Override
+                public void stop() {
+                    stoppedRuntimes.add(this);
+                }
+            };
+            DependentRuntime engine = new DependentRuntime("engine", "store") {
+                @Override
+                public void stop() {
+                    stoppedRuntimes.add(this);
+                }
+            };
+            DependentRuntime store = new DependentRuntime("store") {
+                @Override
+                public void stop() {
+                    stoppedRuntimes.add(this);
+                }
+            };
+            List<ManagedRuntime> managedRuntimes = manage(transport, engine, store);
+
+            scheduler.transition(managedRuntimes, RuntimeTransition.START, result -> { });
+            Assert.assertEquals(startedRuntimes, Arrays.asList("store", "engine", "transport"));
+
+            scheduler.transition(managedRuntimes, RuntimeTransition.STOP, result -> { });
+            Assert.assertEquals(stoppedRuntimes, Arrays.asList(transport, engine, store));
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testIndependentRuntimesAreStartedInParallel() throws RuntimeServiceException {
+        CountDownLatch latch = new CountDownLatch(2);
+        DependentRuntime first = new LatchRuntime("first", latch);
+        DependentRuntime second = new LatchRuntime("second", latch);
+
+        new RuntimeTransitionScheduler(2, 5000, 0).transition(manage(first, second), RuntimeTransition.START,
+                result -> { });
+        Assert.assertEquals(first.getState(), RuntimeState.ACTIVE);
+        Assert.assertEquals(second.getState(), RuntimeState.ACTIVE);
+    }
+
+    @Test
+    public void testFailuresAreAggregated() {
+        DependentRuntime failing = new DependentRuntime("failing") {
+            @Override
+            public void start() throws RuntimeServiceException {
+                throw new RuntimeServiceException("Failed to bind");
+            }
+        };
+        DependentRuntime dependent = new DependentRuntime("dependent", "failing");
+        DependentRuntime independent = new DependentRuntime("independent");
+
+        try {
+            new RuntimeTransitionScheduler().transition(manage(failing, dependent, independent),
+                    RuntimeTransition.START, result -> { });
+            Assert.fail("Failures of the runtimes were not reported");
+        } catch (RuntimeServiceException e) {
+            Assert.assertEquals(e.getCause().getMessage(), "Failed to bind");
+            Assert.assertEquals(e.getSuppressed().length, 1);
+            Assert.assertTrue(e.getMessage().startsWith("Failed to start 2 of 3 runtimes"), e.getMessage());
+        }
+        Assert.assertEquals(startedRuntimes, Collections.singletonList("independent"));
+        Assert.assertEquals(dependent.getState(), RuntimeState.INACTIVE);
+    }
+
+    @Test
+    public void testAsyncTransitionReportsEachRuntime() throws Exception {
+        DependentRuntime failing = new DependentRuntime("failing") {
+            @Override
+            public void start() throws RuntimeServiceException {
+                throw new RuntimeServiceException("Failed to bind");
+            }
+        };
+        DependentRuntime dependent = new DependentRuntime("dependent", "failing");
+        DependentRuntime independent = new DependentRuntime("independent");
+        List<RuntimeTransitionResult> progress = new CopyOnWriteArrayList<>();
+
+        List<RuntimeTransitionResult> results = new RuntimeTransitionScheduler(2, 0, 0)
+                .transitionAsync(manage(failing, dependent, independent), RuntimeTransition.START, progress::add)
+                .get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(results.stream().map(RuntimeTransitionResult::getStatus).collect(Collectors.toList()),
+                Arrays.asList(RuntimeTransitionResult.Status.FAILED, RuntimeTransitionResult.Status.SKIPPED,
+                        RuntimeTransitionResult.Status.TRANSITIONED));
+        Assert.assertEquals(results.get(2).getState(), RuntimeState.ACTIVE);
+        Assert.assertEquals(new HashSet<>(progress), new HashSet<>(results));
+    }
+
+    @Test(timeOut = 10000)
+    public void testTransitionTimesOut() {
+        CountDownLatch latch = new CountDownLatch(2);
+        try {
+            new RuntimeTransitionScheduler(1, 100, 0).transition(manage(new LatchRuntime("blocked", latch)),
+                    RuntimeTransition.START, result -> { });
+            Assert.fail("Transition of the runtime did not time out");
+        } catch (RuntimeServiceException e) {
+            Assert.assertTrue(e.getMessage().contains("Timed out after 100 ms"), e.getMessage());
+        }
+    }
+
+    @Test(expectedExceptions = RuntimeServiceException.class,
+            expectedExceptionsMessageRegExp = "Cyclic dependencies among runtimes first, second")
+    public void testCyclicDependencies() throws RuntimeServiceException {
+        new RuntimeTransitionScheduler().transition(manage(new DependentRuntime("first", "second"),
+                new DependentRuntime("second", "first")), RuntimeTransition.START, result -> { });
+    }
+
+    private static List<ManagedRuntime> manage(Runtime... runtimes) {
+        List<ManagedRuntime> managedRuntimes = new CopyOnWriteArrayList<>();
+        Arrays.stream(runtimes).forEach(runtime -> managedRuntimes.add(new ManagedRuntime(runtime)));
+        return managedRuntimes;
+    }
+
+    /**
+     * Runtime which records its start and leaves its state to be updated by the runtime manager.
+     */
+    private class DependentRuntime implements Runtime {
+        private final String name;
+        private final Set<String> dependencies;
+        private volatile RuntimeState state = RuntimeState.INACTIVE;
+
+        DependentRuntime(String name, String... dependencies) {
+            this.name = name;
+            this.dependencies = new HashSet<>(Arrays.asList(dependencies));
+        }
+
+        @Override
+        public void init() throws RuntimeServiceException {
+        }
+
+        @Override
+        public void start() throws RuntimeServiceException {
+            startedRuntimes.add(name);
+        }
+
+        @Override
+        public void stop() throws RuntimeServiceException {
+        }
+
+        @Override
+        public void beginMaintenance() throws RuntimeServiceException {
+        }
+
+        @Override
+        public void endMaintenance() throws RuntimeServiceException {
+        }
+
+        @Override
+        public Enum<RuntimeState> getState() {
+            return state;
+        }
+
+        @Override
+        public void setState(RuntimeState runtimeState) {
+            this.state = runtimeState;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Set<String> getDependencies() {
+            return dependencies;
+        }
+    }
+
+    /**
+     * Runtime which completes its start only once the given latch is released.
+     */
+    private class LatchRuntime extends DependentRuntime {
+        private final CountDownLatch latch;
+
+        LatchRuntime(String name, CountDownLatch latch) {
+            super(name);
+            this.latch = latch;
+        }
+
+        @Override
+        public void start() throws RuntimeServiceException {
+            latch.countDown();
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
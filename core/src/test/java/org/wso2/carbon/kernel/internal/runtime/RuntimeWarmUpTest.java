@@ -0,0 +1,100 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.runtime;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.kernel.runtime.WarmUpTask;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class to test the functionality of org.wso2.carbon.kernel.internal.runtime.RuntimeWarmUp.
+ *
+ * @since 5.2.0
+ */
+public class RuntimeWarmUpTest {
+
+    @Test
+    public void testWarmUpTasksAreRun() {
+        AtomicInteger warmUpCount = new AtomicInteger();
+        WarmUpTask failingTask = () -> {
+            throw new IllegalStateException("Warm-up failed");
+        };
+
+        Assert.assertTrue(new RuntimeWarmUp(1, 0).warmUp(Arrays.asList(warmUpCount::incrementAndGet, failingTask,
+                warmUpCount::incrementAndGet)));
+        Assert.assertEquals(warmUpCount.get(), 2);
+        Assert.assertTrue(new RuntimeWarmUp(1, 0).warmUp(Collections.emptyList()));
+    }
+
+    @Test
+    public void testWarmUpTasksAreRunInParallel() {
+        CountDownLatch latch = new CountDownLatch(2);
+        WarmUpTask warmUpTask = () -> {
+            latch.countDown();
+            // Completes only if the other task runs at the same time.
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Warm-up tasks were not run in parallel");
+            }
+        };
+
+        Assert.assertTrue(new RuntimeWarmUp(2, 10000).warmUp(Arrays.asList(warmUpTask, warmUpTask)));
+        Assert.assertEquals(latch.getCount(), 0);
+    }
+
+    @Test
+    public void testIncompleteWarmUpTasksAreInterrupted() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        WarmUpTask blockingTask = () -> {
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        };
+
+        long startTime = System.nanoTime();
+        Assert.assertFalse(new RuntimeWarmUp(1, 100).warmUp(Collections.singletonList(blockingTask)));
+        Assert.assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(10));
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAsyncWarmUpDoesNotBlockCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger warmUpCount = new AtomicInteger();
+        WarmUpTask blockingTask = () -> {
+            if (release.await(5, TimeUnit.SECONDS)) {
+                warmUpCount.incrementAndGet();
+            }
+        };
+
+        CompletableFuture<Boolean> warmUp = new RuntimeWarmUp(1, 0)
+                .warmUpAsync(Collections.singletonList(blockingTask));
+        Assert.assertFalse(warmUp.isDone());
+        release.countDown();
+        Assert.assertTrue(warmUp.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(warmUpCount.get(), 1);
+        Assert.assertTrue(new RuntimeWarmUp(1, 0).warmUpAsync(Collections.emptyList()).isDone());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class tests the functionality of org.wso2.carbon.kernel.internal.startupresolver.DynamicStartupOrderResolver.
+ *
+ * @since 5.2.0
+ */
+public class DynamicStartupOrderResolverTest {
+
+    @Test
+    public void testOnlyBundlesResolvedAfterStartupAreRead() throws Exception {
+        AtomicInteger processedHeaderReadCount = new AtomicInteger();
+        AtomicInteger resolvedHeaderReadCount = new AtomicInteger();
+        Bundle processedBundle = TestBundleFactory.createBundle(20L, "org.sample.processed", 0L, null,
+                processedHeaderReadCount);
+        Bundle resolvedBundle = TestBundleFactory.createBundle(21L, "org.sample.resolved", 0L,
+                "osgi.service;objectClass=\"org.sample.Transport\"", resolvedHeaderReadCount);
+        BundleContext bundleContext = (BundleContext) Proxy.newProxyInstance(BundleContext.class.getClassLoader(),
+                new Class<?>[]{BundleContext.class},
+                (proxy, method, args) -> "getBundles".equals(method.getName()) ?
+                        new Bundle[]{processedBundle, resolvedBundle} : null);
+
+        DynamicStartupOrderResolver dynamicStartupOrderResolver = new DynamicStartupOrderResolver(bundleContext);
+        try {
+            dynamicStartupOrderResolver.start(Collections.singletonList(processedBundle), Collections.emptyList());
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (resolvedHeaderReadCount.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(resolvedHeaderReadCount.get(), 1);
+            Assert.assertEquals(processedHeaderReadCount.get(), 0);
+        } finally {
+            dynamicStartupOrderResolver.stop();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.osgi.framework.Bundle;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.kernel.startupresolver.manifest.ManifestElement;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class tests the functionality of org.wso2.carbon.kernel.internal.startupresolver.ManifestElementCache.
+ *
+ * @since 5.2.0
+ */
+public class ManifestElementCacheTest {
+
+    private static final String HEADER = "startup.listener;componentName=\"carbon-sample-component\";" +
+            "requiredService=\"org.sample.Transport,org.sample.Deployer\", " +
+            "osgi.service;objectClass=\"org.sample.Transport\";serviceCount=\"2\"";
+
+    private File cacheFile;
+
+    @BeforeMethod
+    public void createCacheFile() throws IOException {
+        cacheFile = Files.createTempFile("carbon-component-manifest", ".cache").toFile();
+        Assert.assertTrue(cacheFile.delete());
+    }
+
+    @AfterMethod
+    public void deleteCacheFile() {
+        cacheFile.delete();
+    }
+
+    @Test
+    public void testCachedManifestElements() throws Exception {
+        ManifestElementCache manifestElementCache = ManifestElementCache.load(cacheFile);
+        Bundle bundle = TestBundleFactory.createBundle(10L, "org.sample.bundle", 1000L, HEADER);
+        Bundle bundleWithoutHeader = TestBundleFactory.createBundle(11L, "org.sample.other", 1000L, null);
+        List<ManifestElement> parsedElements = manifestElementCache.getManifestElements(bundle);
+        Assert.assertTrue(manifestElementCache.getManifestElements(bundleWithoutHeader).isEmpty());
+        manifestElementCache.save();
+        Assert.assertTrue(cacheFile.isFile());
+
+        // The header of an unchanged bundle is not parsed again, hence an invalid header value goes unnoticed.
+        Bundle cachedBundle = TestBundleFactory.createBundle(10L, "org.sample.bundle", 1000L,
+                "abc=org.wso2.carbon;something:something,");
+        List<ManifestElement> cachedElements = ManifestElementCache.load(cacheFile)
+                .getManifestElements(cachedBundle);
+
+        Assert.assertEquals(cachedElements.size(), parsedElements.size());
+        for (int i = 0; i < parsedElements.size(); i++) {
+            ManifestElement parsedElement = parsedElements.get(i);
+            ManifestElement cachedElement = cachedElements.get(i);
+            Assert.assertEquals(cachedElement.getManifestHeaderName(), parsedElement.getManifestHeaderName());
+            Assert.assertEquals(cachedElement.toString(), parsedElement.toString());
+            Assert.assertSame(cachedElement.getBundle(), cachedBundle);
+        }
+    }
+
+    @Test
+    public void testUpdatedBundleIsParsed() throws Exception {
+        ManifestElementCache manifestElementCache = ManifestElementCache.load(cacheFile);
+        manifestElementCache.getManifestElements(
+                TestBundleFactory.createBundle(10L, "org.sample.bundle", 1000L, HEADER));
+        manifestElementCache.save();
+
+        Bundle updatedBundle = TestBundleFactory.createBundle(10L, "org.sample.bundle", 2000L,
+                "osgi.service;objectClass=\"org.sample.Updated\"");
+        List<ManifestElement> manifestElements = ManifestElementCache.load(cacheFile)
+                .getManifestElements(updatedBundle);
+
+        Assert.assertEquals(manifestElements.size(), 1);
+        Assert.assertEquals(manifestElements.get(0).getAttribute("objectClass"), "org.sample.Updated");
+    }
+
+    @Test
+    public void testInvalidCacheFileIsIgnored() throws Exception {
+        Files.write(cacheFile.toPath(), new byte[]{1, 2, 3});
+
+        List<ManifestElement> manifestElements = ManifestElementCache.load(cacheFile).getManifestElements(
+                TestBundleFactory.createBundle(10L, "org.sample.bundle", 1000L, HEADER));
+
+        Assert.assertEquals(manifestElements.size(), 2);
+    }
+
+    @Test
+    public void testCorruptedCacheFileIsIgnored() throws Exception {
+        Bundle bundle = TestBundleFactory.createBundle(10L, "org.sample.bundle", 1000L, HEADER);
+        ManifestElementCache manifestElementCache = ManifestElementCache.load(cacheFile);
+        manifestElementCache.getManifestElements(bundle);
+        manifestElementCache.save();
+        byte[] cacheFileContent = Files.readAllBytes(cacheFile.toPath());
+
+        // Truncated file.
+        Files.write(cacheFile.toPath(), Arrays.copyOf(cacheFileContent, cacheFileContent.length - 10));
+        Assert.assertEquals(ManifestElementCache.load(cacheFile).getManifestElements(bundle).size(), 2);
+
+        // Entry count which does not fit in the file.
+        byte[] invalidEntryCount = cacheFileContent.clone();
+        ByteBuffer.wrap(invalidEntryCount).putInt(8, Integer.MAX_VALUE);
+        Files.write(cacheFile.toPath(), invalidEntryCount);
+        Assert.assertEquals(ManifestElementCache.load(cacheFile).getManifestElements(bundle).size(), 2);
+
+        // Negative header length, which follows the bundle id, the names and the last modified time.
+        byte[] invalidHeaderLength = cacheFileContent.clone();
+        int headerLengthOffset = 12 + 8 + 2 + "org.sample.bundle".length() + 2 + bundle.getVersion().toString()
+                .length() + 8;
+        Assert.assertEquals(ByteBuffer.wrap(cacheFileContent).getInt(headerLengthOffset),
+                HEADER.getBytes(StandardCharsets.UTF_8).length);
+        ByteBuffer.wrap(invalidHeaderLength).putInt(headerLengthOffset, -2);
+        Files.write(cacheFile.toPath(), invalidHeaderLength);
+        Assert.assertEquals(ManifestElementCache.load(cacheFile).getManifestElements(bundle).size(), 2);
+
+        // Header length which does not fit in the file.
+        ByteBuffer.wrap(invalidHeaderLength).putInt(headerLengthOffset, Integer.MAX_VALUE);
+        Files.write(cacheFile.toPath(), invalidHeaderLength);
+        Assert.assertEquals(ManifestElementCache.load(cacheFile).getManifestElements(bundle).size(), 2);
+    }
+}
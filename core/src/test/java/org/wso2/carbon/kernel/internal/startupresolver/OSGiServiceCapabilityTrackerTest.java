@@ -0,0 +1,221 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.framework.ServiceReference;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.kernel.internal.DataHolder;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.Capability;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.OSGiServiceCapability;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.StartupComponent;
+import org.wso2.carbon.kernel.startupresolver.CapabilityProvider;
+import org.wso2.carbon.kernel.startupresolver.RequiredCapabilityListener;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class tests the functionality of org.wso2.carbon.kernel.internal.startupresolver.OSGiServiceCapabilityTracker.
+ *
+ * @since 5.2.0
+ */
+public class OSGiServiceCapabilityTrackerTest {
+
+    private StartupComponentManager startupComponentManager;
+
+    private Bundle bundle;
+
+    private ServiceListener serviceListener;
+
+    private String serviceListenerFilter;
+
+    private int getServiceCount;
+
+    private final Map<String, List<ServiceReference<?>>> registeredServices = new HashMap<>();
+
+    @BeforeMethod
+    public void init() {
+        startupComponentManager = new StartupComponentManager();
+        bundle = TestBundleFactory.createBundle("org.wso2.carbon.sample");
+        StartupComponent startupComponent = new StartupComponent("sample-component", bundle);
+        startupComponent.addRequiredService("org.sample.Deployer");
+        startupComponentManager.addStartupComponent(startupComponent);
+        startupComponentManager.addExpectedCapability(new OSGiServiceCapability("org.sample.Deployer",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.EXPECTED, bundle, false));
+        serviceListener = null;
+        serviceListenerFilter = null;
+        getServiceCount = 0;
+        registeredServices.clear();
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        DataHolder.getInstance().setBundleContext(null);
+    }
+
+    @Test
+    public void testTrackServices() throws Exception {
+        DataHolder.getInstance().setBundleContext(createBundleContext());
+        ServiceReference<?> listenerReference = registerService(RequiredCapabilityListener.class.getName(),
+                "sample-component");
+
+        OSGiServiceCapabilityTracker tracker = new OSGiServiceCapabilityTracker(startupComponentManager);
+        tracker.startTracker();
+        Assert.assertNotNull(serviceListener);
+        Assert.assertNull(serviceListenerFilter);
+        Assert.assertNotNull(startupComponentManager.getComponents(component -> true).get(0).getListener());
+        Assert.assertTrue(startupComponentManager.getComponents(StartupComponent::isSatisfiable).isEmpty());
+
+        // A service event of an already tracked service is ignored.
+        serviceListener.serviceChanged(new ServiceEvent(ServiceEvent.MODIFIED, listenerReference));
+        serviceListener.serviceChanged(new ServiceEvent(ServiceEvent.REGISTERED,
+                registerService("org.sample.Unrelated", null)));
+        Assert.assertTrue(startupComponentManager.getComponents(StartupComponent::isSatisfiable).isEmpty());
+
+        serviceListener.serviceChanged(new ServiceEvent(ServiceEvent.REGISTERED,
+                registerService("org.sample.Deployer", null)));
+        Assert.assertEquals(startupComponentManager.getComponents(StartupComponent::isSatisfiable).size(), 1);
+
+        tracker.closeTracker();
+        Assert.assertNull(serviceListener);
+    }
+
+    private ServiceReference<?> registerService(String serviceInterfaceName, String componentName) {
+        return registerService(serviceInterfaceName, componentName, false);
+    }
+
+    private ServiceReference<?> registerService(String serviceInterfaceName, String componentName,
+                                                boolean skipStartupResolver) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(Constants.OBJECTCLASS, new String[]{serviceInterfaceName});
+        properties.put(StartupResolverConstants.COMPONENT_NAME, componentName);
+        properties.put(StartupResolverConstants.SKIP_CARBON_STARTUP_RESOLVER, skipStartupResolver);
+        ServiceReference<?> reference = (ServiceReference<?>) Proxy.newProxyInstance(
+                ServiceReference.class.getClassLoader(), new Class<?>[]{ServiceReference.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getProperty":
+                            return properties.get(args[0]);
+                        case "getBundle":
+                            return bundle;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            return null;
+                    }
+                });
+        registeredServices.computeIfAbsent(serviceInterfaceName, key -> new ArrayList<>()).add(reference);
+        return reference;
+    }
+
+    private BundleContext createBundleContext() {
+        RequiredCapabilityListener listener = () -> {
+        };
+        return (BundleContext) Proxy.newProxyInstance(BundleContext.class.getClassLoader(),
+                new Class<?>[]{BundleContext.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "addServiceListener":
+                            serviceListener = (ServiceListener) args[0];
+                            serviceListenerFilter = args.length > 1 ? (String) args[1] : null;
+                            return null;
+                        case "removeServiceListener":
+                            serviceListener = null;
+                            return null;
+                        case "getServiceReferences":
+                            List<ServiceReference<?>> references = registeredServices.get(args[0]);
+                            return references == null ? null : references.toArray(new ServiceReference<?>[0]);
+                        case "getService":
+                            getServiceCount++;
+                            return listener;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    @Test
+    public void testTrackerFilterStrings() throws Exception {
+        OSGiServiceCapabilityTracker tracker = new OSGiServiceCapabilityTracker(startupComponentManager);
+        Map<String, String> filterStrings = tracker.getTrackerFilterStrings();
+
+        Assert.assertEquals(new ArrayList<>(filterStrings.keySet()), Arrays.asList(CapabilityProvider.class.getName(),
+                "org.sample.Deployer", RequiredCapabilityListener.class.getName()));
+        Assert.assertEquals(filterStrings.get("org.sample.Deployer"), "(objectClass=org.sample.Deployer)");
+        Assert.assertEquals(filterStrings.get(RequiredCapabilityListener.class.getName()),
+                "(objectClass=" + RequiredCapabilityListener.class.getName() + ")");
+    }
+
+    @Test
+    public void testComponentScopedTrackerFilterStrings() throws Exception {
+        OSGiServiceCapabilityTracker tracker = new OSGiServiceCapabilityTracker(startupComponentManager, true);
+        Map<String, String> filterStrings = tracker.getTrackerFilterStrings();
+
+        Assert.assertEquals(filterStrings.size(), 3);
+        Assert.assertEquals(filterStrings.get("org.sample.Deployer"), "(objectClass=org.sample.Deployer)");
+        Assert.assertEquals(filterStrings.get(RequiredCapabilityListener.class.getName()),
+                "(&(objectClass=" + RequiredCapabilityListener.class.getName() + ")" +
+                        "(|(componentName=sample-component)))");
+        Assert.assertEquals(filterStrings.get(CapabilityProvider.class.getName()),
+                "(&(objectClass=" + CapabilityProvider.class.getName() + ")" +
+                        "(|(capabilityName=org.sample.Deployer)))");
+    }
+
+    @Test
+    public void testComponentScopedTrackerListensToTrackedInterfacesOnly() throws Exception {
+        DataHolder.getInstance().setBundleContext(createBundleContext());
+        OSGiServiceCapabilityTracker tracker = new OSGiServiceCapabilityTracker(startupComponentManager, true);
+        tracker.startTracker();
+
+        Assert.assertEquals(serviceListenerFilter, "(|(objectClass=" + CapabilityProvider.class.getName() + ")" +
+                "(objectClass=org.sample.Deployer)(objectClass=" + RequiredCapabilityListener.class.getName() + "))");
+        tracker.closeTracker();
+    }
+
+    @Test
+    public void testSkippedServiceIsNotRetrieved() throws Exception {
+        DataHolder.getInstance().setBundleContext(createBundleContext());
+        OSGiServiceCapabilityTracker tracker = new OSGiServiceCapabilityTracker(startupComponentManager);
+        tracker.startTracker();
+
+        serviceListener.serviceChanged(new ServiceEvent(ServiceEvent.REGISTERED,
+                registerService("org.sample.Deployer", null, true)));
+        Assert.assertEquals(getServiceCount, 0);
+        Assert.assertFalse(startupComponentManager.getComponents(component -> true).get(0).getPendingCapabilities()
+                .isEmpty());
+
+        serviceListener.serviceChanged(new ServiceEvent(ServiceEvent.REGISTERED,
+                registerService("org.sample.Deployer", null)));
+        Assert.assertEquals(getServiceCount, 1);
+        Assert.assertTrue(startupComponentManager.getComponents(component -> true).get(0).getPendingCapabilities()
+                .isEmpty());
+        tracker.closeTracker();
+    }
+}
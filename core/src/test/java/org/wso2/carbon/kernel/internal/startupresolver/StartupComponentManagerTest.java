@@ -0,0 +1,416 @@
+/*
+ *  Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.osgi.framework.Bundle;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.Capability;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.CapabilityProviderCapability;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.StartupComponent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class tests the functionality of org.wso2.carbon.kernel.internal.startupresolver.StartupComponentManager.
+ *
+ * @since 5.2.0
+ */
+public class StartupComponentManagerTest {
+
+    private StartupComponentManager startupComponentManager;
+    private Bundle bundle;
+
+    @BeforeMethod
+    public void init() {
+        startupComponentManager = new StartupComponentManager();
+        bundle = TestBundleFactory.createBundle("org.wso2.carbon.sample");
+    }
+
+    @Test
+    public void testGetComponentsRequiring() throws Exception {
+        StartupComponent componentA = new StartupComponent("component-a", bundle);
+        componentA.addRequiredServices(Arrays.asList("org.sample.X", "org.sample.Y", "org.sample.X"));
+        StartupComponent componentB = new StartupComponent("component-b", bundle);
+        componentB.addRequiredService("org.sample.Y");
+
+        startupComponentManager.addStartupComponent(componentA);
+        startupComponentManager.addStartupComponent(componentB);
+
+        Assert.assertEquals(startupComponentManager.getComponentsRequiring("org.sample.X").size(), 1);
+        Assert.assertSame(startupComponentManager.getComponentsRequiring("org.sample.X").get(0), componentA);
+        Assert.assertEquals(startupComponentManager.getComponentsRequiring("org.sample.Y").size(), 2);
+        Assert.assertTrue(startupComponentManager.getComponentsRequiring("org.sample.Z").isEmpty());
+    }
+
+    @Test
+    public void testDuplicateComponentIsNotIndexed() throws Exception {
+        StartupComponent componentA = new StartupComponent("component-a", bundle);
+        componentA.addRequiredService("org.sample.X");
+        StartupComponent duplicate = new StartupComponent("component-a", bundle);
+        duplicate.addRequiredService("org.sample.X");
+
+        startupComponentManager.addStartupComponent(componentA);
+        startupComponentManager.addStartupComponent(duplicate);
+
+        Assert.assertEquals(startupComponentManager.getComponentsRequiring("org.sample.X").size(), 1);
+    }
+
+    @Test
+    public void testAddRequiredOSGiServiceToComponent() throws Exception {
+        StartupComponent componentA = new StartupComponent("component-a", bundle);
+        startupComponentManager.addStartupComponent(componentA);
+
+        startupComponentManager.addRequiredOSGiServiceToComponent("component-a", "org.sample.X");
+        startupComponentManager.addRequiredOSGiServiceToComponent("component-a", "org.sample.X");
+        startupComponentManager.addRequiredOSGiServiceToComponent("component-unknown", "org.sample.X");
+
+        Assert.assertEquals(startupComponentManager.getComponentsRequiring("org.sample.X").size(), 1);
+    }
+
+    @Test
+    public void testComponentsShareCapabilityIds() throws Exception {
+        StartupComponent componentA = new StartupComponent("component-a", bundle);
+        componentA.addRequiredServices(Arrays.asList("org.sample.X", "org.sample.Y"));
+        StartupComponent componentB = new StartupComponent("component-b", bundle);
+        componentB.addRequiredServices(Arrays.asList("org.sample.Y", "org.sample.Z", "org.sample.Y"));
+
+        startupComponentManager.addStartupComponent(componentA);
+        startupComponentManager.addStartupComponent(componentB);
+
+        Assert.assertEquals(componentA.getRequiredCapabilityIds(), new int[]{0, 1});
+        Assert.assertEquals(componentB.getRequiredCapabilityIds(), new int[]{1, 2});
+        Assert.assertTrue(componentB.isServiceRequired("org.sample.Z"));
+        Assert.assertFalse(componentA.isServiceRequired("org.sample.Z"));
+    }
+
+    @Test
+    public void testCapabilityRequiredAfterIndexingIsTracked() throws Exception {
+        StartupComponent componentA = new StartupComponent("component-a", bundle);
+        componentA.addRequiredService("org.sample.X");
+        componentA.setListener(() -> { });
+        startupComponentManager.addStartupComponent(componentA);
+        startupComponentManager.addRequiredOSGiServiceToComponent("component-a", "org.sample.W");
+
+        startupComponentManager.addExpectedCapability(new Capability("org.sample.W",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.EXPECTED, bundle, false));
+        Assert.assertEquals(componentA.getPendingCapabilities().size(), 1);
+        Assert.assertFalse(componentA.isSatisfiable());
+
+        startupComponentManager.updateCapability(new Capability("org.sample.W",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle, false));
+        Assert.assertTrue(componentA.isSatisfiable());
+    }
+
+    @Test
+    public void testCapabilityIsRoutedToRequiringComponentsOnly() throws Exception {
+        StartupComponent componentA = new StartupComponent("component-a", bundle);
+        componentA.addRequiredService("org.sample.X");
+        StartupComponent componentB = new StartupComponent("component-b", bundle);
+        componentB.addRequiredService("org.sample.Y");
+        startupComponentManager.addStartupComponent(componentA);
+        startupComponentManager.addStartupComponent(componentB);
+
+        startupComponentManager.addExpectedCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.EXPECTED, bundle, false));
+
+        Assert.assertEquals(componentA.getPendingCapabilities().size(), 1);
+        Assert.assertTrue(componentB.getPendingCapabilities().isEmpty());
+    }
+
+    @Test
+    public void testComponentIsSatisfiableOnceExpectedCapabilitiesAreAvailable() throws Exception {
+        StartupComponent componentA = new StartupComponent("component-a", bundle);
+        componentA.addRequiredService("org.sample.X");
+        componentA.setListener(() -> { });
+        startupComponentManager.addStartupComponent(componentA);
+
+        startupComponentManager.addExpectedCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.EXPECTED, bundle, false));
+        startupComponentManager.addExpectedCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.EXPECTED, bundle, false));
+        Assert.assertFalse(componentA.isSatisfiable());
+
+        startupComponentManager.updateCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle, false));
+        Assert.assertEquals(componentA.getPendingCapabilities().size(), 2);
+        Assert.assertFalse(componentA.isSatisfiable());
+
+        startupComponentManager.updateCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle, false));
+        Assert.assertTrue(componentA.getPendingCapabilities().isEmpty());
+        Assert.assertTrue(componentA.isSatisfiable());
+    }
+
+    @Test
+    public void testDirtyComponentIsNotifiedOnCapabilityEvent() throws Exception {
+        AtomicInteger notifiedCount = new AtomicInteger();
+        AtomicInteger dirtyCount = new AtomicInteger();
+        StartupComponent componentA = new StartupComponent("component-a", bundle);
+        componentA.addRequiredService("org.sample.X");
+        componentA.setListener(notifiedCount::incrementAndGet);
+        startupComponentManager.addStartupComponent(componentA);
+        startupComponentManager.addExpectedCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.EXPECTED, bundle, false));
+        startupComponentManager.setDirtyComponentListener(dirtyCount::incrementAndGet);
+
+        startupComponentManager.notifyDirtyComponents();
+        Assert.assertEquals(notifiedCount.get(), 0);
+        Assert.assertTrue(startupComponentManager.hasPendingComponents());
+
+        startupComponentManager.updateCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle, false));
+        Assert.assertEquals(dirtyCount.get(), 1);
+
+        startupComponentManager.notifyDirtyComponents();
+        Assert.assertEquals(notifiedCount.get(), 1);
+        Assert.assertTrue(componentA.isSatisfied());
+        Assert.assertFalse(startupComponentManager.hasPendingComponents());
+
+        // A satisfied component is neither marked as dirty nor notified again.
+        startupComponentManager.updateCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle, false));
+        startupComponentManager.notifyDirtyComponents();
+        Assert.assertEquals(dirtyCount.get(), 1);
+        Assert.assertEquals(notifiedCount.get(), 1);
+    }
+
+    @Test
+    public void testUnrequiredReportedServiceIsNotRecordedInTimeline() throws Exception {
+        StartupTimeline timeline = new StartupTimeline(0);
+        startupComponentManager.setStartupTimeline(timeline);
+        StartupComponent componentA = new StartupComponent("component-timeline", bundle);
+        componentA.addRequiredService("org.sample.X");
+        componentA.setListener(() -> { });
+        startupComponentManager.addStartupComponent(componentA);
+        startupComponentManager.addExpectedCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.EXPECTED, bundle, false));
+        startupComponentManager.updateCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle, false));
+
+        startupComponentManager.updateServiceCache("component-timeline", "org.sample.Unrelated");
+        startupComponentManager.notifyDirtyComponents();
+
+        String report = timeline.getCriticalPathReport();
+        Assert.assertTrue(report.contains("capability org.sample.X from bundle(org.wso2.carbon.sample"), report);
+    }
+
+    @Test
+    public void testCountedCapability() throws Exception {
+        StartupComponent componentA = new StartupComponent("component-a", bundle);
+        componentA.addRequiredService("org.sample.X");
+        componentA.setListener(() -> { });
+        startupComponentManager.addStartupComponent(componentA);
+
+        Capability expectedCapability = new Capability("org.sample.X", Capability.CapabilityType.OSGi_SERVICE,
+                Capability.CapabilityState.EXPECTED, bundle, false);
+        expectedCapability.setCount(1000);
+        startupComponentManager.addExpectedCapability(expectedCapability);
+        Assert.assertEquals(componentA.getPendingCapabilities().size(), 1);
+        Assert.assertEquals(componentA.getPendingCapabilities().get(0).getCount(), 1000);
+
+        for (int i = 0; i < 999; i++) {
+            startupComponentManager.updateCapability(new Capability("org.sample.X",
+                    Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle, false));
+        }
+        Assert.assertEquals(componentA.getPendingCapabilities().stream()
+                .filter(capability -> capability.getState() == Capability.CapabilityState.EXPECTED)
+                .mapToLong(Capability::getCount)
+                .sum(), 1);
+        Assert.assertFalse(componentA.isSatisfiable());
+
+        startupComponentManager.updateCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle, false));
+        Assert.assertTrue(componentA.isSatisfiable());
+    }
+
+    @Test
+    public void testAvailableCapabilitiesAreMatchedWithCountedCapability() throws Exception {
+        StartupComponent componentA = new StartupComponent("component-a", bundle);
+        componentA.addRequiredService("org.sample.X");
+        componentA.setListener(() -> { });
+        startupComponentManager.addStartupComponent(componentA);
+
+        for (int i = 0; i < 3; i++) {
+            startupComponentManager.updateCapability(new Capability("org.sample.X",
+                    Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle, false));
+        }
+        Assert.assertTrue(componentA.isSatisfiable());
+
+        Capability expectedCapability = new Capability("org.sample.X", Capability.CapabilityType.OSGi_SERVICE,
+                Capability.CapabilityState.EXPECTED, bundle, false);
+        expectedCapability.setCount(4);
+        startupComponentManager.addExpectedCapability(expectedCapability);
+        Assert.assertEquals(componentA.getPendingCapabilities().size(), 2);
+        Assert.assertFalse(componentA.isSatisfiable());
+
+        startupComponentManager.updateCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle, false));
+        Assert.assertTrue(componentA.isSatisfiable());
+    }
+
+    @Test
+    public void testDirectDependencyWaitsForReportedServices() throws Exception {
+        StartupComponent componentA = new StartupComponent("component-c", bundle);
+        componentA.addRequiredService("org.sample.Direct");
+        componentA.setListener(() -> { });
+        startupComponentManager.addStartupComponent(componentA);
+
+        startupComponentManager.updateCapability(new Capability("org.sample.Direct",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle, true));
+        Assert.assertFalse(componentA.isSatisfiable());
+
+        componentA.updateAvailableServiceCount("org.sample.Direct", 1);
+        Assert.assertTrue(componentA.isSatisfiable());
+        componentA.updateAvailableServiceCount("org.sample.Direct", 0);
+        Assert.assertTrue(componentA.isSatisfiable());
+    }
+
+    @Test
+    public void testParallelListenerNotification() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+        AtomicInteger notifiedCount = new AtomicInteger();
+        for (String componentName : Arrays.asList("component-p1", "component-p2")) {
+            StartupComponent startupComponent = new StartupComponent(componentName, bundle);
+            startupComponent.setListener(() -> {
+                latch.countDown();
+                try {
+                    // Both the listeners have to run at the same time to return immediately.
+                    if (latch.await(10, TimeUnit.SECONDS)) {
+                        notifiedCount.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            startupComponentManager.addStartupComponent(startupComponent);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            startupComponentManager.setListenerNotificationExecutor(executor);
+            startupComponentManager.notifySatisfiableComponents();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(notifiedCount.get(), 2);
+        Assert.assertTrue(startupComponentManager.getComponents(StartupComponent::isPending).isEmpty());
+        Assert.assertFalse(startupComponentManager.hasPendingComponents());
+    }
+
+    @Test
+    public void testSlowListenerDoesNotDelayOtherComponents() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger notifiedCount = new AtomicInteger();
+        AtomicInteger checkCount = new AtomicInteger();
+        StartupComponent slowComponent = new StartupComponent("component-slow", bundle);
+        slowComponent.setListener(() -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        startupComponentManager.addStartupComponent(slowComponent);
+        StartupComponent componentB = new StartupComponent("component-b", bundle);
+        componentB.addRequiredService("org.sample.X");
+        componentB.setListener(notifiedCount::incrementAndGet);
+        startupComponentManager.addStartupComponent(componentB);
+        startupComponentManager.addExpectedCapability(new Capability("org.sample.X",
+                Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.EXPECTED, bundle, false));
+        startupComponentManager.setDirtyComponentListener(checkCount::incrementAndGet);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            startupComponentManager.setListenerNotificationExecutor(executor);
+            // Returns while the slow listener is still running.
+            startupComponentManager.notifySatisfiableComponents();
+            Assert.assertTrue(slowComponent.isSatisfied());
+            Assert.assertTrue(startupComponentManager.hasPendingComponents());
+
+            startupComponentManager.updateCapability(new Capability("org.sample.X",
+                    Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle, false));
+            startupComponentManager.notifyDirtyComponents();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (notifiedCount.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(notifiedCount.get(), 1);
+            Assert.assertTrue(startupComponentManager.hasPendingComponents());
+
+            release.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        Assert.assertFalse(startupComponentManager.hasPendingComponents());
+        // A check is requested on the capability event and once each listener returns.
+        Assert.assertEquals(checkCount.get(), 3);
+    }
+
+    @Test
+    public void testConcurrentCapabilityProviderUpdates() throws Exception {
+        StartupComponent startupComponent = new StartupComponent("component-providers", bundle);
+        startupComponent.setListener(() -> { });
+        int threadCount = 8;
+        int providerCount = 1000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threadCount; thread++) {
+                int threadIndex = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int index = 0; index < providerCount; index++) {
+                        String providedCapabilityName = "org.sample.Provided" + threadIndex + "." + index;
+                        startupComponent.addExpectedOrAvailableCapabilityProvider(new CapabilityProviderCapability(
+                                "org.sample.Provider", Capability.CapabilityType.OSGi_SERVICE,
+                                Capability.CapabilityState.EXPECTED, providedCapabilityName, bundle));
+                        startupComponent.addExpectedOrAvailableCapabilityProvider(new CapabilityProviderCapability(
+                                "org.sample.Provider", Capability.CapabilityType.OSGi_SERVICE,
+                                Capability.CapabilityState.AVAILABLE, providedCapabilityName, bundle));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertTrue(startupComponent.getPendingCapabilityProviders().isEmpty());
+        Assert.assertTrue(startupComponent.isSatisfiable());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.osgi.framework.Bundle;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.OSGiServiceCapability;
+import org.wso2.carbon.kernel.startupresolver.manifest.ManifestElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This class tests the functionality of org.wso2.carbon.kernel.internal.startupresolver.StartupOrderResolverUtils.
+ *
+ * @since 5.2.0
+ */
+public class StartupOrderResolverUtilsTest {
+
+    @Test
+    public void testGetManifestElementsPreservesBundleOrder() throws Exception {
+        List<Bundle> bundleList = new ArrayList<>();
+        List<String> expectedObjectClasses = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            if (i % 10 == 0) {
+                bundleList.add(TestBundleFactory.createBundle("org.sample.bundle" + i));
+                continue;
+            }
+            bundleList.add(TestBundleFactory.createBundle("org.sample.bundle" + i,
+                    "osgi.service;objectClass=\"org.sample.Service" + i + "A\", " +
+                            "osgi.service;objectClass=\"org.sample.Service" + i + "B\""));
+            expectedObjectClasses.add("org.sample.Service" + i + "A");
+            expectedObjectClasses.add("org.sample.Service" + i + "B");
+        }
+
+        List<ManifestElement> manifestElements = StartupOrderResolverUtils.getManifestElements(bundleList);
+
+        Assert.assertEquals(manifestElements.stream()
+                .map(manifestElement -> manifestElement.getAttribute("objectClass"))
+                .collect(Collectors.toList()), expectedObjectClasses);
+        Assert.assertSame(manifestElements.get(0).getBundle(), bundleList.get(1));
+    }
+
+    @Test
+    public void testGetOSGiServiceCapabilityWithServiceCount() throws Exception {
+        Bundle bundle = TestBundleFactory.createBundle("org.sample.bundle",
+                "osgi.service;objectClass=\"org.sample.A\";serviceCount=\"1000\";" +
+                        "requiredByComponentName=\"component-a\", " +
+                        "osgi.service;objectClass=\"org.sample.B\";serviceCount=\"0\"");
+        List<ManifestElement> manifestElements = StartupOrderResolverUtils.getManifestElements(bundle);
+
+        OSGiServiceCapability capability = StartupOrderResolverUtils.getOSGiServiceCapability(
+                manifestElements.get(0)).orElseThrow(AssertionError::new);
+        Assert.assertEquals(capability.getCount(), 1000);
+        Assert.assertFalse(capability.isDirectDependency());
+        Assert.assertEquals(capability.getRequiredByComponentNames(), Arrays.asList("component-a"));
+        Assert.assertFalse(StartupOrderResolverUtils.getOSGiServiceCapability(manifestElements.get(1)).isPresent());
+    }
+
+    @Test(expectedExceptions = StartOrderResolverException.class)
+    public void testGetManifestElementsWithInvalidHeader() throws Exception {
+        List<Bundle> bundleList = Arrays.asList(
+                TestBundleFactory.createBundle("org.sample.valid", "osgi.service;objectClass=\"org.sample.A\""),
+                TestBundleFactory.createBundle("org.sample.invalid", "abc=org.wso2.carbon;something:something,"));
+
+        StartupOrderResolverUtils.getManifestElements(bundleList);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class tests the functionality of org.wso2.carbon.kernel.internal.startupresolver.StartupServiceCache.
+ *
+ * @since 5.2.0
+ */
+public class StartupServiceCacheTest {
+
+    @Test
+    public void testUpdate() throws Exception {
+        StartupServiceCache serviceCache = StartupServiceCache.getInstance();
+        serviceCache.update("cache-test-component", Runnable.class);
+        serviceCache.update("cache-test-component", Runnable.class);
+        serviceCache.update("cache-test-component", Comparable.class);
+
+        Assert.assertEquals(serviceCache.getServiceCount("cache-test-component", Runnable.class.getName()), 2);
+        Assert.assertEquals(serviceCache.getServiceCount("cache-test-component", Comparable.class.getName()), 1);
+        Assert.assertEquals(serviceCache.getServiceCount("cache-test-component", Object.class.getName()), 0);
+        Assert.assertEquals(serviceCache.getServiceCount("unknown-component", Runnable.class.getName()), 0);
+
+        Map<String, Long> availableServices = serviceCache.getAvailableService("cache-test-component");
+        Assert.assertEquals(availableServices.size(), 2);
+        Assert.assertEquals(availableServices.get(Runnable.class.getName()), Long.valueOf(2));
+        Assert.assertTrue(serviceCache.getAvailableService("unknown-component").isEmpty());
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        StartupServiceCache serviceCache = StartupServiceCache.getInstance();
+        serviceCache.update("cache-removed-component", Runnable.class);
+        serviceCache.remove("cache-removed-component");
+
+        Assert.assertEquals(serviceCache.getServiceCount("cache-removed-component", Runnable.class.getName()), 0);
+        serviceCache.update("cache-removed-component", Runnable.class);
+        Assert.assertEquals(serviceCache.getServiceCount("cache-removed-component", Runnable.class.getName()), 1);
+    }
+
+    @Test
+    public void testUpdateAfterReleaseAndReset() throws Exception {
+        StartupServiceCache serviceCache = StartupServiceCache.getInstance();
+        serviceCache.update("cache-released-component", Runnable.class);
+        try {
+            serviceCache.release();
+            Assert.assertEquals(serviceCache.getServiceCount("cache-released-component", Runnable.class.getName()), 0);
+            serviceCache.update("cache-released-component", Runnable.class);
+            Assert.assertEquals(serviceCache.getServiceCount("cache-released-component", Runnable.class.getName()), 0);
+        } finally {
+            // The startup order resolver resets the cache when it starts again.
+            serviceCache.reset();
+        }
+
+        serviceCache.update("cache-released-component", Runnable.class);
+        Assert.assertEquals(serviceCache.getServiceCount("cache-released-component", Runnable.class.getName()), 1);
+    }
+
+    @Test
+    public void testConcurrentUpdate() throws Exception {
+        StartupServiceCache serviceCache = StartupServiceCache.getInstance();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> serviceCache.update("cache-concurrent-component", Runnable.class));
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(serviceCache.getServiceCount("cache-concurrent-component", Runnable.class.getName()),
+                1000);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.osgi.framework.Bundle;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class tests the functionality of org.wso2.carbon.kernel.internal.startupresolver.StartupTimeline.
+ *
+ * @since 5.2.0
+ */
+public class StartupTimelineTest {
+
+    @Test
+    public void testCriticalPath() throws Exception {
+        Bundle datasourceBundle = TestBundleFactory.createBundle("org.sample.datasource");
+        Bundle registryBundle = TestBundleFactory.createBundle("org.sample.registry");
+        Bundle transportBundle = TestBundleFactory.createBundle("org.sample.transport");
+        Bundle deployerBundle = TestBundleFactory.createBundle("org.sample.deployer");
+
+        StartupTimeline timeline = new StartupTimeline(0);
+        timeline.recordListenerRegistered("datasource-mgt", datasourceBundle, millis(10));
+        timeline.recordListenerRegistered("registry-mgt", registryBundle, millis(10));
+        timeline.recordListenerRegistered("transport-mgt", transportBundle, millis(20));
+        timeline.recordListenerRegistered("deployer-mgt", deployerBundle, millis(20));
+
+        timeline.recordNotificationStarted("datasource-mgt", millis(30));
+        timeline.recordNotificationStarted("deployer-mgt", millis(30));
+        timeline.recordCapabilityAvailable("registry-mgt", "org.sample.DataSource", datasourceBundle, millis(500));
+        timeline.recordNotificationFinished("datasource-mgt", millis(510));
+        timeline.recordNotificationFinished("deployer-mgt", millis(100));
+
+        timeline.recordNotificationStarted("registry-mgt", millis(520));
+        timeline.recordCapabilityAvailable("transport-mgt", "org.sample.Registry", registryBundle, millis(600));
+        timeline.recordCapabilityAvailable("transport-mgt", "org.sample.Deployer", deployerBundle, millis(90));
+        timeline.recordNotificationFinished("registry-mgt", millis(610));
+
+        timeline.recordNotificationStarted("transport-mgt", millis(620));
+        timeline.recordNotificationFinished("transport-mgt", millis(700));
+
+        Assert.assertEquals(timeline.getCriticalPath(),
+                Arrays.asList("datasource-mgt", "registry-mgt", "transport-mgt"));
+
+        String report = timeline.getCriticalPathReport();
+        Assert.assertTrue(report.contains("0.700 sec"), report);
+        Assert.assertTrue(report.contains("capability org.sample.Registry from bundle(org.sample.registry"), report);
+    }
+
+    @Test
+    public void testCapabilityBundleIsKeptWhenReportedWithoutBundle() throws Exception {
+        Bundle datasourceBundle = TestBundleFactory.createBundle("org.sample.datasource");
+        Bundle registryBundle = TestBundleFactory.createBundle("org.sample.registry");
+
+        StartupTimeline timeline = new StartupTimeline(0);
+        timeline.recordListenerRegistered("datasource-mgt", datasourceBundle, millis(10));
+        timeline.recordListenerRegistered("registry-mgt", registryBundle, millis(10));
+        timeline.recordNotificationStarted("datasource-mgt", millis(20));
+        timeline.recordCapabilityAvailable("registry-mgt", "org.sample.DataSource", datasourceBundle, millis(100));
+        timeline.recordCapabilityAvailable("registry-mgt", "org.sample.DataSource", null, millis(110));
+        timeline.recordNotificationFinished("datasource-mgt", millis(120));
+        timeline.recordNotificationStarted("registry-mgt", millis(130));
+        timeline.recordNotificationFinished("registry-mgt", millis(140));
+
+        Assert.assertEquals(timeline.getCriticalPath(), Arrays.asList("datasource-mgt", "registry-mgt"));
+    }
+
+    @Test
+    public void testEmptyCriticalPath() throws Exception {
+        StartupTimeline timeline = new StartupTimeline(0);
+        timeline.recordListenerRegistered("datasource-mgt", TestBundleFactory.createBundle("org.sample"), 10);
+
+        Assert.assertTrue(timeline.getCriticalPath().isEmpty());
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
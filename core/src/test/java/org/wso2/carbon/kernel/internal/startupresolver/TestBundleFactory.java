@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.Version;
+
+import java.lang.reflect.Proxy;
+import java.util.Hashtable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates minimal {@link Bundle} instances to be used by the startup order resolver tests.
+ *
+ * @since 5.2.0
+ */
+class TestBundleFactory {
+
+    private TestBundleFactory() {
+    }
+
+    /**
+     * Returns a {@link Bundle} which only supports the symbolic name, version and identity based equality.
+     *
+     * @param symbolicName symbolic name of the bundle
+     * @return a new {@link Bundle} instance
+     */
+    static Bundle createBundle(String symbolicName) {
+        return createBundle(symbolicName, null);
+    }
+
+    /**
+     * Returns a {@link Bundle} which only supports the symbolic name, version, identity based equality and the
+     * Carbon-Component manifest header.
+     *
+     * @param symbolicName          symbolic name of the bundle
+     * @param carbonComponentHeader value of the Carbon-Component header, or null if the header is not present
+     * @return a new {@link Bundle} instance
+     */
+    static Bundle createBundle(String symbolicName, String carbonComponentHeader) {
+        return createBundle(1L, symbolicName, 0L, carbonComponentHeader);
+    }
+
+    /**
+     * Returns a {@link Bundle} which only supports the bundle id, symbolic name, version, last modified time, identity
+     * based equality and the Carbon-Component manifest header.
+     *
+     * @param bundleId              id of the bundle
+     * @param symbolicName          symbolic name of the bundle
+     * @param lastModified          last modified time of the bundle
+     * @param carbonComponentHeader value of the Carbon-Component header, or null if the header is not present
+     * @return a new {@link Bundle} instance
+     */
+    static Bundle createBundle(long bundleId, String symbolicName, long lastModified, String carbonComponentHeader) {
+        return createBundle(bundleId, symbolicName, lastModified, carbonComponentHeader, new AtomicInteger());
+    }
+
+    /**
+     * Returns an ACTIVE {@link Bundle} which only supports the bundle id, symbolic name, version, last modified time,
+     * identity based equality and the Carbon-Component manifest header, and counts the manifest header reads.
+     *
+     * @param bundleId              id of the bundle
+     * @param symbolicName          symbolic name of the bundle
+     * @param lastModified          last modified time of the bundle
+     * @param carbonComponentHeader value of the Carbon-Component header, or null if the header is not present
+     * @param headerReadCount       counter which is incremented whenever the manifest headers are read
+     * @return a new {@link Bundle} instance
+     */
+    static Bundle createBundle(long bundleId, String symbolicName, long lastModified, String carbonComponentHeader,
+                               AtomicInteger headerReadCount) {
+        Hashtable<String, String> headers = new Hashtable<>();
+        if (carbonComponentHeader != null) {
+            headers.put(StartupResolverConstants.CARBON_COMPONENT_HEADER, carbonComponentHeader);
+        }
+
+        return (Bundle) Proxy.newProxyInstance(Bundle.class.getClassLoader(), new Class<?>[]{Bundle.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getSymbolicName":
+                            return symbolicName;
+                        case "getVersion":
+                            return Version.emptyVersion;
+                        case "getBundleId":
+                            return bundleId;
+                        case "getLastModified":
+                            return lastModified;
+                        case "getState":
+                            return Bundle.ACTIVE;
+                        case "getHeaders":
+                            headerReadCount.incrementAndGet();
+                            return headers;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return symbolicName;
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver.beans;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * This class tests the functionality of org.wso2.carbon.kernel.internal.startupresolver.beans.CapabilitySymbolTable.
+ *
+ * @since 5.2.0
+ */
+public class CapabilitySymbolTableTest {
+
+    @Test
+    public void testIntern() throws Exception {
+        CapabilitySymbolTable capabilitySymbolTable = new CapabilitySymbolTable();
+
+        Assert.assertEquals(capabilitySymbolTable.intern("org.sample.X"), 0);
+        Assert.assertEquals(capabilitySymbolTable.intern("org.sample.Y"), 1);
+        Assert.assertEquals(capabilitySymbolTable.intern("org.sample.X"), 0);
+        Assert.assertEquals(capabilitySymbolTable.size(), 2);
+        Assert.assertEquals(capabilitySymbolTable.getName(1), "org.sample.Y");
+    }
+
+    @Test
+    public void testGetId() throws Exception {
+        CapabilitySymbolTable capabilitySymbolTable = new CapabilitySymbolTable();
+        capabilitySymbolTable.intern("org.sample.X");
+
+        Assert.assertEquals(capabilitySymbolTable.getId("org.sample.X"), 0);
+        Assert.assertEquals(capabilitySymbolTable.getId("org.sample.Y"), CapabilitySymbolTable.UNKNOWN_ID);
+        Assert.assertEquals(capabilitySymbolTable.size(), 1);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.runtime;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class to test org.wso2.carbon.kernel.runtime.InFlightWorkTracker.
+ *
+ * @since 5.2.0
+ */
+public class InFlightWorkTrackerTest {
+
+    @Test
+    public void testInFlightCountFromConcurrentThreads() throws Exception {
+        InFlightWorkTracker inFlightWorkTracker = new InFlightWorkTracker();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        CountDownLatch entered = new CountDownLatch(4);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 4; i++) {
+                executorService.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        inFlightWorkTracker.enter();
+                        inFlightWorkTracker.exit();
+                    }
+                    inFlightWorkTracker.enter();
+                    entered.countDown();
+                    release.await();
+                    inFlightWorkTracker.exit();
+                    return null;
+                });
+            }
+            Assert.assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(inFlightWorkTracker.getInFlightCount(), 4);
+            Assert.assertFalse(inFlightWorkTracker.awaitQuiescence(10, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+            Assert.assertTrue(inFlightWorkTracker.awaitQuiescence(5, TimeUnit.SECONDS));
+            Assert.assertEquals(inFlightWorkTracker.getInFlightCount(), 0);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAwaitQuiescenceIsInterruptible() throws Exception {
+        InFlightWorkTracker inFlightWorkTracker = new InFlightWorkTracker();
+        inFlightWorkTracker.enter();
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> quiescence = executorService.submit(() ->
+                    inFlightWorkTracker.awaitQuiescence(1, TimeUnit.MINUTES));
+            Thread.sleep(20);
+            quiescence.cancel(true);
+            executorService.shutdown();
+            Assert.assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -22,6 +22,12 @@ import org.wso2.carbon.kernel.internal.runtime.RuntimeManager;
 import org.wso2.carbon.kernel.runtime.exception.RuntimeServiceException;
 import org.wso2.carbon.kernel.runtime.service.CustomRuntimeService;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Runtime Service Test class.
  *
@@ -91,7 +97,7 @@ public class RuntimeServiceTest {
         }
     }
 
-    @Test(dependsOnMethods = {"testStartBeforeInitRuntime"})
+    @Test(dependsOnMethods = {"testEndMaintenanceBeforeInitRuntime"})
     public void testInitRuntime() throws RuntimeServiceException {
         for (Runtime runtime : runtimeManager.getRuntimeList()) {
             runtime.init();
@@ -153,4 +159,69 @@ public class RuntimeServiceTest {
         }
     }
 
+    @Test
+    public void testDefaultAsyncMethodsCallBlockingMethods() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        RuntimeService runtimeService = new BlockingRuntimeService(calls, false);
+
+        Assert.assertTrue(runtimeService.startRuntimesAsync().get(5, TimeUnit.SECONDS).isEmpty());
+        Assert.assertTrue(runtimeService.beginMaintenanceAsync().get(5, TimeUnit.SECONDS).isEmpty());
+        Assert.assertTrue(runtimeService.endMaintenanceAsync().get(5, TimeUnit.SECONDS).isEmpty());
+        Assert.assertTrue(runtimeService.stopRuntimesAsync().get(5, TimeUnit.SECONDS).isEmpty());
+        Assert.assertEquals(calls.get(), 4);
+    }
+
+    @Test
+    public void testDefaultAsyncMethodCompletesExceptionallyOnFailure() throws Exception {
+        RuntimeService runtimeService = new BlockingRuntimeService(new AtomicInteger(), true);
+        try {
+            runtimeService.startRuntimesAsync().get(5, TimeUnit.SECONDS);
+            Assert.fail("The future should complete exceptionally");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RuntimeServiceException);
+        }
+    }
+
+    /**
+     * A runtime service which implements only the blocking methods.
+     */
+    private static class BlockingRuntimeService implements RuntimeService {
+        private final AtomicInteger calls;
+        private final boolean fail;
+
+        BlockingRuntimeService(AtomicInteger calls, boolean fail) {
+            this.calls = calls;
+            this.fail = fail;
+        }
+
+        @Override
+        public void startRuntimes() throws RuntimeServiceException {
+            call();
+        }
+
+        @Override
+        public void stopRuntimes() throws RuntimeServiceException {
+            call();
+        }
+
+        @Override
+        public void beginMaintenance() throws RuntimeServiceException {
+            call();
+        }
+
+        @Override
+        public void endMaintenance() throws RuntimeServiceException {
+            call();
+        }
+
+        private void call() throws RuntimeServiceException {
+            calls.incrementAndGet();
+            Assert.assertFalse(ForkJoinPool.commonPool().equals(ForkJoinTask.getPool()),
+                    "The blocking method should not be called in the common pool");
+            Assert.assertTrue(Thread.currentThread().isDaemon());
+            if (fail) {
+                throw new RuntimeServiceException("Failed to transition the runtimes");
+            }
+        }
+    }
 }
@@ -18,6 +18,7 @@ package org.wso2.carbon.kernel.startupresolver.manifest;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -85,4 +86,41 @@ public class ManifestElementTest {
             Assert.assertTrue(false);
         }
     }
+
+    @Test
+    public void testParseHeaderWithMultipleElements() throws ManifestElementParserException {
+        String key = "startup.listener;componentName=\"carbon-runtime-mgt\";" +
+                "requiredService=\"org.wso2.carbon.kernel.runtime.Runtime\",\n " +
+                "osgi.service;objectClass=\"org.wso2.carbon.kernel.runtime.RuntimeService\";serviceCount=2;" +
+                "serviceCount=\"3\", code1.jar;\"code ; 2.jar\";attr=\"a \\\"quoted\\\" value\"";
+        List<ManifestElement> elements = ManifestElement.parseHeader(PROVIDE_CAPABILITY, key, null);
+
+        Assert.assertEquals(elements.size(), 3);
+        Assert.assertEquals(elements.get(0).getValue(), "startup.listener");
+        Assert.assertEquals(Collections.list(elements.get(0).getKeys()),
+                Arrays.asList("componentName", "requiredService"));
+        Assert.assertEquals(elements.get(0).getAttribute("componentName"), "carbon-runtime-mgt");
+        Assert.assertEquals(elements.get(1).getAttribute("objectClass"),
+                "org.wso2.carbon.kernel.runtime.RuntimeService");
+        Assert.assertEquals(elements.get(1).getAttributes("serviceCount"), new String[]{"2", "3"});
+        Assert.assertEquals(elements.get(1).getAttribute("serviceCount"), "3");
+        Assert.assertEquals(elements.get(2).getValue(), "code1.jar;code ; 2.jar");
+        Assert.assertEquals(elements.get(2).getAttribute("attr"), "a \"quoted\" value");
+        Assert.assertNull(elements.get(2).getDirectiveKeys());
+    }
+
+    @Test
+    public void testParseHeaderReusesWellKnownKeys() throws ManifestElementParserException {
+        String key = "osgi.service;objectClass=\"org.wso2.carbon.kernel.runtime.RuntimeService\"";
+        List<ManifestElement> elements = ManifestElement.parseHeader(PROVIDE_CAPABILITY, key, null);
+
+        String parsedKey = Collections.list(elements.get(0).getKeys()).get(0);
+        Assert.assertSame(parsedKey, ManifestElement.parseHeader(PROVIDE_CAPABILITY, key, null).get(0)
+                .getKeys().nextElement());
+    }
+
+    @Test(expectedExceptions = ManifestElementParserException.class)
+    public void testParseHeaderWithEmptyQuotedValue() throws ManifestElementParserException {
+        ManifestElement.parseHeader(PROVIDE_CAPABILITY, "osgi.service;objectClass=\"\"", null);
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.benchmarks.context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.kernel.context.CarbonContext;
+import org.wso2.carbon.kernel.context.ContextKey;
+import org.wso2.carbon.kernel.context.PrivilegedCarbonContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link CarbonContext} operations invoked on every request processed by a Carbon server, i.e. looking
+ * up the context of the current thread, reading a property and setting a property through the
+ * {@link PrivilegedCarbonContext}.
+ * <p>
+ * The state is per thread, as the Carbon context is stored in a thread local, hence the benchmarks can be run with
+ * multiple threads as well. Run with the GC profiler to see the allocations made per operation. Looking up the current
+ * context returns the view cached in the context holder of the thread, hence {@code getCurrentContext} and
+ * {@code getPrivilegedCurrentContext} are expected to report about 0 B/op.
+ * <p>
+ * The {@code getTypedProperty} and {@code setTypedProperty} benchmarks access a property through a {@link ContextKey},
+ * which is stored in an array slot instead of a hash map.
+ * <pre>
+ * java -jar tests/benchmarks/target/benchmarks.jar CarbonContextBenchmark -prof gc -t 4
+ * </pre>
+ *
+ * @since 5.2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarbonContextBenchmark {
+
+    private static final String PROPERTY_NAME = "benchmark-property";
+    private static final ContextKey<Object> PROPERTY_KEY = ContextKey.register("benchmark-typed-property",
+            Object.class);
+
+    private Object propertyValue;
+
+    @Setup
+    public void setup() {
+        propertyValue = new Object();
+        PrivilegedCarbonContext.getCurrentContext().setProperty(PROPERTY_NAME, propertyValue);
+        PrivilegedCarbonContext.getCurrentContext().set(PROPERTY_KEY, propertyValue);
+    }
+
+    @TearDown
+    public void tearDown() {
+        PrivilegedCarbonContext.destroyCurrentContext();
+    }
+
+    @Benchmark
+    public CarbonContext getCurrentContext() {
+        return CarbonContext.getCurrentContext();
+    }
+
+    @Benchmark
+    public PrivilegedCarbonContext getPrivilegedCurrentContext() {
+        return PrivilegedCarbonContext.getCurrentContext();
+    }
+
+    @Benchmark
+    public Object getProperty() {
+        return CarbonContext.getCurrentContext().getProperty(PROPERTY_NAME);
+    }
+
+    @Benchmark
+    public void setProperty() {
+        PrivilegedCarbonContext.getCurrentContext().setProperty(PROPERTY_NAME, propertyValue);
+    }
+
+    @Benchmark
+    public Object getTypedProperty() {
+        return CarbonContext.getCurrentContext().get(PROPERTY_KEY);
+    }
+
+    @Benchmark
+    public void setTypedProperty() {
+        PrivilegedCarbonContext.getCurrentContext().set(PROPERTY_KEY, propertyValue);
+    }
+}
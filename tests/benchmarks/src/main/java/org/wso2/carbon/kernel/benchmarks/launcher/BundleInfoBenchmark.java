@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.benchmarks.launcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.launcher.extensions.model.BundleInfo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing a bundles.info line into a {@link BundleInfo}, and the {@code equals} and {@code hashCode} methods
+ * used when the bundles in the lib directory are merged with the existing bundles.info entries at server startup.
+ * <pre>
+ * java -jar tests/benchmarks/target/benchmarks.jar BundleInfoBenchmark -prof gc
+ * </pre>
+ *
+ * @since 5.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BundleInfoBenchmark {
+
+    private static final String BUNDLES_INFO_LINE =
+            "org.wso2.carbon.sample.transport.mgt,5.2.8.SNAPSHOT,../../lib/org.wso2.carbon.sample.transport.mgt" +
+                    "-5.2.8-SNAPSHOT.jar,4,true";
+
+    private BundleInfo bundleInfo;
+
+    private BundleInfo equalBundleInfo;
+
+    @Setup
+    public void setup() {
+        bundleInfo = BundleInfo.getInstance(BUNDLES_INFO_LINE);
+        equalBundleInfo = BundleInfo.getInstance(BUNDLES_INFO_LINE);
+    }
+
+    @Benchmark
+    public BundleInfo getInstance() {
+        return BundleInfo.getInstance(BUNDLES_INFO_LINE);
+    }
+
+    @Benchmark
+    public boolean bundleInfoEquals() {
+        return bundleInfo.equals(equalBundleInfo);
+    }
+
+    @Benchmark
+    public int bundleInfoHashCode() {
+        return bundleInfo.hashCode();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.benchmarks.launcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.launcher.extensions.OSGiLibBundleDeployerUtils;
+import org.wso2.carbon.launcher.extensions.model.BundleInfo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+/**
+ * Measures {@link OSGiLibBundleDeployerUtils#getBundlesInfo(Path)}, which reads the manifest of every bundle in the
+ * lib directory of a Carbon server at each startup.
+ * <p>
+ * The lib directory is generated with {@code bundleCount} bundles, each containing a manifest and a class file sized
+ * entry, so that the manifest is not the only entry of the jar.
+ * <pre>
+ * java -jar tests/benchmarks/target/benchmarks.jar OSGiLibBundleDeployerUtilsBenchmark -prof gc
+ * </pre>
+ *
+ * @since 5.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OSGiLibBundleDeployerUtilsBenchmark {
+
+    /**
+     * Number of bundles in the lib directory.
+     */
+    @Param({"10", "100", "1000"})
+    private int bundleCount;
+
+    private Path libDirectory;
+
+    @Setup
+    public void setup() throws IOException {
+        libDirectory = Files.createTempDirectory("carbon-benchmark-lib");
+        byte[] classFile = new byte[4 * 1024];
+        for (int i = 0; i < bundleCount; i++) {
+            String symbolicName = "org.wso2.carbon.sample.bundle" + i;
+            Manifest manifest = new Manifest();
+            Attributes attributes = manifest.getMainAttributes();
+            attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            attributes.putValue("Bundle-ManifestVersion", "2");
+            attributes.putValue("Bundle-SymbolicName", symbolicName + ";singleton:=true");
+            attributes.putValue("Bundle-Version", "1.0.0");
+            attributes.putValue("Export-Package", symbolicName + ";version=\"1.0.0\"");
+
+            try (OutputStream out = Files.newOutputStream(libDirectory.resolve(symbolicName + "-1.0.0.jar"));
+                 JarOutputStream jarOut = new JarOutputStream(out, manifest)) {
+                jarOut.putNextEntry(new JarEntry(symbolicName.replace('.', '/') + "/Sample.class"));
+                jarOut.write(classFile);
+                jarOut.closeEntry();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(libDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<BundleInfo> getBundlesInfo() throws IOException {
+        return OSGiLibBundleDeployerUtils.getBundlesInfo(libDirectory);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.benchmarks.startupresolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.BundleException;
+import org.wso2.carbon.kernel.startupresolver.manifest.ManifestElement;
+import org.wso2.carbon.kernel.startupresolver.manifest.ManifestElementParserException;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Carbon-Component manifest header parser in {@link ManifestElement} against the Equinox
+ * {@code org.eclipse.osgi.util.ManifestElement} parser, from which it is derived.
+ * <p>
+ * The headers are built from the kind of entries found in Carbon bundles, i.e. startup listener components,
+ * CapabilityProvider services and OSGi services required by other components. Run with the GC profiler to compare the
+ * allocation rates as well.
+ * <pre>
+ * java -jar tests/benchmarks/target/benchmarks.jar ManifestElementBenchmark -prof gc
+ * </pre>
+ *
+ * @since 5.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ManifestElementBenchmark {
+
+    private static final String HEADER_NAME = "Carbon-Component";
+
+    /**
+     * Number of manifest elements in the parsed header.
+     */
+    @Param({"3", "30", "300"})
+    private int elementCount;
+
+    private String header;
+
+    @Setup
+    public void setup() {
+        header = createHeader(elementCount);
+    }
+
+    @Benchmark
+    public List<ManifestElement> carbonManifestElement() throws ManifestElementParserException {
+        return ManifestElement.parseHeader(HEADER_NAME, header, null);
+    }
+
+    @Benchmark
+    public org.eclipse.osgi.util.ManifestElement[] equinoxManifestElement() throws BundleException {
+        return org.eclipse.osgi.util.ManifestElement.parseHeader(HEADER_NAME, header);
+    }
+
+    /**
+     * Creates a Carbon-Component header value with the given number of manifest elements.
+     *
+     * @param elementCount number of manifest elements
+     * @return the header value
+     */
+    static String createHeader(int elementCount) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < elementCount; i++) {
+            if (i > 0) {
+                builder.append(",\n ");
+            }
+
+            switch (i % 3) {
+                case 0:
+                    builder.append("startup.listener;componentName=\"carbon-sample-component-").append(i)
+                            .append("\";requiredService=\"org.wso2.carbon.sample.component").append(i)
+                            .append(".Transport,org.wso2.carbon.sample.component").append(i).append(".Deployer\"");
+                    break;
+                case 1:
+                    builder.append("osgi.service;objectClass=\"org.wso2.carbon.kernel.startupresolver.")
+                            .append("CapabilityProvider\";capabilityName=\"org.wso2.carbon.sample.component")
+                            .append(i).append(".Transport\"");
+                    break;
+                default:
+                    builder.append("osgi.service;objectClass=\"org.wso2.carbon.sample.component").append(i)
+                            .append(".Deployer\";serviceCount=\"4\";requiredByComponentName=")
+                            .append("\"carbon-sample-component-").append(i).append(", carbon-sample-deployer\"");
+                    break;
+            }
+        }
+        return builder.toString();
+    }
+}
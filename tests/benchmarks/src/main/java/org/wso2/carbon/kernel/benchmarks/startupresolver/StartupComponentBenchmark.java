@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.benchmarks.startupresolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.Capability;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.CapabilitySymbolTable;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.OSGiServiceCapability;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.StartupComponent;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link StartupComponent#getPendingCapabilities()} and {@link StartupComponent#isSatisfiable()}, which
+ * the startup order resolver invokes for the startup listener components on every capability event, and when logging
+ * the pending components.
+ * <p>
+ * The component requires {@code capabilityCount} OSGi services, one instance each, and {@code pendingPercentage} of
+ * them are not available yet.
+ * <pre>
+ * java -jar tests/benchmarks/target/benchmarks.jar StartupComponentBenchmark -prof gc
+ * </pre>
+ *
+ * @since 5.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StartupComponentBenchmark {
+
+    /**
+     * Number of OSGi services required by the component.
+     */
+    @Param({"10", "100", "1000"})
+    private int capabilityCount;
+
+    /**
+     * Percentage of the required OSGi services which are not available yet.
+     */
+    @Param({"0", "10", "100"})
+    private int pendingPercentage;
+
+    private StartupComponent startupComponent;
+
+    @Setup
+    public void setup() {
+        startupComponent = new StartupComponent("carbon-sample-component", null);
+        for (int i = 0; i < capabilityCount; i++) {
+            startupComponent.addRequiredService(getServiceName(i));
+        }
+        startupComponent.setCapabilitySymbolTable(new CapabilitySymbolTable());
+        startupComponent.setListener(() -> {
+        });
+
+        int availableCount = capabilityCount - capabilityCount * pendingPercentage / 100;
+        for (int i = 0; i < capabilityCount; i++) {
+            startupComponent.addExpectedCapability(new OSGiServiceCapability(getServiceName(i),
+                    Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.EXPECTED, null, true));
+            if (i < availableCount) {
+                startupComponent.updateCapability(new OSGiServiceCapability(getServiceName(i),
+                        Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, null));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Capability> getPendingCapabilities() {
+        return startupComponent.getPendingCapabilities();
+    }
+
+    @Benchmark
+    public boolean isSatisfiable() {
+        return startupComponent.isSatisfiable();
+    }
+
+    private static String getServiceName(int index) {
+        return "org.wso2.carbon.sample.component" + index + ".Service";
+    }
+}
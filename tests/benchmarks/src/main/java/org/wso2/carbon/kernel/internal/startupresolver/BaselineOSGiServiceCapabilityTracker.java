@@ -0,0 +1,135 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+import org.osgi.util.tracker.ServiceTracker;
+import org.osgi.util.tracker.ServiceTrackerCustomizer;
+import org.wso2.carbon.kernel.internal.DataHolder;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.Capability;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.CapabilityProviderCapability;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.OSGiServiceCapability;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.StartupComponent;
+import org.wso2.carbon.kernel.startupresolver.CapabilityProvider;
+import org.wso2.carbon.kernel.startupresolver.RequiredCapabilityListener;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverConstants.CAPABILITY_NAME;
+import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverConstants.COMPONENT_NAME;
+import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverConstants.OBJECT_CLASS;
+import static org.wso2.carbon.kernel.internal.startupresolver.StartupResolverConstants.SKIP_CARBON_STARTUP_RESOLVER;
+
+/**
+ * Copy of the {@code OSGiServiceCapabilityTracker} which preceded the objectClass indexed service listener, used as
+ * the baseline of {@link ServiceTrackerBenchmark}. It tracks all the required services, the
+ * {@code RequiredCapabilityListener} services and the {@code CapabilityProvider} services with a single
+ * ServiceTracker, whose (|(objectClass=A)(objectClass=B)...) filter is evaluated for every service event.
+ *
+ * @since 5.2.0
+ */
+class BaselineOSGiServiceCapabilityTracker {
+
+    private StartupComponentManager startupComponentManager;
+    private ServiceTracker<Object, Object> capabilityServiceTracker;
+
+    BaselineOSGiServiceCapabilityTracker(StartupComponentManager startupComponentManager) {
+        this.startupComponentManager = startupComponentManager;
+    }
+
+    void startTracker() {
+        List<String> requiredServiceList = startupComponentManager.getComponents(StartupComponent::isPending)
+                .stream()
+                .flatMap(startupComponent -> startupComponent.getRequiredServices().stream())
+                .distinct()
+                .collect(Collectors.toList());
+        requiredServiceList.add(RequiredCapabilityListener.class.getName());
+        requiredServiceList.add(CapabilityProvider.class.getName());
+
+        StringBuilder orFilterBuilder = new StringBuilder("(|");
+        requiredServiceList.forEach(service ->
+                orFilterBuilder.append("(").append(OBJECT_CLASS).append("=").append(service).append(")"));
+        orFilterBuilder.append(")");
+
+        try {
+            capabilityServiceTracker = new ServiceTracker<>(DataHolder.getInstance().getBundleContext(),
+                    DataHolder.getInstance().getBundleContext().createFilter(orFilterBuilder.toString()),
+                    new CapabilityServiceTrackerCustomizer());
+        } catch (InvalidSyntaxException e) {
+            throw new StartOrderResolverException("Error occurred while creating the service filter", e);
+        }
+        capabilityServiceTracker.open();
+    }
+
+    void closeTracker() {
+        capabilityServiceTracker.close();
+        capabilityServiceTracker = null;
+        startupComponentManager = null;
+    }
+
+    /**
+     * Handles the registered {@code RequiredCapabilityListener} services, {@code CapabilityProvider} services and
+     * all the other required services, as the previous tracker did.
+     */
+    private class CapabilityServiceTrackerCustomizer implements ServiceTrackerCustomizer<Object, Object> {
+
+        @Override
+        public Object addingService(ServiceReference<Object> reference) {
+            Object serviceObject = DataHolder.getInstance().getBundleContext().getService(reference);
+            String serviceInterfaceClassName = ((String[]) reference.getProperty(OBJECT_CLASS))[0];
+            Bundle bundle = reference.getBundle();
+
+            if (RequiredCapabilityListener.class.getName().equals(serviceInterfaceClassName)) {
+                startupComponentManager.addRequiredCapabilityListener((RequiredCapabilityListener) serviceObject,
+                        (String) reference.getProperty(COMPONENT_NAME), bundle);
+            } else if (CapabilityProvider.class.getName().equals(serviceInterfaceClassName)) {
+                String capabilityName = ((String) reference.getProperty(CAPABILITY_NAME)).trim();
+                startupComponentManager.addExpectedOrAvailableCapabilityProvider(new CapabilityProviderCapability(
+                        CapabilityProvider.class.getName(), Capability.CapabilityType.OSGi_SERVICE,
+                        Capability.CapabilityState.AVAILABLE, capabilityName, bundle));
+
+                CapabilityProvider provider = (CapabilityProvider) serviceObject;
+                if (provider.getCount() > 0) {
+                    OSGiServiceCapability providedCapability = new OSGiServiceCapability(capabilityName,
+                            Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.EXPECTED, bundle,
+                            true);
+                    providedCapability.setCount(provider.getCount());
+                    startupComponentManager.addExpectedCapability(providedCapability);
+                }
+            } else {
+                if (Boolean.TRUE.equals(reference.getProperty(SKIP_CARBON_STARTUP_RESOLVER))) {
+                    return null;
+                }
+
+                startupComponentManager.updateCapability(new OSGiServiceCapability(serviceInterfaceClassName,
+                        Capability.CapabilityType.OSGi_SERVICE, Capability.CapabilityState.AVAILABLE, bundle,
+                        false));
+            }
+            return serviceObject;
+        }
+
+        @Override
+        public void modifiedService(ServiceReference<Object> reference, Object service) {
+        }
+
+        @Override
+        public void removedService(ServiceReference<Object> reference, Object service) {
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.kernel.internal.startupresolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceFactory;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.framework.launch.Framework;
+import org.osgi.framework.launch.FrameworkFactory;
+import org.wso2.carbon.kernel.internal.DataHolder;
+import org.wso2.carbon.kernel.internal.startupresolver.beans.StartupComponent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of registering and unregistering OSGi services which are not required by any startup listener
+ * component, while the startup order resolver tracks the required services, in an embedded Equinox framework.
+ * <p>
+ * The {@code current} tracker is the {@code OSGiServiceCapabilityTracker} of the startup order resolver, which
+ * registers a single service listener without a filter and looks up the objectClass of every service event. The
+ * {@code baseline} tracker is {@code BaselineOSGiServiceCapabilityTracker}, a copy of the previous tracker, which
+ * tracks all the required services with a single ServiceTracker and an (|(objectClass=A)(objectClass=B)...) filter
+ * evaluated for every service event. Both of them get the bundle context of the embedded framework from the
+ * {@code DataHolder}, and update the same kind of {@code StartupComponentManager}.
+ * <p>
+ * This benchmark is in the package of the startup order resolver, since the trackers are package private.
+ * <pre>
+ * java -jar tests/benchmarks/target/benchmarks.jar ServiceTrackerBenchmark
+ * </pre>
+ *
+ * @since 5.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceTrackerBenchmark {
+
+    private static final int UNRELATED_SERVICE_COUNT = 1000;
+
+    /**
+     * Number of service interfaces required by the startup listener components.
+     */
+    @Param({"10", "100", "1000"})
+    private int requiredServiceCount;
+
+    @Param({"baseline", "current"})
+    private String tracker;
+
+    private Framework framework;
+
+    private BundleContext bundleContext;
+
+    private OSGiServiceCapabilityTracker capabilityTracker;
+
+    private BaselineOSGiServiceCapabilityTracker baselineCapabilityTracker;
+
+    private final List<ServiceRegistration<?>> serviceRegistrations = new ArrayList<>(UNRELATED_SERVICE_COUNT);
+
+    /**
+     * A ServiceFactory can be registered under any interface name, without loading the interface class.
+     */
+    private final ServiceFactory<Object> serviceObject = new ServiceFactory<Object>() {
+
+        @Override
+        public Object getService(Bundle bundle, ServiceRegistration<Object> registration) {
+            return new Object();
+        }
+
+        @Override
+        public void ungetService(Bundle bundle, ServiceRegistration<Object> registration, Object service) {
+        }
+    };
+
+    @Setup
+    public void setup() throws BundleException, IOException {
+        Map<String, String> frameworkConfig = new HashMap<>();
+        frameworkConfig.put(Constants.FRAMEWORK_STORAGE,
+                Files.createTempDirectory("carbon-benchmark-osgi").toString());
+        frameworkConfig.put(Constants.FRAMEWORK_STORAGE_CLEAN, Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+        framework = ServiceLoader.load(FrameworkFactory.class).iterator().next().newFramework(frameworkConfig);
+        framework.start();
+        bundleContext = framework.getBundleContext();
+        DataHolder.getInstance().setBundleContext(bundleContext);
+
+        // Ten components, which require a distinct share of the required services each and never become satisfied.
+        StartupComponentManager startupComponentManager = new StartupComponentManager();
+        for (int componentIndex = 0; componentIndex < 10; componentIndex++) {
+            StartupComponent startupComponent = new StartupComponent("carbon-sample-component-" + componentIndex,
+                    framework);
+            for (int i = componentIndex; i < requiredServiceCount; i += 10) {
+                startupComponent.addRequiredService(getRequiredServiceName(i));
+            }
+            startupComponentManager.addStartupComponent(startupComponent);
+        }
+
+        if ("baseline".equals(tracker)) {
+            baselineCapabilityTracker = new BaselineOSGiServiceCapabilityTracker(startupComponentManager);
+            baselineCapabilityTracker.startTracker();
+        } else {
+            capabilityTracker = new OSGiServiceCapabilityTracker(startupComponentManager);
+            capabilityTracker.startTracker();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws BundleException, InterruptedException {
+        if (baselineCapabilityTracker != null) {
+            baselineCapabilityTracker.closeTracker();
+        }
+        if (capabilityTracker != null) {
+            capabilityTracker.closeTracker();
+        }
+        DataHolder.getInstance().setBundleContext(null);
+        framework.stop();
+        framework.waitForStop(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UNRELATED_SERVICE_COUNT)
+    public void registerUnrelatedServices() {
+        for (int i = 0; i < UNRELATED_SERVICE_COUNT; i++) {
+            serviceRegistrations.add(bundleContext.registerService("org.sample.unrelated.Service" + (i % 100),
+                    serviceObject, null));
+        }
+        serviceRegistrations.forEach(ServiceRegistration::unregister);
+        serviceRegistrations.clear();
+    }
+
+    private static String getRequiredServiceName(int index) {
+        return "org.sample.required.Service" + index;
+    }
+}
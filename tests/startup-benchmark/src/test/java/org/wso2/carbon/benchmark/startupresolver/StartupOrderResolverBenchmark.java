@@ -0,0 +1,131 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.benchmark.startupresolver;
+
+import org.ops4j.pax.exam.Configuration;
+import org.ops4j.pax.exam.ExamFactory;
+import org.ops4j.pax.exam.Option;
+import org.ops4j.pax.exam.spi.reactors.ExamReactorStrategy;
+import org.ops4j.pax.exam.spi.reactors.PerClass;
+import org.ops4j.pax.exam.testng.listener.PaxExam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import org.wso2.carbon.container.CarbonContainerFactory;
+import org.wso2.carbon.sample.startup.benchmark.StartupBenchmarkRecorder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+
+import static org.ops4j.pax.exam.CoreOptions.maven;
+import static org.ops4j.pax.exam.CoreOptions.systemProperty;
+import static org.wso2.carbon.container.options.CarbonDistributionOption.copyFile;
+import static org.wso2.carbon.container.options.CarbonDistributionOption.copyOSGiLibBundle;
+
+/**
+ * Measures how the Startup Order Resolver scales with the number of startup listener components and capabilities.
+ * <p>
+ * Synthetic bundles forming a component graph of the shape and the scale given by the startup.benchmark.shape and
+ * startup.benchmark.scale system properties are generated and copied to the lib directory of the Carbon distribution.
+ * Once all the RequiredCapabilityListeners are notified, the time from JVM start to the last notification, the CPU
+ * time of the Startup Order Resolver threads and the heap used are reported, and appended to the report file.
+ *
+ * @since 5.2.0
+ */
+@Listeners(PaxExam.class)
+@ExamReactorStrategy(PerClass.class)
+@ExamFactory(CarbonContainerFactory.class)
+public class StartupOrderResolverBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(StartupOrderResolverBenchmark.class);
+
+    private static final String SCALE_PROPERTY = "startup.benchmark.scale";
+    private static final String SHAPE_PROPERTY = "startup.benchmark.shape";
+    private static final String DIRECTORY_PROPERTY = "startup.benchmark.directory";
+    private static final String LISTENER_COUNT_PROPERTY = "startup.benchmark.listener.count";
+    private static final String REPORT_FILE_PROPERTY = "startup.benchmark.report";
+    private static final String REPORT_HEADER = "shape,scale,timeToAllSatisfiedMillis,resolverCpuMillis,heapUsedMB";
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    @Inject
+    private StartupBenchmarkRecorder recorder;
+
+    @Configuration
+    public Option[] createConfiguration() throws IOException {
+        String shape = System.getProperty(SHAPE_PROPERTY, SyntheticBundleGenerator.GraphShape.FAN_IN.toString());
+        int scale = Integer.getInteger(SCALE_PROPERTY, 1000);
+        Path directory = Paths.get(System.getProperty(DIRECTORY_PROPERTY, Paths.get("target", "startup-benchmark")
+                .toString())).toAbsolutePath();
+
+        SyntheticBundleGenerator generator = new SyntheticBundleGenerator(
+                SyntheticBundleGenerator.GraphShape.fromName(shape), scale);
+        List<Option> options = new ArrayList<>();
+        generator.generate(directory.resolve(shape + "-" + scale))
+                .forEach(bundle -> options.add(copyFile(bundle, Paths.get("lib", bundle.getFileName().toString()))));
+        options.add(copyOSGiLibBundle(maven().artifactId("org.wso2.carbon.sample.startup.benchmark")
+                .groupId("org.wso2.carbon").versionAsInProject()));
+        options.add(systemProperty(SHAPE_PROPERTY).value(shape));
+        options.add(systemProperty(SCALE_PROPERTY).value(String.valueOf(scale)));
+        options.add(systemProperty(LISTENER_COUNT_PROPERTY).value(String.valueOf(generator.getListenerCount())));
+        options.add(systemProperty(REPORT_FILE_PROPERTY).value(directory.resolve("report.csv").toString()));
+        return options.toArray(new Option[options.size()]);
+    }
+
+    @Test
+    public void testStartupOrderResolverScalability() throws InterruptedException, IOException {
+        int listenerCount = Integer.getInteger(LISTENER_COUNT_PROPERTY);
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (recorder.getNotifiedListenerCount() < listenerCount && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        Assert.assertEquals(recorder.getNotifiedListenerCount(), listenerCount,
+                "All the synthetic startup listener components should be satisfied");
+
+        long timeToAllSatisfied = recorder.getLastNotificationTime() -
+                ManagementFactory.getRuntimeMXBean().getStartTime();
+        long resolverCpuTime = TimeUnit.NANOSECONDS.toMillis(recorder.getNotificationThreadCpuTime());
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        memoryMXBean.gc();
+        long heapUsed = memoryMXBean.getHeapMemoryUsage().getUsed() / (1024 * 1024);
+
+        String shape = System.getProperty(SHAPE_PROPERTY);
+        String scale = System.getProperty(SCALE_PROPERTY);
+        logger.info("Startup Order Resolver benchmark, shape: {}, scale: {}, time to all satisfied: {} ms, " +
+                "resolver CPU time: {} ms, heap used: {} MB", shape, scale, timeToAllSatisfied, resolverCpuTime,
+                heapUsed);
+
+        Path reportFile = Paths.get(System.getProperty(REPORT_FILE_PROPERTY));
+        if (!Files.exists(reportFile)) {
+            Files.write(reportFile, Collections.singletonList(REPORT_HEADER), StandardCharsets.UTF_8);
+        }
+        Files.write(reportFile, Collections.singletonList(String.join(",", shape, scale,
+                String.valueOf(timeToAllSatisfied), String.valueOf(resolverCpuTime), String.valueOf(heapUsed))),
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ *  Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.benchmark.startupresolver;
+
+import org.wso2.carbon.sample.startup.benchmark.SyntheticBundleExtender;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Generates synthetic bundles with Carbon-Component headers, which form a startup listener component graph of the
+ * given shape and scale.
+ * <p>
+ * Synthetic bundles contain only a manifest and an empty service interface. The services, CapabilityProviders and
+ * RequiredCapabilityListeners are registered on behalf of them by the {@link SyntheticBundleExtender}.
+ *
+ * @since 5.2.0
+ */
+class SyntheticBundleGenerator {
+
+    private static final String PREFIX = "org.wso2.carbon.sample.startup.benchmark.synthetic";
+    private static final String ROOT_SERVICE = PREFIX + ".root.RootService";
+    private static final String FAN_IN_SERVICE = PREFIX + ".fanin.FanInService";
+    private static final String PROVIDED_SERVICE = PREFIX + ".provider.ProvidedService";
+    private static final String CAPABILITY_PROVIDER = "org.wso2.carbon.kernel.startupresolver.CapabilityProvider";
+
+    /**
+     * Shape of the startup listener component graph.
+     */
+    enum GraphShape {
+        /**
+         * Each component requires the service registered by the previous component, once it is notified.
+         */
+        CHAIN("chain"),
+
+        /**
+         * A single component requires one service from each of the scale number of bundles.
+         */
+        FAN_IN("fanIn"),
+
+        /**
+         * Scale number of components require the same service from a single bundle.
+         */
+        FAN_OUT("fanOut"),
+
+        /**
+         * A single component requires the scale number of services declared by a CapabilityProvider.
+         */
+        CAPABILITY_PROVIDER("capabilityProvider");
+
+        private final String name;
+
+        GraphShape(String name) {
+            this.name = name;
+        }
+
+        static GraphShape fromName(String name) {
+            return Arrays.stream(values())
+                    .filter(shape -> shape.name.equalsIgnoreCase(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown graph shape " + name));
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final GraphShape shape;
+    private final int scale;
+
+    SyntheticBundleGenerator(GraphShape shape, int scale) {
+        this.shape = shape;
+        this.scale = scale;
+    }
+
+    /**
+     * Returns the number of RequiredCapabilityListeners notified once all the synthetic components are satisfied.
+     *
+     * @return the number of startup listener components
+     */
+    int getListenerCount() {
+        return shape == GraphShape.CHAIN || shape == GraphShape.FAN_OUT ? scale : 1;
+    }
+
+    /**
+     * Writes the synthetic bundles to the given directory.
+     *
+     * @param directory the directory to which the bundles are written
+     * @return paths of the written bundles
+     * @throws IOException if a bundle cannot be written
+     */
+    List<Path> generate(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> bundles = new ArrayList<>();
+        switch (shape) {
+            case CHAIN:
+                bundles.add(writeRootBundle(directory));
+                for (int i = 0; i < scale; i++) {
+                    String requiredService = i == 0 ? ROOT_SERVICE : getChainService(i - 1);
+                    bundles.add(writeBundle(directory, "chain" + i,
+                            getStartupListener("synthetic-chain-" + i, requiredService) + ", " +
+                                    getOSGiService(getChainService(i)),
+                            "synthetic-chain-" + i, getChainService(i), 1, false));
+                }
+                break;
+            case FAN_IN:
+                for (int i = 0; i < scale; i++) {
+                    bundles.add(writeBundle(directory, "fanin" + i, getOSGiService(FAN_IN_SERVICE),
+                            null, FAN_IN_SERVICE, 1, false));
+                }
+                bundles.add(writeAggregatorBundle(directory, FAN_IN_SERVICE));
+                break;
+            case FAN_OUT:
+                bundles.add(writeRootBundle(directory));
+                for (int i = 0; i < scale; i++) {
+                    bundles.add(writeBundle(directory, "fanout" + i,
+                            getStartupListener("synthetic-fanout-" + i, ROOT_SERVICE),
+                            "synthetic-fanout-" + i, null, 0, false));
+                }
+                break;
+            case CAPABILITY_PROVIDER:
+                bundles.add(writeBundle(directory, "provider",
+                        "osgi.service;objectClass=\"" + CAPABILITY_PROVIDER + "\";capabilityName=\"" +
+                                PROVIDED_SERVICE + "\"",
+                        null, PROVIDED_SERVICE, scale, true));
+                bundles.add(writeAggregatorBundle(directory, PROVIDED_SERVICE));
+                break;
+            default:
+                throw new IllegalStateException("Unknown graph shape " + shape);
+        }
+        return bundles;
+    }
+
+    private Path writeRootBundle(Path directory) throws IOException {
+        return writeBundle(directory, "root", getOSGiService(ROOT_SERVICE), null, ROOT_SERVICE, 1, false);
+    }
+
+    private Path writeAggregatorBundle(Path directory, String requiredService) throws IOException {
+        return writeBundle(directory, "aggregator", getStartupListener("synthetic-aggregator", requiredService),
+                "synthetic-aggregator", null, 0, false);
+    }
+
+    private static String getChainService(int index) {
+        return PREFIX + ".chain" + index + ".ChainService";
+    }
+
+    private static String getStartupListener(String componentName, String requiredService) {
+        return "startup.listener;componentName=\"" + componentName + "\";requiredService=\"" + requiredService + "\"";
+    }
+
+    private static String getOSGiService(String serviceInterface) {
+        return "osgi.service;objectClass=\"" + serviceInterface + "\"";
+    }
+
+    /**
+     * Writes a synthetic bundle.
+     *
+     * @param directory          the directory to which the bundle is written
+     * @param name               the name of the bundle, which is unique within the generated bundles
+     * @param carbonComponent    the Carbon-Component header
+     * @param listenerName       the startup listener component whose listener is registered, or null
+     * @param serviceInterface   the service interface contained in and registered by the bundle, or null
+     * @param serviceCount       the number of services registered by the bundle
+     * @param capabilityProvider whether a CapabilityProvider is registered for the services
+     * @return the path of the bundle
+     */
+    private static Path writeBundle(Path directory, String name, String carbonComponent, String listenerName,
+                                    String serviceInterface, int serviceCount, boolean capabilityProvider)
+            throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attributes.putValue("Bundle-ManifestVersion", "2");
+        attributes.putValue("Bundle-SymbolicName", PREFIX + "." + name.toLowerCase(Locale.ENGLISH));
+        attributes.putValue("Bundle-Version", "1.0.0");
+        attributes.putValue("Carbon-Component", carbonComponent);
+        if (listenerName != null) {
+            attributes.putValue(SyntheticBundleExtender.LISTENER_HEADER, listenerName);
+        }
+        if (serviceInterface != null) {
+            attributes.putValue(SyntheticBundleExtender.SERVICE_INTERFACE_HEADER, serviceInterface);
+            attributes.putValue(SyntheticBundleExtender.SERVICE_COUNT_HEADER, String.valueOf(serviceCount));
+            attributes.putValue(SyntheticBundleExtender.CAPABILITY_PROVIDER_HEADER,
+                    String.valueOf(capabilityProvider));
+        }
+
+        Path bundle = directory.resolve(PREFIX + "." + name + ".jar");
+        try (OutputStream out = Files.newOutputStream(bundle);
+             JarOutputStream jarOut = new JarOutputStream(out, manifest)) {
+            if (serviceInterface != null) {
+                jarOut.putNextEntry(new JarEntry(serviceInterface.replace('.', '/') + ".class"));
+                jarOut.write(createInterface(serviceInterface));
+                jarOut.closeEntry();
+            }
+        }
+        return bundle;
+    }
+
+    /**
+     * Creates the class file of an empty public interface.
+     *
+     * @param className the fully qualified name of the interface
+     * @return the class file
+     * @throws IOException never, since the class file is written to memory
+     */
+    static byte[] createInterface(String className) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            // Java 8 class file version
+            out.writeShort(0);
+            out.writeShort(52);
+
+            // Constant pool: #1 this class, #2 its name, #3 the super class and #4 its name
+            out.writeShort(5);
+            out.writeByte(7);
+            out.writeShort(2);
+            out.writeByte(1);
+            out.writeUTF(className.replace('.', '/'));
+            out.writeByte(7);
+            out.writeShort(4);
+            out.writeByte(1);
+            out.writeUTF("java/lang/Object");
+
+            // ACC_PUBLIC | ACC_INTERFACE | ACC_ABSTRACT
+            out.writeShort(0x0601);
+            out.writeShort(1);
+            out.writeShort(3);
+
+            // No super interfaces, fields, methods or attributes
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.sample.startup.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the notifications of the RequiredCapabilityListeners of the synthetic startup listener components. This is
+ * registered as an OSGi service, so that the benchmark can wait until all the components are satisfied.
+ *
+ * @since 5.2.0
+ */
+public class StartupBenchmarkRecorder {
+
+    private final AtomicInteger notifiedListenerCount = new AtomicInteger();
+
+    private volatile long lastNotificationTime;
+
+    // Key of this map is the id of a thread which notified a listener, value is the CPU time of that thread.
+    private final Map<Long, Long> notificationThreadCpuTimes = new ConcurrentHashMap<>();
+
+    /**
+     * Records a listener notification, together with the CPU time consumed so far by the notifying thread, which is
+     * a Startup Order Resolver thread.
+     */
+    void recordNotification() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean.isCurrentThreadCpuTimeSupported()) {
+            notificationThreadCpuTimes.merge(Thread.currentThread().getId(),
+                    threadMXBean.getCurrentThreadCpuTime(), Math::max);
+        }
+        lastNotificationTime = System.currentTimeMillis();
+        notifiedListenerCount.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of RequiredCapabilityListeners notified so far.
+     *
+     * @return the number of notified listeners
+     */
+    public int getNotifiedListenerCount() {
+        return notifiedListenerCount.get();
+    }
+
+    /**
+     * Returns the time at which the last RequiredCapabilityListener was notified.
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getLastNotificationTime() {
+        return lastNotificationTime;
+    }
+
+    /**
+     * Returns the total CPU time of the threads which notified the listeners, up to their last notification.
+     *
+     * @return the CPU time in nanoseconds, or 0 if thread CPU time measurement is not supported
+     */
+    public long getNotificationThreadCpuTime() {
+        return notificationThreadCpuTimes.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.sample.startup.benchmark;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.util.tracker.BundleTracker;
+import org.osgi.util.tracker.BundleTrackerCustomizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.kernel.startupresolver.CapabilityProvider;
+import org.wso2.carbon.kernel.startupresolver.RequiredCapabilityListener;
+
+import java.lang.reflect.Proxy;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Extender which registers the OSGi services and the RequiredCapabilityListeners of the synthetic bundles generated by
+ * the Startup Order Resolver benchmark.
+ * <p>
+ * Synthetic bundles contain only a manifest and the service interfaces they register, hence this extender registers
+ * the services on behalf of them, as described by the following manifest headers.
+ * <p>
+ * Carbon-Benchmark-Listener: name of the startup listener component of the bundle. A RequiredCapabilityListener is
+ * registered for the component, and the services of the bundle are registered once it is notified.
+ * <p>
+ * Carbon-Benchmark-Service-Interface and Carbon-Benchmark-Service-Count: the interface and the number of services
+ * registered by the bundle. Services are dynamic proxies of the interface loaded from the bundle.
+ * <p>
+ * Carbon-Benchmark-Capability-Provider: if true, a CapabilityProvider is registered for the service interface with the
+ * service count, before registering the services.
+ *
+ * @since 5.2.0
+ */
+@Component(
+        name = "org.wso2.carbon.sample.startup.benchmark.SyntheticBundleExtender",
+        immediate = true
+)
+public class SyntheticBundleExtender implements BundleTrackerCustomizer<List<ServiceRegistration<?>>> {
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticBundleExtender.class);
+
+    public static final String LISTENER_HEADER = "Carbon-Benchmark-Listener";
+    public static final String SERVICE_INTERFACE_HEADER = "Carbon-Benchmark-Service-Interface";
+    public static final String SERVICE_COUNT_HEADER = "Carbon-Benchmark-Service-Count";
+    public static final String CAPABILITY_PROVIDER_HEADER = "Carbon-Benchmark-Capability-Provider";
+
+    private final StartupBenchmarkRecorder recorder = new StartupBenchmarkRecorder();
+
+    private BundleTracker<List<ServiceRegistration<?>>> bundleTracker;
+
+    private ServiceRegistration<StartupBenchmarkRecorder> recorderRegistration;
+
+    @Activate
+    protected void activate(BundleContext bundleContext) {
+        recorderRegistration = bundleContext.registerService(StartupBenchmarkRecorder.class, recorder, null);
+        bundleTracker = new BundleTracker<>(bundleContext, Bundle.ACTIVE, this);
+        bundleTracker.open();
+        logger.debug("Synthetic bundle extender activated.");
+    }
+
+    @Deactivate
+    protected void deactivate(BundleContext bundleContext) {
+        bundleTracker.close();
+        recorderRegistration.unregister();
+        logger.debug("Synthetic bundle extender deactivated.");
+    }
+
+    @Override
+    public List<ServiceRegistration<?>> addingBundle(Bundle bundle, BundleEvent event) {
+        Dictionary<String, String> headers = bundle.getHeaders("");
+        String componentName = headers.get(LISTENER_HEADER);
+        if (componentName == null && headers.get(SERVICE_INTERFACE_HEADER) == null) {
+            return null;
+        }
+
+        List<ServiceRegistration<?>> registrations = new CopyOnWriteArrayList<>();
+        if (componentName == null) {
+            registerServices(bundle, registrations);
+            return registrations;
+        }
+
+        Dictionary<String, Object> properties = new Hashtable<>();
+        properties.put("componentName", componentName);
+        RequiredCapabilityListener listener = () -> {
+            recorder.recordNotification();
+            registerServices(bundle, registrations);
+        };
+        registrations.add(bundle.getBundleContext().registerService(RequiredCapabilityListener.class, listener,
+                properties));
+        return registrations;
+    }
+
+    @Override
+    public void modifiedBundle(Bundle bundle, BundleEvent event, List<ServiceRegistration<?>> registrations) {
+    }
+
+    @Override
+    public void removedBundle(Bundle bundle, BundleEvent event, List<ServiceRegistration<?>> registrations) {
+        registrations.forEach(registration -> {
+            try {
+                registration.unregister();
+            } catch (IllegalStateException e) {
+                // Services are unregistered by the framework, when the bundle is stopped.
+            }
+        });
+    }
+
+    private void registerServices(Bundle bundle, List<ServiceRegistration<?>> registrations) {
+        Dictionary<String, String> headers = bundle.getHeaders("");
+        String serviceInterfaceName = headers.get(SERVICE_INTERFACE_HEADER);
+        if (serviceInterfaceName == null) {
+            return;
+        }
+
+        int serviceCount = Integer.parseInt(headers.get(SERVICE_COUNT_HEADER));
+        BundleContext bundleContext = bundle.getBundleContext();
+        if (Boolean.parseBoolean(headers.get(CAPABILITY_PROVIDER_HEADER))) {
+            Dictionary<String, Object> properties = new Hashtable<>();
+            properties.put("capabilityName", serviceInterfaceName);
+            CapabilityProvider capabilityProvider = () -> serviceCount;
+            registrations.add(bundleContext.registerService(CapabilityProvider.class, capabilityProvider,
+                    properties));
+        }
+
+        Class<?> serviceInterface;
+        try {
+            serviceInterface = bundle.loadClass(serviceInterfaceName);
+        } catch (ClassNotFoundException e) {
+            logger.error("Service interface " + serviceInterfaceName + " is not available in bundle " +
+                    bundle.getSymbolicName(), e);
+            return;
+        }
+
+        for (int i = 0; i < serviceCount; i++) {
+            Object service = Proxy.newProxyInstance(serviceInterface.getClassLoader(),
+                    new Class<?>[]{serviceInterface}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                return serviceInterfaceName;
+                        }
+                    });
+            registrations.add(bundleContext.registerService(serviceInterfaceName, service, null));
+        }
+    }
+}